@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci;
+
+/**
+ * Marks a {@link TCI} as recyclable.
+ * <p>
+ * Recyclable infrastructure is not destroyed when it's stopped (returned) but reset and reused by the next test.
+ * This removes the start cost of the infrastructure.
+ * </p>
+ * <p>
+ * Recycling is currently only supported by
+ * {@link software.xdev.tci.factory.prestart.PreStartableTCIFactory PreStartableTCIFactory} and needs to be enabled
+ * there.
+ * </p>
+ */
+public interface RecyclableTCI
+{
+	/**
+	 * Resets the infrastructure to a clean state so that it can be reused by another test.
+	 * <p>
+	 * Examples: truncating tables of a database, clearing an inbox, deleting users, etc.
+	 * </p>
+	 * <p>
+	 * Note that {@link TCI#stop()} was called before. Resources that are closed there need to be re-created.
+	 * </p>
+	 */
+	void resetForReuse();
+	
+	/**
+	 * Checks if the infrastructure is healthy after {@link #resetForReuse()} and can be reused.
+	 */
+	default boolean isHealthyForReuse()
+	{
+		return true;
+	}
+}
@@ -16,12 +16,19 @@
 package software.xdev.tci;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 
 import org.rnorth.ducttape.unreliables.Unreliables;
 import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.GenericContainer;
 
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotFoundException;
+
 import software.xdev.tci.safestart.SafeNamedContainerStarter;
+import software.xdev.tci.stop.TCIStopPipeline;
+import software.xdev.tci.tracing.jfr.StopEvent;
 
 
 /**
@@ -40,6 +47,8 @@ public class TCI<C extends GenericContainer<C>>
 	private C container;
 	private String networkAlias;
 	private Runnable onStopped;
+	private BooleanSupplier recycler;
+	private volatile boolean forceRemoveOnStop;
 	
 	protected TCI(final C container, final String networkAlias)
 	{
@@ -52,6 +61,18 @@ public class TCI<C extends GenericContainer<C>>
 		this.onStopped = onStopped;
 	}
 	
+	/**
+	 * Sets a recycler that is consulted (once) when the infrastructure is stopped.
+	 * <p>
+	 * If it returns <code>true</code> the infrastructure was taken over for recycling (see {@link RecyclableTCI})
+	 * and the container is not stopped.
+	 * </p>
+	 */
+	public void setRecycler(final BooleanSupplier recycler)
+	{
+		this.recycler = recycler;
+	}
+	
 	public void setNetworkAlias(final String networkAlias)
 	{
 		this.networkAlias = networkAlias;
@@ -69,23 +90,139 @@ public class TCI<C extends GenericContainer<C>>
 			return;
 		}
 		
-		try
+		final StopEvent event = new StopEvent();
+		event.begin();
+		// The id is reset when the container is stopped
+		final String containerId = event.isEnabled() ? this.container.getContainerId() : null;
+		if(this.tryRecycle())
 		{
-			Unreliables.retryUntilSuccess(2, () -> {
-				this.container.stop();
-				return null;
+			// The infra is used again -> a later stop should be graceful again
+			this.forceRemoveOnStop = false;
+			event.complete(null, () -> containerId, true, () -> {
+				event.infra = this.getClass().getSimpleName();
+				event.recycled = true;
 			});
+			this.networkAlias = null;
+			this.onStopped();
+			return;
+		}
+		
+		boolean success = false;
+		try
+		{
+			this.stopContainer();
+			success = true;
 		}
 		catch(final Exception ex)
 		{
 			LoggerFactory.getLogger(this.getClass())
 				.warn("Failed to stop container", ex);
 		}
+		event.complete(null, () -> containerId, success, () -> event.infra = this.getClass().getSimpleName());
 		this.container = null;
 		this.networkAlias = null;
 		this.onStopped();
 	}
 	
+	/**
+	 * Stops the infrastructure asynchronously using the {@link TCIStopPipeline}.
+	 * <p>
+	 * The infrastructure is marked as stopped (see {@link #setOnStopped(Runnable)}) once the container was removed.
+	 * </p>
+	 *
+	 * @return future that is completed once the infrastructure is stopped
+	 */
+	public CompletableFuture<Void> stopAsync()
+	{
+		if(this.container == null) // Already stopped
+		{
+			return CompletableFuture.completedFuture(null);
+		}
+		// Containers stopped by the pipeline are ephemeral -> no need to wait for a graceful shutdown
+		this.forceRemoveOnStop = true;
+		return TCIStopPipeline.instance().submit(this::stop);
+	}
+	
+	/**
+	 * Stops the container using {@link GenericContainer#stop()}.
+	 * <p>
+	 * When stopped by the {@link TCIStopPipeline} the container is force removed before (see
+	 * {@link #forceRemoveContainer()}).
+	 * </p>
+	 */
+	protected void stopContainer()
+	{
+		if(this.forceRemoveOnStop)
+		{
+			this.forceRemoveContainer();
+		}
+		
+		Unreliables.retryUntilSuccess(2, () -> {
+			this.container.stop();
+			return null;
+		});
+	}
+	
+	/**
+	 * Removes the container directly (<code>docker rm -f</code>) - optionally after a grace period.
+	 * <p>
+	 * {@link GenericContainer#stop()} should still be called afterwards so that Testcontainers can clean up its own
+	 * resources.
+	 * </p>
+	 */
+	protected void forceRemoveContainer()
+	{
+		final String containerId = this.container.getContainerId();
+		if(containerId != null)
+		{
+			try
+			{
+				final DockerClient client = this.container.getDockerClient();
+				final int gracePeriodSeconds = TCIStopPipeline.instance().config().gracePeriodSeconds();
+				if(gracePeriodSeconds > 0)
+				{
+					client.stopContainerCmd(containerId)
+						.withTimeout(gracePeriodSeconds)
+						.exec();
+				}
+				client.removeContainerCmd(containerId)
+					.withForce(true)
+					.withRemoveVolumes(true)
+					.exec();
+			}
+			catch(final NotFoundException ignored)
+			{
+				// Already removed
+			}
+			catch(final Exception ex)
+			{
+				LoggerFactory.getLogger(this.getClass())
+					.debug("Failed to force remove container[id={}]", containerId, ex);
+			}
+		}
+	}
+	
+	protected boolean tryRecycle()
+	{
+		final BooleanSupplier currentRecycler = this.recycler;
+		if(currentRecycler == null)
+		{
+			return false;
+		}
+		this.recycler = null;
+		
+		try
+		{
+			return currentRecycler.getAsBoolean();
+		}
+		catch(final Exception ex)
+		{
+			LoggerFactory.getLogger(this.getClass())
+				.warn("Failed to recycle", ex);
+			return false;
+		}
+	}
+	
 	protected void onStopped()
 	{
 		if(this.onStopped != null)
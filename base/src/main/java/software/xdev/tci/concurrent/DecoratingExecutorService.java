@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.concurrent;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * {@link ExecutorService} that decorates every task (on the submitting thread) before it's passed to the delegate.
+ * <p>
+ * This can e.g. be used to propagate thread bound context into the executing thread.
+ * </p>
+ */
+public class DecoratingExecutorService extends AbstractExecutorService
+{
+	protected final ExecutorService delegate;
+	protected final UnaryOperator<Runnable> decorator;
+	
+	public DecoratingExecutorService(final ExecutorService delegate, final UnaryOperator<Runnable> decorator)
+	{
+		this.delegate = Objects.requireNonNull(delegate);
+		this.decorator = Objects.requireNonNull(decorator);
+	}
+	
+	@Override
+	public void execute(final Runnable command)
+	{
+		this.delegate.execute(this.decorator.apply(command));
+	}
+	
+	@Override
+	public void shutdown()
+	{
+		this.delegate.shutdown();
+	}
+	
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		return this.delegate.shutdownNow();
+	}
+	
+	@Override
+	public boolean isShutdown()
+	{
+		return this.delegate.isShutdown();
+	}
+	
+	@Override
+	public boolean isTerminated()
+	{
+		return this.delegate.isTerminated();
+	}
+	
+	@Override
+	public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException
+	{
+		return this.delegate.awaitTermination(timeout, unit);
+	}
+}
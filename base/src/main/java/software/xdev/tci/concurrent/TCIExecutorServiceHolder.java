@@ -17,6 +17,8 @@ package software.xdev.tci.concurrent;
 
 import java.util.concurrent.ExecutorService;
 
+import software.xdev.tci.factory.prestart.forecast.PreStartForecast;
+
 
 /**
  * Holds the {@link ExecutorService} that can be used for TCI related work like starting or stopping containers.
@@ -24,6 +26,10 @@ import java.util.concurrent.ExecutorService;
  * This {@link ExecutorService} should be used in favor of {@link java.util.concurrent.ForkJoinPool#commonPool()} as it
  * guarantees better scalability.
  * </p>
+ * <p>
+ * Tasks are attributed to the test that submitted them (see
+ * {@link PreStartForecast#propagateTestContext(Runnable)}).
+ * </p>
  */
 public final class TCIExecutorServiceHolder
 {
@@ -44,7 +50,9 @@ public final class TCIExecutorServiceHolder
 		{
 			return;
 		}
-		instance = ExecutorServiceCreatorHolder.instance().createUnlimited("TCI-exec");
+		instance = new DecoratingExecutorService(
+			ExecutorServiceCreatorHolder.instance().createUnlimited("TCI-exec"),
+			task -> PreStartForecast.instance().propagateTestContext(task));
 	}
 	
 	public static void setInstance(final ExecutorService instance)
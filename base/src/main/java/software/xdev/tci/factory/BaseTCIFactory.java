@@ -32,7 +32,9 @@ import org.testcontainers.containers.output.Slf4jLogConsumer;
 
 import software.xdev.tci.TCI;
 import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
+import software.xdev.tci.startup.wait.log.SharedLogConsumer;
 import software.xdev.tci.tracing.TCITracer;
+import software.xdev.tci.tracing.jfr.GetNewEvent;
 
 
 @SuppressWarnings("java:S119")
@@ -113,7 +115,7 @@ public abstract class BaseTCIFactory<
 	protected C buildContainer()
 	{
 		return this.containerBuilder.get()
-			.withLogConsumer(getLogConsumer(this.containerLoggerName));
+			.withLogConsumer(getSharedLogConsumer(this.containerLoggerName));
 	}
 	
 	protected void handleInfraStartFail(final I infra)
@@ -139,17 +141,27 @@ public abstract class BaseTCIFactory<
 	
 	protected I getNewWithRetry(final Supplier<I> supplier)
 	{
+		final GetNewEvent event = new GetNewEvent();
+		event.begin();
 		final List<RuntimeException> failedTries = new ArrayList<>();
 		for(int attempt = 1; attempt <= this.getNewAttempts; attempt++)
 		{
+			final int attempts = attempt;
 			try
 			{
-				return supplier.get();
+				final I infra = supplier.get();
+				event.complete(
+					this.getFactoryName(),
+					() -> infra.getContainer().getContainerId(),
+					true,
+					() -> event.attempts = attempts);
+				return infra;
 			}
 			catch(final RuntimeException ex)
 			{
 				if(attempt == this.getNewAttempts)
 				{
+					event.complete(this.getFactoryName(), null, false, () -> event.attempts = attempts);
 					failedTries.forEach(ex::addSuppressed);
 					this.logger.error("All {}x attempts getting new infra failed", attempt);
 					throw ex;
@@ -216,4 +228,13 @@ public abstract class BaseTCIFactory<
 	{
 		return new Slf4jLogConsumer(LoggerFactory.getLogger(name));
 	}
+	
+	/**
+	 * Creates a log consumer that logs the output and also shares it with e.g.
+	 * {@link software.xdev.tci.startup.wait.strategy.LogMessageWaitAbortableStrategy}
+	 */
+	protected static SharedLogConsumer getSharedLogConsumer(final String name)
+	{
+		return new SharedLogConsumer(getLogConsumer(name));
+	}
 }
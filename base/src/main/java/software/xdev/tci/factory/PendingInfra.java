@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory;
+
+import software.xdev.tci.TCI;
+
+
+/**
+ * Infrastructure that was acquired but is not yet ready for use as connecting it to the network and post-processing
+ * are still pending.
+ * <p>
+ * This allows doing these steps for multiple infrastructures concurrently (see
+ * {@link software.xdev.tci.group.TCIGroup}).
+ * </p>
+ * <p>
+ * If a step fails the infrastructure should be stopped by the caller (see {@link TCI#stop()}).
+ * </p>
+ */
+public interface PendingInfra<I extends TCI<?>>
+{
+	/**
+	 * @return the acquired infrastructure (which might not be ready yet)
+	 */
+	I infra();
+	
+	/**
+	 * Connects the infrastructure to the network - if required.
+	 */
+	void connectToNetwork();
+	
+	/**
+	 * Completes the acquisition, e.g. by post-processing.
+	 *
+	 * @return the infrastructure that is now ready for use
+	 */
+	I complete();
+	
+	/**
+	 * @return infrastructure that requires no further steps
+	 */
+	static <I extends TCI<?>> PendingInfra<I> ready(final I infra)
+	{
+		return new PendingInfra<>()
+		{
+			@Override
+			public I infra()
+			{
+				return infra;
+			}
+			
+			@Override
+			public void connectToNetwork()
+			{
+				// Nothing to do
+			}
+			
+			@Override
+			public I complete()
+			{
+				return infra;
+			}
+		};
+	}
+}
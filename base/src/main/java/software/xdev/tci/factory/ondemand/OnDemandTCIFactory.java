@@ -26,6 +26,7 @@ import org.testcontainers.containers.Network;
 
 import software.xdev.tci.TCI;
 import software.xdev.tci.factory.BaseTCIFactory;
+import software.xdev.tci.tracing.TCITracerHolder;
 
 
 /**
@@ -66,7 +67,8 @@ public class OnDemandTCIFactory<C extends GenericContainer<C>, I extends TCI<C>>
 				.orElse(null)));
 		try
 		{
-			infra.start(this.containerBaseName + "-" + this.startCounter.getAndIncrement());
+			final String containerName = this.containerBaseName + "-" + this.startCounter.getAndIncrement();
+			TCITracerHolder.executeWith(() -> infra.start(containerName), this.tracer);
 		}
 		catch(final RuntimeException rex)
 		{
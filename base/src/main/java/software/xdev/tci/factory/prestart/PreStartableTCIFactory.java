@@ -16,14 +16,24 @@
 package software.xdev.tci.factory.prestart;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -33,18 +43,37 @@ import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 
+import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.ConnectToNetworkCmd;
+import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.model.ContainerNetwork;
+import com.github.dockerjava.api.model.HostConfig;
 
+import software.xdev.tci.RecyclableTCI;
 import software.xdev.tci.TCI;
 import software.xdev.tci.concurrent.ExecutorServiceCreator;
 import software.xdev.tci.concurrent.ExecutorServiceCreatorHolder;
 import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
 import software.xdev.tci.factory.BaseTCIFactory;
+import software.xdev.tci.factory.PendingInfra;
+import software.xdev.tci.factory.prestart.admission.MemoryAdmissionControl;
+import software.xdev.tci.factory.prestart.admission.MemoryAdmissionControlHolder;
 import software.xdev.tci.factory.prestart.config.PreStartConfig;
 import software.xdev.tci.factory.prestart.coordinator.GlobalPreStartCoordinator;
+import software.xdev.tci.factory.prestart.forecast.PreStartForecast;
+import software.xdev.tci.factory.prestart.keepready.AdaptiveKeepReadyStrategy;
+import software.xdev.tci.factory.prestart.keepready.FixedKeepReadyStrategy;
+import software.xdev.tci.factory.prestart.keepready.KeepReadyStrategy;
 import software.xdev.tci.factory.prestart.snapshoting.SnapshotManager;
+import software.xdev.tci.hostcoordination.HostCoordinator;
 import software.xdev.tci.portfixation.PortFixation;
+import software.xdev.tci.safestart.StartupPhaseRecorder;
+import software.xdev.tci.tracing.TCITracer;
+import software.xdev.tci.tracing.TCITracerHolder;
+import software.xdev.tci.tracing.jfr.AcquireEvent;
+import software.xdev.tci.tracing.jfr.BootNewEvent;
+import software.xdev.tci.tracing.jfr.NetworkConnectEvent;
+import software.xdev.tci.tracing.jfr.PreStartQueueWaitEvent;
 
 
 /**
@@ -143,6 +172,8 @@ import software.xdev.tci.portfixation.PortFixation;
 public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI<C>>
 	extends BaseTCIFactory<C, I>
 {
+	protected static final String DEFAULT_DOCKER_NETWORK = "bridge";
+	
 	/**
 	 * Name (used for Thread-names and Logging)
 	 */
@@ -160,14 +191,44 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 	protected final boolean fixateExposedPortsIfRequired;
 	
 	// endregion
+	protected final KeepReadyStrategy keepReadyStrategy;
 	protected final LinkedBlockingQueue<StartingInfra<I>> preStartQueue;
 	
 	protected final ExecutorService executorService;
 	protected final AtomicInteger preStartCounter = new AtomicInteger(1);
+	protected final AtomicLong preStartAcquires = new AtomicLong();
+	protected final AtomicLong preStartMisses = new AtomicLong();
 	
 	protected final Timeouts timeouts;
 	
 	protected SnapshotManager snapshotManager;
+	/**
+	 * Additional snapshot levels (in the order they are reached) and how to reach them from the previous level.
+	 *
+	 * @see #withSnapshotLevel(String, Consumer)
+	 */
+	protected final Map<String, Consumer<I>> snapshotLevels = new LinkedHashMap<>();
+	
+	/**
+	 * How often infrastructure may be recycled. <code>0</code> = disabled
+	 *
+	 * @see RecyclableTCI
+	 */
+	protected int maxReuse;
+	protected final Map<I, Integer> reuseCounts = new ConcurrentHashMap<>();
+	protected volatile boolean closed;
+	
+	/**
+	 * Should PreStarted infrastructure be paused while waiting to be used?
+	 */
+	protected boolean pauseIdle;
+	protected final Set<I> pausedInfra = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * Memory limit of the last started container; <code>0</code> = unknown or unlimited
+	 */
+	protected volatile long observedMemoryLimitBytes;
+	protected final long defaultExpectedMemoryBytes;
 	
 	public PreStartableTCIFactory(
 		final BiFunction<C, String, I> infraBuilder,
@@ -201,8 +262,9 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 		
 		this.name = Objects.requireNonNull(name);
 		
-		final int amountToKeepReady = config.keepReady(name);
-		this.preStartQueue = amountToKeepReady > 0 ? new LinkedBlockingQueue<>(amountToKeepReady) : null;
+		this.keepReadyStrategy = this.createKeepReadyStrategy(config);
+		final int preStartCapacity = this.keepReadyStrategy.capacity();
+		this.preStartQueue = preStartCapacity > 0 ? new LinkedBlockingQueue<>(preStartCapacity) : null;
 		
 		this.useDirectNetworkAttachIfPossible = config.directNetworkAttachIfPossible(name);
 		this.fixateExposedPortsIfRequired = config.fixateExposedPortsIfRequired(name);
@@ -216,10 +278,27 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 			: executorServiceCreator.createFixed(threadNamePrefix, maxAmountStartingSimultaneously);
 		
 		this.timeouts = Objects.requireNonNull(timeouts);
+		this.maxReuse = config.recycleMaxReuse(name);
+		this.pauseIdle = config.pauseIdle(name);
+		this.defaultExpectedMemoryBytes = config.admissionDefaultContainerMemoryBytes();
 		
 		this.registerToPreStartCoordinator();
 	}
 	
+	protected KeepReadyStrategy createKeepReadyStrategy(final PreStartConfig config)
+	{
+		final int keepReady = config.keepReady(this.name);
+		if(keepReady <= 0 || !config.keepReadyAdaptive(this.name))
+		{
+			return new FixedKeepReadyStrategy(keepReady);
+		}
+		return new AdaptiveKeepReadyStrategy(
+			config.keepReadyMin(this.name),
+			config.keepReadyMax(this.name),
+			keepReady,
+			config.keepReadyAdaptiveWindowMs(this.name));
+	}
+	
 	@SuppressWarnings("resource")
 	protected void registerToPreStartCoordinator()
 	{
@@ -238,6 +317,54 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 		return this;
 	}
 	
+	/**
+	 * Adds a further snapshot level, that is reached after all previously added levels.
+	 * <p>
+	 * Infrastructure at this level can be acquired using {@link #getNewAtLevel(String, Network, String...)}.
+	 * The first time a level is requested the infrastructure is started, the actions of all levels up to the
+	 * requested one are executed and a snapshot is created after each level (if a {@link SnapshotManager} is used).
+	 * Subsequent infrastructure is then directly created from the snapshot of the level.
+	 * </p>
+	 *
+	 * @param level      name of the level, e.g. <code>seeded</code>
+	 * @param reachLevel action that brings the infrastructure from the previous level to this level
+	 */
+	public PreStartableTCIFactory<C, I> withSnapshotLevel(final String level, final Consumer<I> reachLevel)
+	{
+		if(SnapshotManager.LEVEL_STARTED.equals(level))
+		{
+			throw new IllegalArgumentException("Level " + level + " is reserved");
+		}
+		this.snapshotLevels.put(Objects.requireNonNull(level), Objects.requireNonNull(reachLevel));
+		return this;
+	}
+	
+	/**
+	 * How often infrastructure that implements {@link RecyclableTCI} may be recycled (reset and put back into the
+	 * PreStart-queue) before it's destroyed. <code>0</code> disables recycling.
+	 * <p>
+	 * Only works when PreStarting is enabled.
+	 * </p>
+	 */
+	public PreStartableTCIFactory<C, I> withMaxReuse(final int maxReuse)
+	{
+		this.maxReuse = Math.max(0, maxReuse);
+		return this;
+	}
+	
+	/**
+	 * Should PreStarted infrastructure be paused (<code>docker pause</code>) while it's waiting to be used?
+	 * <p>
+	 * This frees resources (e.g. CPU) for the currently running tests. The infrastructure is unpaused when it's
+	 * acquired.
+	 * </p>
+	 */
+	public PreStartableTCIFactory<C, I> withPauseIdle(final boolean pauseIdle)
+	{
+		this.pauseIdle = pauseIdle;
+		return this;
+	}
+	
 	public void schedulePreStart()
 	{
 		if(this.preStartQueue == null)
@@ -245,11 +372,127 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 			return;
 		}
 		
-		this.preStartQueue.removeIf(preStarted -> preStarted.startFuture().isCompletedExceptionally());
-		if(this.preStartQueue.remainingCapacity() > 0)
+		this.evictFailedPreStarted();
+		
+		final int target = this.recalculateKeepReadyTarget();
+		
+		final int size = this.preStartQueue.size();
+		if(size < target && this.preStartQueue.remainingCapacity() > 0)
 		{
 			this.preStartQueue.add(this.bootNew(null, true));
 		}
+		else if(size > target)
+		{
+			this.shrinkPreStartQueue();
+		}
+	}
+	
+	protected int recalculateKeepReadyTarget()
+	{
+		this.keepReadyStrategy.recalculate(this.getAverageStartMs());
+		
+		int target = this.keepReadyStrategy.currentTarget();
+		// Don't PreStart more than the remaining tests will need
+		final OptionalInt remainingDemand = PreStartForecast.instance().remainingDemand(this.name);
+		if(remainingDemand.isPresent())
+		{
+			target = Math.min(target, remainingDemand.getAsInt());
+		}
+		
+		this.tracer.gaugeSet("keepReadyTarget", target);
+		return target;
+	}
+	
+	/**
+	 * Does the amount of PreStarted infrastructure differ from the amount that should be kept ready?
+	 * <p>
+	 * If yes, {@link #schedulePreStart()} should be called.
+	 * </p>
+	 */
+	public boolean isPreStartSchedulingRequired()
+	{
+		if(this.preStartQueue == null)
+		{
+			return false;
+		}
+		
+		final int target = this.recalculateKeepReadyTarget();
+		final int size = this.preStartQueue.size();
+		return size < target && this.preStartQueue.remainingCapacity() > 0 || size > target;
+	}
+	
+	/**
+	 * @return the amount of PreStarted infrastructure (ready or starting)
+	 */
+	public int getPreStartedCount()
+	{
+		return this.preStartQueue != null ? this.preStartQueue.size() : 0;
+	}
+	
+	/**
+	 * @return how often infrastructure was acquired while PreStarting is enabled
+	 */
+	public long getPreStartAcquires()
+	{
+		return this.preStartAcquires.get();
+	}
+	
+	/**
+	 * @return how often no PreStarted infrastructure was available during acquiring
+	 */
+	public long getPreStartMisses()
+	{
+		return this.preStartMisses.get();
+	}
+	
+	/**
+	 * @return the average time it takes to start a new infrastructure
+	 */
+	public double getAverageStartMs()
+	{
+		return this.tracer.getTimedOrCreate("infraStart(async)").getAverageMs();
+	}
+	
+	/**
+	 * @return the expected memory usage of a container (in bytes); used for admission control
+	 */
+	public long getExpectedMemoryBytes()
+	{
+		final long observed = this.observedMemoryLimitBytes;
+		return observed > 0 ? observed : this.defaultExpectedMemoryBytes;
+	}
+	
+	protected void observeMemoryLimit(final C container)
+	{
+		try
+		{
+			Optional.ofNullable(container.getContainerInfo())
+				.map(InspectContainerResponse::getHostConfig)
+				.map(HostConfig::getMemory)
+				.ifPresent(memory -> this.observedMemoryLimitBytes = memory);
+		}
+		catch(final Exception ex)
+		{
+			this.log().debug("[{}] Failed to determine memory limit", this.name, ex);
+		}
+	}
+	
+	/**
+	 * Removes one - already started - infrastructure from the queue because it's no longer required.
+	 */
+	protected void shrinkPreStartQueue()
+	{
+		this.preStartQueue.stream()
+			.filter(preStarted -> preStarted.startFuture().isDone()
+				&& !preStarted.startFuture().isCompletedExceptionally())
+			.findFirst()
+			.filter(this.preStartQueue::remove)
+			.ifPresent(preStarted -> {
+				this.log().info("[{}] Stopping no longer required PreStarted infra", this.name);
+				CompletableFuture.runAsync(
+					() -> this.stopPreStarted(preStarted.infra()),
+					TCIExecutorServiceHolder.instance());
+			});
 	}
 	
 	protected StartingInfra<I> bootNew(final DirectNetworkAttachInfo directAttachNetwork)
@@ -260,6 +503,14 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 	protected StartingInfra<I> bootNew(
 		final DirectNetworkAttachInfo directAttachNetwork,
 		final boolean preStarted)
+	{
+		return this.bootNew(directAttachNetwork, preStarted, SnapshotManager.LEVEL_STARTED);
+	}
+	
+	protected StartingInfra<I> bootNew(
+		final DirectNetworkAttachInfo directAttachNetwork,
+		final boolean preStarted,
+		final String level)
 	{
 		this.log().info("[{}] Booting new infra", this.name);
 		
@@ -280,25 +531,54 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 				infra,
 				CompletableFuture.runAsync(() -> {
 					final long startTimeInfra = System.currentTimeMillis();
+					final BootNewEvent event = new BootNewEvent();
+					event.begin();
+					boolean success = false;
 					try
 					{
 						// Fix ports for network attach later
 						if(directAttachNetwork == null && this.fixateExposedPortsIfRequired)
 						{
+							final long startTimePortFixation = System.currentTimeMillis();
 							org.rnorth.ducttape.timeouts.Timeouts.doWithTimeout(
 								(int)this.timeouts.getMakeExposedPortsFixTimeout().toMillis(),
 								TimeUnit.MILLISECONDS,
 								() -> PortFixation.makeExposedPortsFix(container));
+							this.tracer.timedAdd(
+								StartupPhaseRecorder.PREFIX + "portFixation",
+								System.currentTimeMillis() - startTimePortFixation);
 						}
 						
-						this.runIfSnapshotManager(sm -> sm.tryReuse(container));
+						final List<String> levels = this.snapshotLevelsUpTo(level);
+						final long startTimeReuseSnapshot = System.currentTimeMillis();
+						final int reusedLevelIndex = this.tryReuseSnapshot(container, levels);
+						if(this.snapshotManager != null)
+						{
+							this.tracer.timedAdd(
+								StartupPhaseRecorder.PREFIX + "snapshotLookup",
+								System.currentTimeMillis() - startTimeReuseSnapshot);
+						}
 						
-						infra.start(this.containerBaseName
-							+ "-"
-							+ this.preStartCounter.getAndIncrement()
-							+ (preStarted ? "-PS" : ""));
+						this.startInfra(infra, preStarted);
+						this.observeMemoryLimit(container);
 						
-						this.runIfSnapshotManager(sm -> sm.snapshot(container));
+						if(reusedLevelIndex == 0)
+						{
+							this.runIfSnapshotManager(sm -> {
+								final long startTimeSnapshot = System.currentTimeMillis();
+								sm.snapshot(container);
+								this.tracer.timedAdd(
+									StartupPhaseRecorder.PREFIX + "snapshot",
+									System.currentTimeMillis() - startTimeSnapshot);
+							});
+						}
+						this.reachSnapshotLevels(infra, levels, reusedLevelIndex);
+						
+						if(preStarted)
+						{
+							this.pauseIfRequired(infra);
+						}
+						success = true;
 					}
 					catch(final Exception ex)
 					{
@@ -308,6 +588,10 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 					finally
 					{
 						this.tracer.timedAdd("infraStart(async)", System.currentTimeMillis() - startTimeInfra);
+						event.complete(this.name, container::getContainerId, success, () -> {
+							event.preStarted = preStarted;
+							event.level = level;
+						});
 					}
 				}, this.executorService),
 				directAttachNetwork == null);
@@ -318,6 +602,93 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 		}
 	}
 	
+	/**
+	 * Starts the infrastructure once enough memory is available and the host permits it.
+	 */
+	@SuppressWarnings("try") // The reservation and permit are only held while starting
+	protected void startInfra(final I infra, final boolean preStarted)
+	{
+		final long startTimeAdmission = System.currentTimeMillis();
+		try(final MemoryAdmissionControl.Reservation memoryReservation = MemoryAdmissionControlHolder.instance()
+			.reserve(this.getExpectedMemoryBytes()))
+		{
+			this.tracer.timedAdd("admissionWait", System.currentTimeMillis() - startTimeAdmission);
+			
+			final long startTimePermit = System.currentTimeMillis();
+			try(final HostCoordinator.StartPermit startPermit = HostCoordinator.instance().acquireStartPermit())
+			{
+				this.tracer.timedAdd("hostStartPermitWait", System.currentTimeMillis() - startTimePermit);
+				
+				final String containerName = this.containerBaseName
+					+ "-"
+					+ this.preStartCounter.getAndIncrement()
+					+ (preStarted ? "-PS" : "");
+				TCITracerHolder.executeWith(() -> infra.start(containerName), this.tracer);
+			}
+		}
+	}
+	
+	/**
+	 * @return all levels - starting with {@link SnapshotManager#LEVEL_STARTED} - that are required to reach the
+	 * given level
+	 */
+	protected List<String> snapshotLevelsUpTo(final String level)
+	{
+		final List<String> levels = new ArrayList<>();
+		levels.add(SnapshotManager.LEVEL_STARTED);
+		if(SnapshotManager.LEVEL_STARTED.equals(level))
+		{
+			return levels;
+		}
+		
+		for(final String snapshotLevel : this.snapshotLevels.keySet())
+		{
+			levels.add(snapshotLevel);
+			if(snapshotLevel.equals(level))
+			{
+				return levels;
+			}
+		}
+		throw new IllegalArgumentException("Unknown snapshot level " + level);
+	}
+	
+	/**
+	 * Tries to reuse the snapshot of the highest possible level.
+	 *
+	 * @return index of the level that will be reused
+	 */
+	protected int tryReuseSnapshot(final C container, final List<String> levels)
+	{
+		if(this.snapshotManager == null)
+		{
+			return 0;
+		}
+		
+		for(int i = levels.size() - 1; i > 0; i--)
+		{
+			if(this.snapshotManager.tryReuse(container, levels.get(i)))
+			{
+				return i;
+			}
+		}
+		this.snapshotManager.tryReuse(container);
+		return 0;
+	}
+	
+	protected void reachSnapshotLevels(final I infra, final List<String> levels, final int reachedLevelIndex)
+	{
+		for(int i = reachedLevelIndex + 1; i < levels.size(); i++)
+		{
+			final String level = levels.get(i);
+			
+			final long startTime = System.currentTimeMillis();
+			this.snapshotLevels.get(level).accept(infra);
+			this.tracer.timedAdd("reachSnapshotLevel(" + level + ")", System.currentTimeMillis() - startTime);
+			
+			this.runIfSnapshotManager(sm -> sm.snapshot(infra.getContainer(), level));
+		}
+	}
+	
 	protected void runIfSnapshotManager(final Consumer<SnapshotManager> snapshotManagerConsumer)
 	{
 		if(this.snapshotManager != null)
@@ -326,25 +697,218 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 		}
 	}
 	
+	/**
+	 * Removes all PreStarted infrastructure that failed to start and cleans it up.
+	 */
+	protected void evictFailedPreStarted()
+	{
+		this.preStartQueue.stream()
+			.filter(preStarted -> preStarted.startFuture().isCompletedExceptionally())
+			.filter(this.preStartQueue::remove)
+			.forEach(preStarted -> {
+				this.log().warn("[{}] Evicting PreStarted infra that failed to start", this.name);
+				this.handleInfraStartFail(preStarted.infra());
+			});
+	}
+	
+	/**
+	 * Takes PreStarted infrastructure from the queue in the order it finished starting (and not in the order it
+	 * was scheduled).
+	 * <p>
+	 * If no PreStarted infrastructure is ready yet, this waits until the first one of the ones that are currently
+	 * starting is ready.<br/>
+	 * Infrastructure that failed to start is evicted and never returned.
+	 * </p>
+	 *
+	 * @return the PreStarted infrastructure or <code>null</code> if none is available or the deadline was reached
+	 */
+	protected StartingInfra<I> pollPreStarted(final long deadline)
+	{
+		return this.pollPreStarted(deadline, null);
+	}
+	
+	/**
+	 * @param stopWaitingWhenDone stops waiting once this is completed (e.g. when newly booted infrastructure is
+	 *                            ready); might be <code>null</code>
+	 * @see #pollPreStarted(long)
+	 */
+	protected StartingInfra<I> pollPreStarted(final long deadline, final CompletableFuture<?> stopWaitingWhenDone)
+	{
+		while(true)
+		{
+			this.evictFailedPreStarted();
+			
+			final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+			for(final StartingInfra<I> preStarted : this.preStartQueue)
+			{
+				final CompletableFuture<Void> startFuture = preStarted.startFuture();
+				if(!startFuture.isDone())
+				{
+					inFlight.add(startFuture);
+				}
+				// Claim it; remove fails if it was already taken by someone else
+				else if(!startFuture.isCompletedExceptionally() && this.preStartQueue.remove(preStarted))
+				{
+					return preStarted;
+				}
+			}
+			
+			final long remainingMs = deadline - System.currentTimeMillis();
+			if(inFlight.isEmpty()
+				|| remainingMs <= 0
+				|| stopWaitingWhenDone != null && stopWaitingWhenDone.isDone())
+			{
+				return null;
+			}
+			if(stopWaitingWhenDone != null)
+			{
+				inFlight.add(stopWaitingWhenDone);
+			}
+			
+			try
+			{
+				CompletableFuture.anyOf(inFlight.toArray(CompletableFuture[]::new))
+					.get(remainingMs, TimeUnit.MILLISECONDS);
+			}
+			catch(final InterruptedException ie)
+			{
+				this.handleInterrupt(ie);
+				return null;
+			}
+			catch(final ExecutionException ignored)
+			{
+				// Failed infra is evicted in the next iteration
+			}
+			catch(final TimeoutException ignored)
+			{
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * How long to wait at most for PreStarted infrastructure that is still starting, before new infrastructure is
+	 * booted.
+	 * <p>
+	 * This is roughly the average start time - if the PreStarted infrastructure takes longer it might be hanging.
+	 * </p>
+	 */
+	protected long preStartedMaxWaitMs()
+	{
+		final TCITracer.Timed starts = this.tracer.getTimedOrCreate("infraStart(async)");
+		// Unknown -> wait up to half of the acquire timeout
+		return starts.getCountCalled() > 0
+			? Math.round(starts.getAverageMs())
+			: this.timeouts.getAcquireTimeout().toMillis() / 2;
+	}
+	
+	protected boolean isPreStartedStarting()
+	{
+		return this.preStartQueue.stream().anyMatch(preStarted -> !preStarted.startFuture().isDone());
+	}
+	
+	/**
+	 * Newly booted infrastructure that is not required anymore (because PreStarted infrastructure was ready first)
+	 * is put into the PreStart-queue. If this is not possible it's stopped once started.
+	 */
+	protected void requeueOrStop(final StartingInfra<I> notRequired)
+	{
+		// Directly attached infra can't be connected to another network
+		if(notRequired.requiresNetworkConnect() && !this.closed && this.preStartQueue.offer(notRequired))
+		{
+			return;
+		}
+		notRequired.startFuture().whenComplete((v, ex) -> this.handleInfraStartFail(notRequired.infra()));
+	}
+	
 	protected StartingInfra<I> acquireNew(final DirectNetworkAttachInfo directAttachNetwork)
 	{
-		this.log().info("[{}] Getting a new infra; Timeout={}", this.name, this.timeouts.getAcquireTimeout());
+		return this.acquireNew(directAttachNetwork, SnapshotManager.LEVEL_STARTED);
+	}
+	
+	protected StartingInfra<I> acquireNew(final DirectNetworkAttachInfo directAttachNetwork, final String level)
+	{
+		this.log().info(
+			"[{}] Getting a new infra; Level={}; Timeout={}",
+			this.name,
+			level,
+			this.timeouts.getAcquireTimeout());
 		final long startTime = System.currentTimeMillis();
+		final long deadline = startTime + this.timeouts.getAcquireTimeout().toMillis();
+		
+		// PreStarted infra is only available at the started level
+		final boolean usePreStarting = !this.isPreStartingDisabled()
+			&& SnapshotManager.LEVEL_STARTED.equals(level);
+		
+		final AcquireEvent acquireEvent = new AcquireEvent();
+		acquireEvent.begin();
 		
 		StartingInfra<I> startingInfra = null;
-		if(!this.isPreStartingDisabled())
+		StartingInfra<I> bootedNew = null;
+		if(usePreStarting)
 		{
 			// Try to use preStarting from queue
-			startingInfra = this.preStartQueue.poll();
+			final PreStartQueueWaitEvent queueWaitEvent = new PreStartQueueWaitEvent();
+			queueWaitEvent.begin();
+			startingInfra = this.pollPreStarted(Math.min(deadline, startTime + this.preStartedMaxWaitMs()));
+			if(startingInfra == null && System.currentTimeMillis() < deadline && this.isPreStartedStarting())
+			{
+				// The PreStarted infra takes longer than expected (or hangs)
+				// -> Boot new infra and use whatever is ready first
+				bootedNew = this.bootNew(directAttachNetwork, false, level);
+				startingInfra = this.pollPreStarted(deadline, bootedNew.startFuture());
+				if(startingInfra != null)
+				{
+					this.requeueOrStop(bootedNew);
+				}
+			}
+			final boolean hit = startingInfra != null;
+			queueWaitEvent.complete(this.name, null, true, () -> queueWaitEvent.hit = hit);
+		}
+		final boolean preStartedUsed = startingInfra != null;
+		final Runnable assignAcquireDetails = () -> {
+			acquireEvent.level = level;
+			acquireEvent.preStartedUsed = preStartedUsed;
+		};
+		if(usePreStarting)
+		{
+			this.preStartAcquires.incrementAndGet();
+			if(!preStartedUsed)
+			{
+				this.preStartMisses.incrementAndGet();
+			}
+		}
+		if(startingInfra == null && bootedNew != null)
+		{
+			startingInfra = bootedNew;
 		}
-		if(startingInfra == null)
+		else if(startingInfra == null)
 		{
-			startingInfra = this.bootNew(directAttachNetwork);
+			if(System.currentTimeMillis() >= deadline)
+			{
+				acquireEvent.complete(this.name, null, false, assignAcquireDetails);
+				throw new IllegalStateException(
+					"Unable to start infra",
+					new TimeoutException("Timed out while waiting for PreStarted infra"));
+			}
+			startingInfra = this.bootNew(directAttachNetwork, false, level);
 		}
+		final C acquiredContainer = startingInfra.infra().getContainer();
 		
 		try
 		{
-			startingInfra.startFuture().get(this.timeouts.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+			startingInfra.startFuture().get(
+				Math.max(0, deadline - System.currentTimeMillis()),
+				TimeUnit.MILLISECONDS);
+			
+			this.unpauseIfRequired(startingInfra.infra());
+			
+			if(usePreStarting)
+			{
+				final long waitedMs = System.currentTimeMillis() - startTime;
+				this.keepReadyStrategy.recordAcquire(preStartedUsed, waitedMs);
+				this.tracer.timedAdd(preStartedUsed ? "acquireWait(preStarted)" : "acquireWait(miss)", waitedMs);
+			}
 		}
 		catch(final InterruptedException ie)
 		{
@@ -352,6 +916,7 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 		}
 		catch(final Exception e)
 		{
+			acquireEvent.complete(this.name, acquiredContainer::getContainerId, false, assignAcquireDetails);
 			// Try to clean up
 			this.handleInfraStartFail(startingInfra.infra());
 			throw new IllegalStateException("Unable to start infra", e);
@@ -367,7 +932,9 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 			}
 		}
 		
-		if(!startingInfra.infra().getContainer().isRunning())
+		final boolean running = startingInfra.infra().getContainer().isRunning();
+		acquireEvent.complete(this.name, acquiredContainer::getContainerId, running, assignAcquireDetails);
+		if(!running)
 		{
 			throw new IllegalStateException("Container is not running! " + startingInfra.infra().getContainer());
 		}
@@ -377,39 +944,255 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 	
 	protected I newInternal(final Network network, final String... aliases)
 	{
-		final List<String> filteredAliases = Stream.of(aliases)
+		return this.newInternal(SnapshotManager.LEVEL_STARTED, network, aliases);
+	}
+	
+	protected I newInternal(final String level, final Network network, final String... aliases)
+	{
+		final List<String> filteredAliases = filterAliases(aliases);
+		
+		final StartingInfra<I> startingInfra = this.acquireNew(
+			this.directNetworkAttachInfoIfPossible(network, filteredAliases),
+			level);
+		final I infra = startingInfra.infra();
+		
+		try
+		{
+			this.connectToNetworkIfRequired(startingInfra, network, filteredAliases);
+			this.completeNew(startingInfra, level, filteredAliases);
+		}
+		catch(final RuntimeException rex)
+		{
+			this.handleInfraStartFail(infra);
+			throw rex;
+		}
+		
+		return infra;
+	}
+	
+	protected static List<String> filterAliases(final String... aliases)
+	{
+		return Stream.of(aliases)
 			.filter(Objects::nonNull)
 			.toList();
+	}
+	
+	protected DirectNetworkAttachInfo directNetworkAttachInfoIfPossible(
+		final Network network,
+		final List<String> aliases)
+	{
+		return this.useDirectNetworkAttachIfPossible && network != null
+			? new DirectNetworkAttachInfo(network, aliases)
+			: null;
+	}
+	
+	protected void connectToNetworkIfRequired(
+		final StartingInfra<I> startingInfra,
+		final Network network,
+		final List<String> aliases)
+	{
+		if(network == null || !startingInfra.requiresNetworkConnect())
+		{
+			return;
+		}
 		
-		final StartingInfra<I> startingInfra = this.acquireNew(this.useDirectNetworkAttachIfPossible && network != null
-			? new DirectNetworkAttachInfo(network, filteredAliases)
-			: null);
 		final I infra = startingInfra.infra();
+		final long connectToNetworkStartTime = System.currentTimeMillis();
+		final NetworkConnectEvent event = new NetworkConnectEvent();
+		event.begin();
+		boolean success = false;
+		try
+		{
+			this.connectContainerToNetwork(infra.getContainer(), network, aliases);
+			success = true;
+		}
+		finally
+		{
+			event.complete(
+				this.name,
+				() -> infra.getContainer().getContainerId(),
+				success,
+				() -> event.networkId = network.getId());
+		}
+		
+		this.tracer.timedAdd("connectToNetwork", System.currentTimeMillis() - connectToNetworkStartTime);
+	}
+	
+	protected void completeNew(final StartingInfra<I> startingInfra, final String level, final List<String> aliases)
+	{
+		aliases.stream()
+			.findFirst()
+			.ifPresent(startingInfra.infra()::setNetworkAlias);
+		
+		if(SnapshotManager.LEVEL_STARTED.equals(level))
+		{
+			// Recycled infra is put back into the PreStart-queue which only contains started infra
+			this.registerRecyclerIfPossible(startingInfra);
+		}
+	}
+	
+	// region Recycling
+	protected void registerRecyclerIfPossible(final StartingInfra<I> startingInfra)
+	{
+		// Directly attached infra has no fixated ports and can't be reconnected to another network
+		if(this.maxReuse <= 0
+			|| this.isPreStartingDisabled()
+			|| !startingInfra.requiresNetworkConnect()
+			|| !(startingInfra.infra() instanceof RecyclableTCI))
+		{
+			return;
+		}
+		
+		final I infra = startingInfra.infra();
+		final int reuseCount = this.reuseCounts.getOrDefault(infra, 0);
+		if(reuseCount >= this.maxReuse)
+		{
+			this.reuseCounts.remove(infra);
+			return;
+		}
 		
+		infra.setRecycler(() -> this.recycle(infra, reuseCount + 1));
+	}
+	
+	/**
+	 * Takes over the infrastructure for recycling.
+	 *
+	 * @return <code>true</code> if the infrastructure will be recycled or <code>false</code> if it should be
+	 * destroyed
+	 */
+	protected boolean recycle(final I infra, final int reuseCount)
+	{
+		if(this.closed || this.preStartQueue.remainingCapacity() <= 0)
+		{
+			this.reuseCounts.remove(infra);
+			return false;
+		}
+		
+		this.log().debug("[{}] Recycling infra ({}/{})", this.name, reuseCount, this.maxReuse);
+		CompletableFuture.runAsync(() -> this.resetAndRequeue(infra, reuseCount), TCIExecutorServiceHolder.instance());
+		return true;
+	}
+	
+	protected void resetAndRequeue(final I infra, final int reuseCount)
+	{
+		final long startTime = System.currentTimeMillis();
 		try
 		{
-			if(network != null && startingInfra.requiresNetworkConnect())
+			this.disconnectContainerFromNetworks(infra.getContainer());
+			
+			final RecyclableTCI recyclable = (RecyclableTCI)infra;
+			recyclable.resetForReuse();
+			if(!infra.getContainer().isRunning() || !recyclable.isHealthyForReuse())
 			{
-				final long connectToNetworkStartTime = System.currentTimeMillis();
-				
-				this.connectContainerToNetwork(infra.getContainer(), network, filteredAliases);
-				
-				this.tracer.timedAdd("connectToNetwork", System.currentTimeMillis() - connectToNetworkStartTime);
+				throw new IllegalStateException("Infra is not healthy after reset");
 			}
 			
-			filteredAliases.stream()
-				.findFirst()
-				.ifPresent(infra::setNetworkAlias);
+			this.reuseCounts.put(infra, reuseCount);
+			this.pauseIfRequired(infra);
+			if(this.closed || !this.preStartQueue.offer(
+				new StartingInfra<>(infra, CompletableFuture.completedFuture(null), true)))
+			{
+				this.log().debug("[{}] Recycled infra is no longer required", this.name);
+				this.reuseCounts.remove(infra);
+				this.stopPreStarted(infra);
+			}
 		}
-		catch(final RuntimeException rex)
+		catch(final Exception ex)
 		{
+			this.log().warn("[{}] Failed to recycle infra, destroying it", this.name, ex);
+			this.reuseCounts.remove(infra);
 			this.handleInfraStartFail(infra);
-			throw rex;
+		}
+		finally
+		{
+			this.tracer.timedAdd("recycle", System.currentTimeMillis() - startTime);
+		}
+	}
+	
+	/**
+	 * Disconnects the container from all networks that it was connected to during usage.
+	 */
+	protected void disconnectContainerFromNetworks(final GenericContainer<?> container)
+	{
+		@SuppressWarnings("resource") // lazy-client is singleton -> if closed nothing works anymore
+		final DockerClient client = DockerClientFactory.lazyClient();
+		Optional.ofNullable(client.inspectContainerCmd(container.getContainerId())
+				.exec()
+				.getNetworkSettings()
+				.getNetworks())
+			.orElseGet(Map::of)
+			.forEach((networkName, network) -> {
+				if(!DEFAULT_DOCKER_NETWORK.equals(networkName))
+				{
+					client.disconnectFromNetworkCmd()
+						.withNetworkId(network.getNetworkID())
+						.withContainerId(container.getContainerId())
+						.withForce(true)
+						.exec();
+				}
+			});
+	}
+	
+	// endregion
+	
+	// region Pausing
+	@SuppressWarnings("resource") // lazy-client is singleton -> if closed nothing works anymore
+	protected void pauseIfRequired(final I infra)
+	{
+		if(!this.pauseIdle)
+		{
+			return;
 		}
 		
-		return infra;
+		try
+		{
+			DockerClientFactory.lazyClient()
+				.pauseContainerCmd(infra.getContainer().getContainerId())
+				.exec();
+			this.pausedInfra.add(infra);
+		}
+		catch(final Exception ex)
+		{
+			this.log().warn("[{}] Failed to pause PreStarted infra", this.name, ex);
+		}
 	}
 	
+	@SuppressWarnings("resource") // lazy-client is singleton -> if closed nothing works anymore
+	protected void unpauseIfRequired(final I infra)
+	{
+		if(!this.pausedInfra.remove(infra))
+		{
+			return;
+		}
+		
+		final long startTime = System.currentTimeMillis();
+		try
+		{
+			DockerClientFactory.lazyClient()
+				.unpauseContainerCmd(infra.getContainer().getContainerId())
+				.exec();
+		}
+		finally
+		{
+			this.tracer.timedAdd("unpause", System.currentTimeMillis() - startTime);
+		}
+	}
+	
+	protected void stopPreStarted(final I infra)
+	{
+		try
+		{
+			this.unpauseIfRequired(infra);
+		}
+		catch(final Exception ex)
+		{
+			this.log().debug("[{}] Failed to unpause infra before stopping it", this.name, ex);
+		}
+		infra.stop();
+	}
+	
+	// endregion
+	
 	protected void connectContainerToNetwork(
 		final GenericContainer<?> container,
 		final Network network,
@@ -443,13 +1226,83 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 	}
 	
 	public I getNew(final Network network, final String... aliases)
+	{
+		return this.getNewAtLevel(SnapshotManager.LEVEL_STARTED, network, aliases);
+	}
+	
+	/**
+	 * Gets new infrastructure at the given snapshot level.
+	 * <p>
+	 * Infrastructure at levels other than {@link SnapshotManager#LEVEL_STARTED} is never PreStarted.
+	 * </p>
+	 *
+	 * @see #withSnapshotLevel(String, Consumer)
+	 */
+	public I getNewAtLevel(final String level, final Network network, final String... aliases)
+	{
+		this.warmUp();
+		
+		this.log().info("Getting new infra; Level={}", level);
+		final long startTime = System.currentTimeMillis();
+		
+		final I infra = this.getNewWithRetryAndRegisterReturned(() -> this.newInternal(level, network, aliases));
+		return this.finishGetNew(infra, startTime);
+	}
+	
+	public PendingInfra<I> getNewPending(final Network network, final String... aliases)
+	{
+		return this.getNewPendingAtLevel(SnapshotManager.LEVEL_STARTED, network, aliases);
+	}
+	
+	/**
+	 * Gets new infrastructure at the given snapshot level but doesn't connect it to the network yet.
+	 * <p>
+	 * Connecting to the network and post-processing are done using the returned {@link PendingInfra}.
+	 * This allows e.g. connecting multiple infrastructures concurrently (see {@link software.xdev.tci.group.TCIGroup}).
+	 * </p>
+	 *
+	 * @see #getNewAtLevel(String, Network, String...)
+	 */
+	public PendingInfra<I> getNewPendingAtLevel(final String level, final Network network, final String... aliases)
 	{
 		this.warmUp();
 		
-		this.log().info("Getting new infra");
+		this.log().info("Getting new infra (network connect pending); Level={}", level);
 		final long startTime = System.currentTimeMillis();
 		
-		final I infra = this.getNewWithRetryAndRegisterReturned(() -> this.newInternal(network, aliases));
+		final List<String> filteredAliases = filterAliases(aliases);
+		final AtomicReference<StartingInfra<I>> startingInfra = new AtomicReference<>();
+		this.getNewWithRetryAndRegisterReturned(() -> {
+			startingInfra.set(this.acquireNew(this.directNetworkAttachInfoIfPossible(network, filteredAliases), level));
+			return startingInfra.get().infra();
+		});
+		
+		return new PendingInfra<>()
+		{
+			@Override
+			public I infra()
+			{
+				return startingInfra.get().infra();
+			}
+			
+			@Override
+			public void connectToNetwork()
+			{
+				PreStartableTCIFactory.this.connectToNetworkIfRequired(startingInfra.get(), network, filteredAliases);
+			}
+			
+			@Override
+			public I complete()
+			{
+				PreStartableTCIFactory.this.completeNew(startingInfra.get(), level, filteredAliases);
+				return PreStartableTCIFactory.this.finishGetNew(this.infra(), startTime);
+			}
+		};
+	}
+	
+	protected I finishGetNew(final I infra, final long startTime)
+	{
+		PreStartForecast.instance().recordAcquire(this.name);
 		
 		final long startTimePostProcess = System.currentTimeMillis();
 		this.postProcessNew(infra);
@@ -485,6 +1338,7 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 	public void close()
 	{
 		this.log().info("[{}] Shutting down", this.name);
+		this.closed = true;
 		if(!this.isPreStartingDisabled())
 		{
 			GlobalPreStartCoordinator.instance().unregister(this);
@@ -498,7 +1352,7 @@ public class PreStartableTCIFactory<C extends GenericContainer<C>, I extends TCI
 				{
 					try
 					{
-						i.infra().stop();
+						this.stopPreStarted(i.infra());
 					}
 					catch(final Exception e)
 					{
@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.admission;
+
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.factory.prestart.config.PreStartConfig;
+import software.xdev.tci.factory.prestart.loadbalancing.LoadMonitor;
+
+
+/**
+ * Decides if a container may be started based on the memory (and IO) of the container environment.
+ * <p>
+ * The memory of containers that are currently starting is reserved, as it's not yet fully reflected in the
+ * available memory reported by the {@link LoadMonitor}.
+ * </p>
+ * <p>
+ * The signals of the {@link LoadMonitor} are read before the reservation lock is acquired, so that concurrent
+ * starts are not serialized on (potential) IO.
+ * </p>
+ */
+public class MemoryAdmissionControl
+{
+	private static final Logger LOG = LoggerFactory.getLogger(MemoryAdmissionControl.class);
+	
+	protected static final long MIN_RECHECK_MS = 100;
+	protected static final long MAX_RECHECK_MS = 1_000;
+	
+	protected final long memoryHeadroomBytes;
+	protected final int maxMemoryPressurePercent;
+	protected final int maxIOPressurePercent;
+	protected final long maxDelayMs;
+	protected final Supplier<LoadMonitor> loadMonitorSupplier;
+	
+	protected final ReentrantLock reservationLock = new ReentrantLock();
+	protected long reservedBytes;
+	
+	public MemoryAdmissionControl(final PreStartConfig config, final Supplier<LoadMonitor> loadMonitorSupplier)
+	{
+		this(
+			config.admissionMemoryHeadroomBytes(),
+			config.admissionMaxMemoryPressurePercent(),
+			config.admissionMaxIOPressurePercent(),
+			config.admissionMaxDelayMs(),
+			loadMonitorSupplier);
+	}
+	
+	public MemoryAdmissionControl(
+		final long memoryHeadroomBytes,
+		final int maxMemoryPressurePercent,
+		final int maxIOPressurePercent,
+		final long maxDelayMs,
+		final Supplier<LoadMonitor> loadMonitorSupplier)
+	{
+		this.memoryHeadroomBytes = memoryHeadroomBytes;
+		this.maxMemoryPressurePercent = maxMemoryPressurePercent;
+		this.maxIOPressurePercent = maxIOPressurePercent;
+		this.maxDelayMs = maxDelayMs;
+		this.loadMonitorSupplier = Objects.requireNonNull(loadMonitorSupplier);
+	}
+	
+	public boolean isEnabled()
+	{
+		return this.memoryHeadroomBytes > 0 || this.maxMemoryPressurePercent >= 0 || this.maxIOPressurePercent >= 0;
+	}
+	
+	/**
+	 * Checks if a container with the expected memory usage may be started.
+	 * <p>
+	 * If the required signals are not (yet) available the container is admitted.
+	 * </p>
+	 */
+	public boolean isAdmissible(final long expectedMemoryBytes)
+	{
+		if(!this.isEnabled())
+		{
+			return true;
+		}
+		
+		final Signals signals = this.readSignals();
+		this.reservationLock.lock();
+		try
+		{
+			return this.isAdmissible(signals, expectedMemoryBytes);
+		}
+		finally
+		{
+			this.reservationLock.unlock();
+		}
+	}
+	
+	/**
+	 * Reads the required signals from the {@link LoadMonitor}. Must not be called while holding the
+	 * {@link #reservationLock}.
+	 */
+	protected Signals readSignals()
+	{
+		final LoadMonitor loadMonitor = this.loadMonitorSupplier.get();
+		return new Signals(
+			this.maxMemoryPressurePercent >= 0 ? loadMonitor.getMemoryPressurePercent() : OptionalDouble.empty(),
+			this.maxIOPressurePercent >= 0 ? loadMonitor.getIOPressurePercent() : OptionalDouble.empty(),
+			this.memoryHeadroomBytes > 0 ? loadMonitor.getAvailableMemoryBytes() : OptionalLong.empty());
+	}
+	
+	/**
+	 * Must be called while holding the {@link #reservationLock}.
+	 */
+	protected boolean isAdmissible(final Signals signals, final long expectedMemoryBytes)
+	{
+		if(exceeds(signals.memoryPressurePercent(), this.maxMemoryPressurePercent)
+			|| exceeds(signals.ioPressurePercent(), this.maxIOPressurePercent))
+		{
+			return false;
+		}
+		return signals.availableMemoryBytes().isEmpty()
+			|| signals.availableMemoryBytes().getAsLong() - this.reservedBytes - expectedMemoryBytes
+			>= this.memoryHeadroomBytes;
+	}
+	
+	protected static boolean exceeds(final OptionalDouble pressurePercent, final int maxPercent)
+	{
+		return maxPercent >= 0 && pressurePercent.isPresent() && pressurePercent.getAsDouble() > maxPercent;
+	}
+	
+	/**
+	 * Tries to reserve memory for starting a container.
+	 *
+	 * @return the reservation or <code>null</code> if the container is not admissible
+	 */
+	public Reservation tryReserve(final long expectedMemoryBytes)
+	{
+		if(!this.isEnabled())
+		{
+			return Reservation.NONE;
+		}
+		
+		final Signals signals = this.readSignals();
+		this.reservationLock.lock();
+		try
+		{
+			if(!this.isAdmissible(signals, expectedMemoryBytes))
+			{
+				return null;
+			}
+			this.reservedBytes += expectedMemoryBytes;
+		}
+		finally
+		{
+			this.reservationLock.unlock();
+		}
+		return () -> this.release(expectedMemoryBytes);
+	}
+	
+	/**
+	 * Reserves memory for starting a container.
+	 * <p>
+	 * Waits until the container is admissible. If this takes longer than the configured maximum delay the memory is
+	 * reserved anyway, as the container is required.
+	 * </p>
+	 */
+	public Reservation reserve(final long expectedMemoryBytes)
+	{
+		final long deadline = System.currentTimeMillis() + this.maxDelayMs;
+		long recheckMs = MIN_RECHECK_MS;
+		while(true)
+		{
+			final Reservation reservation = this.tryReserve(expectedMemoryBytes);
+			if(reservation != null)
+			{
+				return reservation;
+			}
+			
+			final long remainingMs = deadline - System.currentTimeMillis();
+			if(remainingMs <= 0)
+			{
+				LOG.warn(
+					"Not enough memory available for starting container (expected={}MB) - starting anyway after "
+						+ "waiting {}ms",
+					expectedMemoryBytes / 1024 / 1024,
+					this.maxDelayMs);
+				return this.forceReserve(expectedMemoryBytes);
+			}
+			
+			try
+			{
+				Thread.sleep(Math.min(remainingMs, ThreadLocalRandom.current().nextLong(recheckMs / 2, recheckMs + 1)));
+			}
+			catch(final InterruptedException ie)
+			{
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for memory", ie);
+			}
+			recheckMs = Math.min(recheckMs * 2, MAX_RECHECK_MS);
+		}
+	}
+	
+	protected Reservation forceReserve(final long expectedMemoryBytes)
+	{
+		this.reservationLock.lock();
+		try
+		{
+			this.reservedBytes += expectedMemoryBytes;
+		}
+		finally
+		{
+			this.reservationLock.unlock();
+		}
+		return () -> this.release(expectedMemoryBytes);
+	}
+	
+	protected void release(final long bytes)
+	{
+		this.reservationLock.lock();
+		try
+		{
+			this.reservedBytes = Math.max(0, this.reservedBytes - bytes);
+		}
+		finally
+		{
+			this.reservationLock.unlock();
+		}
+	}
+	
+	protected record Signals(
+		OptionalDouble memoryPressurePercent,
+		OptionalDouble ioPressurePercent,
+		OptionalLong availableMemoryBytes)
+	{
+	}
+	
+	@FunctionalInterface
+	public interface Reservation extends AutoCloseable
+	{
+		Reservation NONE = () -> {
+		};
+		
+		@Override
+		void close();
+	}
+}
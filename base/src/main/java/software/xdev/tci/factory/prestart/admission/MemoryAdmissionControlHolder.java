@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.admission;
+
+import software.xdev.tci.factory.prestart.config.PreStartConfig;
+import software.xdev.tci.hostcoordination.HostCoordinator;
+
+
+/**
+ * Holds the {@link MemoryAdmissionControl} that is shared by all factories.
+ */
+public final class MemoryAdmissionControlHolder
+{
+	private static MemoryAdmissionControl instance;
+	
+	public static MemoryAdmissionControl instance()
+	{
+		if(instance == null)
+		{
+			init();
+		}
+		return instance;
+	}
+	
+	private static synchronized void init()
+	{
+		if(instance != null)
+		{
+			return;
+		}
+		instance = new MemoryAdmissionControl(
+			PreStartConfig.instance(),
+			() -> HostCoordinator.instance().loadMonitor());
+	}
+	
+	public static void setInstance(final MemoryAdmissionControl instance)
+	{
+		MemoryAdmissionControlHolder.instance = instance;
+	}
+	
+	private MemoryAdmissionControlHolder()
+	{
+	}
+}
@@ -33,6 +33,12 @@ import software.xdev.tci.config.DefaultConfig;
 public class DefaultPreStartConfig extends DefaultConfig implements PreStartConfig
 {
 	protected static final String KEEP_READY = "keep-ready";
+	protected static final String KEEP_READY_ADAPTIVE = "keep-ready.adaptive";
+	protected static final String KEEP_READY_MIN = "keep-ready.min";
+	protected static final String KEEP_READY_MAX = "keep-ready.max";
+	protected static final String KEEP_READY_ADAPTIVE_WINDOW_MS = "keep-ready.adaptive-window-ms";
+	protected static final String RECYCLE_MAX_REUSE = "recycle.max-reuse";
+	protected static final String PAUSE_IDLE = "pause-idle";
 	protected static final String MAX_START_SIMULTAN = "max-start-simultan";
 	protected static final String DIRECT_NETWORK_ATTACH_IF_POSSIBLE = "direct-network-attach-if-possible";
 	protected static final String FIXATE_EXPOSED_PORTS_IF_REQUIRED = "fixate-exposed-ports-if-required";
@@ -41,21 +47,49 @@ public class DefaultPreStartConfig extends DefaultConfig implements PreStartConf
 	
 	protected static final String COORDINATOR_IDLE_CPU_PERCENT = "coordinator.idle-cpu-percent";
 	protected static final String COORDINATOR_SCHEDULE_PERIOD_MS = "coordinator.schedule-period-ms";
+	protected static final String COORDINATOR_MAX_FACTORIES_PER_SCHEDULE =
+		"coordinator.max-factories-per-schedule";
+	protected static final String COORDINATOR_READY_INFRA_COST_MS = "coordinator.ready-infra-cost-ms";
 	
 	protected static final String DETECT_ENDING_TESTS = "detect-ending-tests";
 	
+	protected static final String FORECAST_ENABLED = "forecast.enabled";
+	protected static final String FORECAST_FILE = "forecast.file";
+	
+	protected static final String ADMISSION_MEMORY_HEADROOM_BYTES = "admission.memory-headroom-bytes";
+	protected static final String ADMISSION_DEFAULT_CONTAINER_MEMORY_BYTES =
+		"admission.default-container-memory-bytes";
+	protected static final String ADMISSION_MAX_MEMORY_PRESSURE_PERCENT = "admission.max-memory-pressure-percent";
+	protected static final String ADMISSION_MAX_IO_PRESSURE_PERCENT = "admission.max-io-pressure-percent";
+	protected static final String ADMISSION_MAX_DELAY_MS = "admission.max-delay-ms";
+	
 	protected final boolean enabled;
 	
 	protected final int keepReady;
+	protected final boolean keepReadyAdaptive;
+	protected final long keepReadyAdaptiveWindowMs;
+	protected final int recycleMaxReuse;
+	protected final boolean pauseIdle;
 	protected final int maxStartSimultan;
 	protected final boolean directNetworkAttachIfPossible;
 	protected final boolean fixateExposedPortsIfRequired;
 	
 	protected final int coordinatorIdleCPUPercent;
 	protected final int coordinatorSchedulePeriodMs;
+	protected final int coordinatorMaxFactoriesPerSchedule;
+	protected final long coordinatorReadyInfraCostMs;
 	
 	protected final boolean detectEndingTests;
 	
+	protected final boolean forecastEnabled;
+	protected final String forecastFile;
+	
+	protected final long admissionMemoryHeadroomBytes;
+	protected final long admissionDefaultContainerMemoryBytes;
+	protected final int admissionMaxMemoryPressurePercent;
+	protected final int admissionMaxIOPressurePercent;
+	protected final long admissionMaxDelayMs;
+	
 	@SuppressWarnings("checkstyle:MagicNumber")
 	public DefaultPreStartConfig()
 	{
@@ -66,6 +100,12 @@ public class DefaultPreStartConfig extends DefaultConfig implements PreStartConf
 			KEEP_READY,
 			() -> this.getSystemPropertyInt(JUNIT_JUPITER_EXECUTION_PARALLEL_CONFIG_FIXED_MAX_POOL_SIZE, 1))
 			: 0;
+		this.keepReadyAdaptive = this.enabled && this.resolveBool(KEEP_READY_ADAPTIVE, DEFAULT_KEEP_READY_ADAPTIVE);
+		this.keepReadyAdaptiveWindowMs = this.resolveLong(
+			KEEP_READY_ADAPTIVE_WINDOW_MS,
+			() -> DEFAULT_KEEP_READY_ADAPTIVE_WINDOW_MS);
+		this.recycleMaxReuse = this.enabled ? this.resolveInt(RECYCLE_MAX_REUSE, DEFAULT_RECYCLE_MAX_REUSE) : 0;
+		this.pauseIdle = this.enabled && this.resolveBool(PAUSE_IDLE, DEFAULT_PAUSE_IDLE);
 		this.maxStartSimultan = this.enabled
 			? this.resolveInt(
 			MAX_START_SIMULTAN,
@@ -82,9 +122,35 @@ public class DefaultPreStartConfig extends DefaultConfig implements PreStartConf
 		this.coordinatorSchedulePeriodMs = this.enabled
 			? this.resolveInt(COORDINATOR_SCHEDULE_PERIOD_MS, DEFAULT_COORDINATOR_SCHEDULE_PERIOD_MS)
 			: -1;
+		this.coordinatorMaxFactoriesPerSchedule = Math.max(1, this.resolveInt(
+			COORDINATOR_MAX_FACTORIES_PER_SCHEDULE,
+			DEFAULT_COORDINATOR_MAX_FACTORIES_PER_SCHEDULE));
+		this.coordinatorReadyInfraCostMs = Math.max(0, this.resolveLong(
+			COORDINATOR_READY_INFRA_COST_MS,
+			() -> DEFAULT_COORDINATOR_READY_INFRA_COST_MS));
 		
 		this.detectEndingTests = this.enabled
 			&& this.resolveBool(DETECT_ENDING_TESTS, DEFAULT_DETECT_ENDING_TESTS);
+		
+		this.forecastEnabled = this.enabled
+			&& this.resolveBool(FORECAST_ENABLED, DEFAULT_FORECAST_ENABLED);
+		this.forecastFile = this.resolve(FORECAST_FILE).orElse(DEFAULT_FORECAST_FILE);
+		
+		this.admissionMemoryHeadroomBytes = Math.max(0, this.resolveLong(
+			ADMISSION_MEMORY_HEADROOM_BYTES,
+			() -> DEFAULT_ADMISSION_MEMORY_HEADROOM_BYTES));
+		this.admissionDefaultContainerMemoryBytes = Math.max(0, this.resolveLong(
+			ADMISSION_DEFAULT_CONTAINER_MEMORY_BYTES,
+			() -> DEFAULT_ADMISSION_DEFAULT_CONTAINER_MEMORY_BYTES));
+		this.admissionMaxMemoryPressurePercent = this.resolveInt(
+			ADMISSION_MAX_MEMORY_PRESSURE_PERCENT,
+			DEFAULT_ADMISSION_MAX_MEMORY_PRESSURE_PERCENT);
+		this.admissionMaxIOPressurePercent = this.resolveInt(
+			ADMISSION_MAX_IO_PRESSURE_PERCENT,
+			DEFAULT_ADMISSION_MAX_IO_PRESSURE_PERCENT);
+		this.admissionMaxDelayMs = Math.max(0, this.resolveLong(
+			ADMISSION_MAX_DELAY_MS,
+			() -> DEFAULT_ADMISSION_MAX_DELAY_MS));
 	}
 	
 	@Override
@@ -120,6 +186,52 @@ public class DefaultPreStartConfig extends DefaultConfig implements PreStartConf
 			: this.keepReady);
 	}
 	
+	@Override
+	public boolean keepReadyAdaptive(final String preStartName)
+	{
+		return this.enabled()
+			&& this.resolveBool(preStartName + "." + KEEP_READY_ADAPTIVE, this.keepReadyAdaptive);
+	}
+	
+	@Override
+	public int keepReadyMin(final String preStartName)
+	{
+		return Math.max(0, this.resolveInt(
+			preStartName + "." + KEEP_READY_MIN,
+			() -> this.resolveInt(KEEP_READY_MIN, () -> PreStartConfig.super.keepReadyMin(preStartName))));
+	}
+	
+	@Override
+	public int keepReadyMax(final String preStartName)
+	{
+		return Math.max(1, this.resolveInt(
+			preStartName + "." + KEEP_READY_MAX,
+			() -> this.resolveInt(KEEP_READY_MAX, () -> PreStartConfig.super.keepReadyMax(preStartName))));
+	}
+	
+	@Override
+	public long keepReadyAdaptiveWindowMs(final String preStartName)
+	{
+		return Math.max(1, this.resolveLong(
+			preStartName + "." + KEEP_READY_ADAPTIVE_WINDOW_MS,
+			() -> this.keepReadyAdaptiveWindowMs));
+	}
+	
+	@Override
+	public int recycleMaxReuse(final String preStartName)
+	{
+		return Math.max(0, this.enabled()
+			? this.resolveInt(preStartName + "." + RECYCLE_MAX_REUSE, this.recycleMaxReuse)
+			: this.recycleMaxReuse);
+	}
+	
+	@Override
+	public boolean pauseIdle(final String preStartName)
+	{
+		return this.enabled()
+			&& this.resolveBool(preStartName + "." + PAUSE_IDLE, this.pauseIdle);
+	}
+	
 	@Override
 	public int maxStartSimultan(final String preStartName)
 	{
@@ -160,12 +272,66 @@ public class DefaultPreStartConfig extends DefaultConfig implements PreStartConf
 		return this.coordinatorSchedulePeriodMs;
 	}
 	
+	@Override
+	public int coordinatorMaxFactoriesPerSchedule()
+	{
+		return this.coordinatorMaxFactoriesPerSchedule;
+	}
+	
+	@Override
+	public long coordinatorReadyInfraCostMs()
+	{
+		return this.coordinatorReadyInfraCostMs;
+	}
+	
 	@Override
 	public boolean detectEndingTests()
 	{
 		return this.detectEndingTests;
 	}
 	
+	@Override
+	public boolean forecastEnabled()
+	{
+		return this.forecastEnabled;
+	}
+	
+	@Override
+	public String forecastFile()
+	{
+		return this.forecastFile;
+	}
+	
+	@Override
+	public long admissionMemoryHeadroomBytes()
+	{
+		return this.admissionMemoryHeadroomBytes;
+	}
+	
+	@Override
+	public long admissionDefaultContainerMemoryBytes()
+	{
+		return this.admissionDefaultContainerMemoryBytes;
+	}
+	
+	@Override
+	public int admissionMaxMemoryPressurePercent()
+	{
+		return this.admissionMaxMemoryPressurePercent;
+	}
+	
+	@Override
+	public int admissionMaxIOPressurePercent()
+	{
+		return this.admissionMaxIOPressurePercent;
+	}
+	
+	@Override
+	public long admissionMaxDelayMs()
+	{
+		return this.admissionMaxDelayMs;
+	}
+	
 	protected int getSystemPropertyInt(final String property, final int defaultVal)
 	{
 		return Optional.ofNullable(System.getProperty(property))
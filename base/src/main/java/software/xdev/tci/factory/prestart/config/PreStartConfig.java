@@ -15,6 +15,7 @@
  */
 package software.xdev.tci.factory.prestart.config;
 
+import software.xdev.tci.misc.ContainerMemory;
 import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
 
 
@@ -23,9 +24,23 @@ public interface PreStartConfig
 	boolean DEFAULT_ENABLED = false;
 	boolean DEFAULT_DIRECT_NETWORK_ATTACH_IF_POSSIBLE = true;
 	boolean DEFAULT_FIXATE_EXPOSED_PORTS_IF_REQUIRED = true;
+	boolean DEFAULT_KEEP_READY_ADAPTIVE = false;
+	int DEFAULT_KEEP_READY_MIN = 1;
+	long DEFAULT_KEEP_READY_ADAPTIVE_WINDOW_MS = 60_000;
+	int DEFAULT_RECYCLE_MAX_REUSE = 0;
+	boolean DEFAULT_PAUSE_IDLE = false;
 	int DEFAULT_COORDINATOR_IDLE_CPU_PERCENT = 40;
 	int DEFAULT_COORDINATOR_SCHEDULE_PERIOD_MS = 1_000;
+	int DEFAULT_COORDINATOR_MAX_FACTORIES_PER_SCHEDULE = 3;
+	long DEFAULT_COORDINATOR_READY_INFRA_COST_MS = 500;
 	boolean DEFAULT_DETECT_ENDING_TESTS = true;
+	boolean DEFAULT_FORECAST_ENABLED = false;
+	String DEFAULT_FORECAST_FILE = "target/tci-prestart-forecast.properties";
+	long DEFAULT_ADMISSION_MEMORY_HEADROOM_BYTES = 0;
+	long DEFAULT_ADMISSION_DEFAULT_CONTAINER_MEMORY_BYTES = ContainerMemory.M512M;
+	int DEFAULT_ADMISSION_MAX_MEMORY_PRESSURE_PERCENT = -1;
+	int DEFAULT_ADMISSION_MAX_IO_PRESSURE_PERCENT = -1;
+	long DEFAULT_ADMISSION_MAX_DELAY_MS = 60_000;
 	
 	default boolean enabled()
 	{
@@ -39,6 +54,66 @@ public interface PreStartConfig
 	
 	int maxStartSimultan(final String preStartName);
 	
+	/**
+	 * Should the amount of infrastructure that is kept ready adapt to the observed demand?
+	 * <p>
+	 * If enabled {@link #keepReady(String)} is only used as initial value and the amount is kept between
+	 * {@link #keepReadyMin(String)} and {@link #keepReadyMax(String)}.
+	 * </p>
+	 */
+	default boolean keepReadyAdaptive(final String preStartName)
+	{
+		return DEFAULT_KEEP_READY_ADAPTIVE;
+	}
+	
+	/**
+	 * Minimum amount of infrastructure to keep ready when {@link #keepReadyAdaptive(String) adaptive}
+	 */
+	default int keepReadyMin(final String preStartName)
+	{
+		return Math.min(DEFAULT_KEEP_READY_MIN, this.keepReady(preStartName));
+	}
+	
+	/**
+	 * Maximum amount of infrastructure to keep ready when {@link #keepReadyAdaptive(String) adaptive}
+	 */
+	default int keepReadyMax(final String preStartName)
+	{
+		return this.keepReady(preStartName) * 2;
+	}
+	
+	/**
+	 * Time window in which the demand is observed when {@link #keepReadyAdaptive(String) adaptive}
+	 */
+	default long keepReadyAdaptiveWindowMs(final String preStartName)
+	{
+		return DEFAULT_KEEP_READY_ADAPTIVE_WINDOW_MS;
+	}
+	
+	/**
+	 * How often infrastructure that implements {@link software.xdev.tci.RecyclableTCI} may be recycled (reset and
+	 * put back into the PreStart-queue) before it's destroyed.
+	 * <p>
+	 * <code>0</code> disables recycling.
+	 * </p>
+	 */
+	default int recycleMaxReuse(final String preStartName)
+	{
+		return DEFAULT_RECYCLE_MAX_REUSE;
+	}
+	
+	/**
+	 * Should PreStarted infrastructure be paused (<code>docker pause</code>) while it's waiting to be used?
+	 * <p>
+	 * This frees resources (e.g. CPU) for the currently running tests.
+	 * The infrastructure is unpaused when it's acquired.
+	 * </p>
+	 */
+	default boolean pauseIdle(final String preStartName)
+	{
+		return DEFAULT_PAUSE_IDLE;
+	}
+	
 	/**
 	 * Tries to directly attach the container to the network if possible.
 	 * <p>
@@ -78,6 +153,25 @@ public interface PreStartConfig
 		return DEFAULT_COORDINATOR_SCHEDULE_PERIOD_MS;
 	}
 	
+	/**
+	 * Maximum amount of factories that may be scheduled during one schedule when enough resources are idle.
+	 */
+	default int coordinatorMaxFactoriesPerSchedule()
+	{
+		return DEFAULT_COORDINATOR_MAX_FACTORIES_PER_SCHEDULE;
+	}
+	
+	/**
+	 * Estimated cost (in ms of saved start time) of keeping one PreStarted infrastructure ready.
+	 * <p>
+	 * Used when ranking which factory should be PreStarted next.
+	 * </p>
+	 */
+	default long coordinatorReadyInfraCostMs()
+	{
+		return DEFAULT_COORDINATOR_READY_INFRA_COST_MS;
+	}
+	
 	/**
 	 * Should PreStarting be stopped when tests are ending?
 	 * <p>
@@ -89,6 +183,76 @@ public interface PreStartConfig
 		return this.enabled() && DEFAULT_DETECT_ENDING_TESTS;
 	}
 	
+	/**
+	 * Should the demand of the remaining tests be forecasted to only PreStart infrastructure that will be needed?
+	 *
+	 * @see software.xdev.tci.factory.prestart.forecast.PreStartForecast
+	 */
+	default boolean forecastEnabled()
+	{
+		return this.enabled() && DEFAULT_FORECAST_ENABLED;
+	}
+	
+	/**
+	 * File in which the demand of the test classes is recorded for subsequent runs.
+	 */
+	default String forecastFile()
+	{
+		return DEFAULT_FORECAST_FILE;
+	}
+	
+	/**
+	 * Memory (in bytes) that should still be available after a container was started.
+	 * <p>
+	 * If starting a container would exceed this, PreStarting is refused and starts on demand are delayed.<br/>
+	 * <code>0</code> disables this check.
+	 * </p>
+	 */
+	default long admissionMemoryHeadroomBytes()
+	{
+		return DEFAULT_ADMISSION_MEMORY_HEADROOM_BYTES;
+	}
+	
+	/**
+	 * Memory (in bytes) that is expected to be used by a container when its memory limit is not (yet) known.
+	 */
+	default long admissionDefaultContainerMemoryBytes()
+	{
+		return DEFAULT_ADMISSION_DEFAULT_CONTAINER_MEMORY_BYTES;
+	}
+	
+	/**
+	 * Maximum memory pressure (percentage of time in which tasks were stalled waiting for memory) at which
+	 * containers may still be started.
+	 * <p>
+	 * A negative value disables this check.
+	 * </p>
+	 */
+	default int admissionMaxMemoryPressurePercent()
+	{
+		return DEFAULT_ADMISSION_MAX_MEMORY_PRESSURE_PERCENT;
+	}
+	
+	/**
+	 * Maximum IO pressure (percentage of time in which tasks were stalled waiting for IO) at which containers may
+	 * still be started.
+	 * <p>
+	 * A negative value disables this check.
+	 * </p>
+	 */
+	default int admissionMaxIOPressurePercent()
+	{
+		return DEFAULT_ADMISSION_MAX_IO_PRESSURE_PERCENT;
+	}
+	
+	/**
+	 * How long starts on demand are delayed at most when not enough memory is available.
+	 */
+	default long admissionMaxDelayMs()
+	{
+		return DEFAULT_ADMISSION_MAX_DELAY_MS;
+	}
+	
 	static PreStartConfig instance()
 	{
 		return TCIServiceLoaderHolder.instance().service(PreStartConfig.class);
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import software.xdev.tci.factory.prestart.PreStartableTCIFactory;
+
+
+/**
+ * Ranks factories by the expected benefit of PreStarting them.
+ * <p>
+ * The benefit of a factory is estimated as
+ * <pre>
+ * recentMissRate * averageStartMs - preStartedCount * readyInfraCostMs
+ * </pre>
+ * <ul>
+ *     <li><code>recentMissRate</code> - how often (per schedule) no PreStarted infrastructure was available.
+ *     An exponentially weighted moving average is used so that recent misses weigh more.</li>
+ *     <li><code>averageStartMs</code> - the average start duration of the infrastructure, which is the time
+ *     that is saved when the infrastructure was PreStarted</li>
+ *     <li><code>preStartedCount * readyInfraCostMs</code> - the (resource) cost of the infrastructure that is
+ *     already kept ready</li>
+ * </ul>
+ * Only factories that actually require PreStarting are ranked. Ties (e.g. when no data is available yet) are
+ * resolved by the average start duration and then in a round-robin manner.
+ * </p>
+ */
+public class CostWeightedPreStartPrioritizer
+{
+	protected static final double DEFAULT_MISS_RATE_SMOOTHING = 0.2;
+	
+	protected final long readyInfraCostMs;
+	protected final double missRateSmoothing;
+	
+	protected final Map<PreStartableTCIFactory<?, ?>, MissRate> missRates = new WeakHashMap<>();
+	protected final AtomicInteger roundRobinCounter = new AtomicInteger();
+	
+	public CostWeightedPreStartPrioritizer(final long readyInfraCostMs)
+	{
+		this(readyInfraCostMs, DEFAULT_MISS_RATE_SMOOTHING);
+	}
+	
+	public CostWeightedPreStartPrioritizer(final long readyInfraCostMs, final double missRateSmoothing)
+	{
+		this.readyInfraCostMs = readyInfraCostMs;
+		this.missRateSmoothing = missRateSmoothing;
+	}
+	
+	/**
+	 * Should be called once per schedule.
+	 *
+	 * @return the factories that should be scheduled, sorted by priority (highest first) and limited to the
+	 * given amount of slots
+	 */
+	public synchronized List<PreStartableTCIFactory<?, ?>> prioritize(
+		final List<PreStartableTCIFactory<?, ?>> factories,
+		final int slots)
+	{
+		if(factories.isEmpty() || slots <= 0)
+		{
+			return List.of();
+		}
+		
+		final List<RankedFactory> candidates = new ArrayList<>(factories.size());
+		for(final PreStartableTCIFactory<?, ?> factory : factories)
+		{
+			// Always update the miss rate, so that it decays when a factory is not a candidate
+			final double missRate = this.missRates.computeIfAbsent(factory, f -> new MissRate())
+				.update(factory.getPreStartMisses(), this.missRateSmoothing);
+			if(factory.isPreStartSchedulingRequired())
+			{
+				final double averageStartMs = factory.getAverageStartMs();
+				candidates.add(new RankedFactory(
+					factory,
+					missRate * averageStartMs - factory.getPreStartedCount() * (double)this.readyInfraCostMs,
+					averageStartMs));
+			}
+		}
+		
+		// Rotate so that ties are resolved in a round-robin manner (sorting is stable)
+		if(!candidates.isEmpty())
+		{
+			Collections.rotate(candidates, -(this.roundRobinCounter.getAndIncrement() % candidates.size()));
+		}
+		
+		return candidates.stream()
+			.sorted(Comparator.comparingDouble(RankedFactory::score)
+				.thenComparingDouble(RankedFactory::averageStartMs)
+				.reversed())
+			.limit(slots)
+			.<PreStartableTCIFactory<?, ?>>map(RankedFactory::factory)
+			.toList();
+	}
+	
+	protected static class MissRate
+	{
+		protected long lastMisses;
+		protected double rate;
+		
+		protected double update(final long misses, final double smoothing)
+		{
+			final long newMisses = misses - this.lastMisses;
+			this.lastMisses = misses;
+			this.rate = smoothing * newMisses + (1 - smoothing) * this.rate;
+			return this.rate;
+		}
+	}
+	
+	protected record RankedFactory(
+		PreStartableTCIFactory<?, ?> factory,
+		double score,
+		double averageStartMs)
+	{
+	}
+}
@@ -22,15 +22,17 @@ import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import software.xdev.tci.concurrent.ExecutorServiceCreatorHolder;
 import software.xdev.tci.factory.prestart.PreStartableTCIFactory;
+import software.xdev.tci.factory.prestart.admission.MemoryAdmissionControl;
+import software.xdev.tci.factory.prestart.admission.MemoryAdmissionControlHolder;
 import software.xdev.tci.factory.prestart.config.PreStartConfig;
-import software.xdev.tci.factory.prestart.loadbalancing.LoadMonitor;
+import software.xdev.tci.hostcoordination.HostCoordinator;
+import software.xdev.tci.tracing.timeline.TraceTimeline;
 
 
 /**
@@ -50,10 +52,12 @@ public class DefaultGlobalPreStartCoordinator implements GlobalPreStartCoordinat
 	@SuppressWarnings("checkstyle:IllegalIdentifierName")
 	protected final Set<PreStartableTCIFactory<?, ?>> factoriesWeakSet =
 		Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
-	protected final AtomicInteger counter = new AtomicInteger(0);
+	protected final CostWeightedPreStartPrioritizer prioritizer;
 	
 	public DefaultGlobalPreStartCoordinator()
 	{
+		this.prioritizer = this.createPrioritizer();
+		
 		this.preStartScheduler = ExecutorServiceCreatorHolder.instance().createdSingleScheduled(
 			"Global-InfraPreStarter-Scheduler");
 		this.preStartScheduler.scheduleAtFixedRate(
@@ -65,18 +69,41 @@ public class DefaultGlobalPreStartCoordinator implements GlobalPreStartCoordinat
 		LOG.info("Started");
 	}
 	
+	protected CostWeightedPreStartPrioritizer createPrioritizer()
+	{
+		return new CostWeightedPreStartPrioritizer(PreStartConfig.instance().coordinatorReadyInfraCostMs());
+	}
+	
 	@SuppressWarnings("PMD.AvoidSynchronizedStatement") // Required by synchronizedList
 	private void schedulePreStart()
 	{
 		try
 		{
-			if(LoadMonitor.instance().getCurrentIdlePercent().orElse(100)
-				> PreStartConfig.instance().coordinatorIdleCPUPercent())
+			final double idlePercent = HostCoordinator.instance().loadMonitor().getCurrentIdlePercent().orElse(100);
+			final int slots = this.calculateSlots(idlePercent);
+			
+			final TraceTimeline timeline = TraceTimeline.instance();
+			timeline.counter("coordinator", "idlePercent", Math.round(idlePercent));
+			timeline.counter("coordinator", "slots", slots);
+			
+			if(slots <= 0)
+			{
+				return;
+			}
+			
+			final List<PreStartableTCIFactory<?, ?>> currentFactories;
+			synchronized(this.factories)
+			{
+				currentFactories = new ArrayList<>(this.factories);
+			}
+			
+			final MemoryAdmissionControl admissionControl = MemoryAdmissionControlHolder.instance();
+			for(final PreStartableTCIFactory<?, ?> factory : this.prioritizer.prioritize(currentFactories, slots))
 			{
-				final PreStartableTCIFactory<?, ?> factory;
-				synchronized(this.factories)
+				if(!admissionControl.isAdmissible(factory.getExpectedMemoryBytes()))
 				{
-					factory = this.factories.get(this.counter.getAndIncrement() % this.factories.size());
+					LOG.debug("Not enough memory for pre-starting {}", factory.getFactoryName());
+					continue;
 				}
 				LOG.debug("Scheduling pre-starts for {}", factory.getFactoryName());
 				factory.schedulePreStart();
@@ -88,6 +115,27 @@ public class DefaultGlobalPreStartCoordinator implements GlobalPreStartCoordinat
 		}
 	}
 	
+	/**
+	 * Calculates how many factories can be scheduled.
+	 * <p>
+	 * When the idle percentage is above the configured threshold at least one factory is scheduled.
+	 * The more resources are idle the more factories are scheduled (up to the configured maximum).
+	 * </p>
+	 */
+	protected int calculateSlots(final double idlePercent)
+	{
+		final PreStartConfig config = PreStartConfig.instance();
+		final int idleThreshold = config.coordinatorIdleCPUPercent();
+		if(idlePercent <= idleThreshold)
+		{
+			return 0;
+		}
+		
+		final int maxSlots = config.coordinatorMaxFactoriesPerSchedule();
+		final double headroom = (idlePercent - idleThreshold) / Math.max(1, 100 - idleThreshold);
+		return Math.min(Math.max((int)Math.ceil(headroom * maxSlots), 1), maxSlots);
+	}
+	
 	@Override
 	public void register(final PreStartableTCIFactory<?, ?> factory)
 	{
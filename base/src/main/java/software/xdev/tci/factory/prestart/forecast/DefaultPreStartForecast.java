@@ -0,0 +1,425 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.forecast;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.factory.prestart.config.PreStartConfig;
+
+
+/**
+ * Default implementation of {@link PreStartForecast}.
+ * <p>
+ * The demand of each test class is determined (sorted by highest priority) from
+ * <ul>
+ *     <li>the {@link PreStartDemand} annotation</li>
+ *     <li>the acquisitions recorded during a previous run inside {@link PreStartConfig#forecastFile()}</li>
+ * </ul>
+ * As long as a test class for which nothing is known still has tests to run, the remaining demand is unknown.
+ * </p>
+ * <p>
+ * Acquisitions are recorded for the test class that is executed on the current thread.
+ * Infrastructure that is acquired on other threads is only attributed when the task was submitted to
+ * {@link software.xdev.tci.concurrent.TCIExecutorServiceHolder} or wrapped with
+ * {@link #propagateTestContext(Runnable)}. Test classes without attributed acquisitions are not recorded and
+ * therefore stay unknown - use {@link PreStartDemand} in these cases.
+ * </p>
+ */
+public class DefaultPreStartForecast implements PreStartForecast
+{
+	private static final Logger LOG = LoggerFactory.getLogger(DefaultPreStartForecast.class);
+	
+	protected final Path recordFile;
+	
+	protected volatile boolean active;
+	protected TestPlan testPlan;
+	
+	protected final Map<String, ClassDemand> classDemands = new ConcurrentHashMap<>();
+	protected final Map<String, Map<String, Integer>> recorded = new ConcurrentHashMap<>();
+	protected final Map<String, Map<String, AtomicInteger>> acquiredInRun = new ConcurrentHashMap<>();
+	protected final Set<UniqueId> finishedTests = ConcurrentHashMap.newKeySet();
+	protected final Set<String> executedTestClasses = ConcurrentHashMap.newKeySet();
+	// Stack as class and method executions are nested
+	protected final ThreadLocal<Deque<String>> currentTestClasses = ThreadLocal.withInitial(ArrayDeque::new);
+	
+	public DefaultPreStartForecast()
+	{
+		this(Path.of(PreStartConfig.instance().forecastFile()));
+	}
+	
+	public DefaultPreStartForecast(final Path recordFile)
+	{
+		this.recordFile = recordFile;
+	}
+	
+	@Override
+	public boolean isActive()
+	{
+		return this.active;
+	}
+	
+	@Override
+	public OptionalInt remainingDemand(final String preStartName)
+	{
+		if(!this.active)
+		{
+			return OptionalInt.empty();
+		}
+		
+		int sum = 0;
+		for(final ClassDemand demand : this.classDemands.values())
+		{
+			if(demand.totalDemand() == null)
+			{
+				if(demand.remainingTests() > 0)
+				{
+					// A test class that still has to run might need anything
+					return OptionalInt.empty();
+				}
+				continue;
+			}
+			sum += demand.remaining(preStartName);
+		}
+		return OptionalInt.of(sum);
+	}
+	
+	@Override
+	public void recordAcquire(final String preStartName)
+	{
+		final String testClass = this.currentTestClasses.get().peek();
+		if(!this.active || testClass == null)
+		{
+			return;
+		}
+		
+		this.acquiredInRun.computeIfAbsent(testClass, x -> new ConcurrentHashMap<>())
+			.computeIfAbsent(preStartName, x -> new AtomicInteger())
+			.incrementAndGet();
+	}
+	
+	@Override
+	public Runnable propagateTestContext(final Runnable task)
+	{
+		final String testClass = this.currentTestClasses.get().peek();
+		if(testClass == null)
+		{
+			return task;
+		}
+		return () -> {
+			this.enterTestClass(testClass);
+			try
+			{
+				task.run();
+			}
+			finally
+			{
+				this.leaveTestClass();
+			}
+		};
+	}
+	
+	protected void enterTestClass(final String className)
+	{
+		this.currentTestClasses.get().push(className);
+	}
+	
+	protected void leaveTestClass()
+	{
+		final Deque<String> classes = this.currentTestClasses.get();
+		classes.poll();
+		if(classes.isEmpty())
+		{
+			// Don't leak into pooled threads
+			this.currentTestClasses.remove();
+		}
+	}
+	
+	// region Test execution
+	@Override
+	public synchronized void testPlanExecutionStarted(final TestPlan testPlan)
+	{
+		this.testPlan = testPlan;
+		this.readRecorded();
+		
+		final Map<String, Integer> testCountPerClass = new HashMap<>();
+		testPlan.getRoots()
+			.stream()
+			.flatMap(root -> testPlan.getDescendants(root).stream())
+			.filter(TestIdentifier::isTest)
+			.forEach(test -> this.resolveTestClassName(test)
+				.ifPresent(className -> testCountPerClass.merge(className, 1, Integer::sum)));
+		
+		// Classes without a known demand are also tracked (with a null demand) so that it's known when they finished
+		testCountPerClass.forEach((className, testCount) -> this.classDemands.put(
+			className,
+			new ClassDemand(
+				this.determineDemand(className, testCount).orElse(null),
+				testCount,
+				new AtomicInteger())));
+		
+		final Map<String, Integer> totalDemand = this.classDemands.values()
+			.stream()
+			.filter(d -> d.totalDemand() != null)
+			.flatMap(d -> d.totalDemand().entrySet().stream())
+			.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Integer::sum, TreeMap::new));
+		LOG.info(
+			"Forecasted PreStart demand: {}; unknown for {}x test classes",
+			totalDemand,
+			this.classDemands.values().stream().filter(d -> d.totalDemand() == null).count());
+		
+		this.active = true;
+	}
+	
+	@Override
+	public void executionStarted(final TestIdentifier testIdentifier)
+	{
+		this.resolveTestClassName(testIdentifier).ifPresent(className -> {
+			this.enterTestClass(className);
+			if(testIdentifier.isTest())
+			{
+				this.executedTestClasses.add(className);
+			}
+		});
+	}
+	
+	@Override
+	public void executionFinished(
+		final TestIdentifier testIdentifier,
+		final TestExecutionResult testExecutionResult)
+	{
+		// Started and finished are reported on the same thread
+		if(this.resolveTestClassName(testIdentifier).isPresent())
+		{
+			this.leaveTestClass();
+		}
+		this.markFinished(testIdentifier);
+	}
+	
+	@Override
+	public void executionSkipped(final TestIdentifier testIdentifier)
+	{
+		// Skipped containers are not executed at all -> their tests will never start
+		Stream.concat(
+				Stream.of(testIdentifier),
+				Optional.ofNullable(this.testPlan)
+					.map(p -> p.getDescendants(testIdentifier).stream())
+					.orElseGet(Stream::empty))
+			.forEach(this::markFinished);
+	}
+	
+	protected void markFinished(final TestIdentifier testIdentifier)
+	{
+		if(!testIdentifier.isTest() || !this.finishedTests.add(testIdentifier.getUniqueIdObject()))
+		{
+			return;
+		}
+		
+		this.resolveTestClassName(testIdentifier)
+			.map(this.classDemands::get)
+			.ifPresent(d -> d.finishedTests().incrementAndGet());
+	}
+	
+	@Override
+	public synchronized void testPlanExecutionFinished(final TestPlan testPlan)
+	{
+		this.active = false;
+		if(!this.executedTestClasses.isEmpty())
+		{
+			this.writeRecorded();
+		}
+	}
+	// endregion
+	
+	protected Optional<String> resolveTestClassName(final TestIdentifier testIdentifier)
+	{
+		TestIdentifier current = testIdentifier;
+		while(current != null)
+		{
+			final TestSource source = current.getSource().orElse(null);
+			if(source instanceof final MethodSource methodSource)
+			{
+				return Optional.of(methodSource.getClassName());
+			}
+			if(source instanceof final ClassSource classSource)
+			{
+				return Optional.of(classSource.getClassName());
+			}
+			current = this.testPlan != null ? this.testPlan.getParent(current).orElse(null) : null;
+		}
+		return Optional.empty();
+	}
+	
+	protected Optional<Map<String, Integer>> determineDemand(final String className, final int testCount)
+	{
+		return this.readAnnotatedDemand(className)
+			.map(annotation -> Stream.of(annotation.value())
+				.collect(Collectors.toMap(
+					name -> name,
+					name -> annotation.perTest() * testCount,
+					Integer::sum)))
+			.or(() -> Optional.ofNullable(this.recorded.get(className)));
+	}
+	
+	protected Optional<PreStartDemand> readAnnotatedDemand(final String className)
+	{
+		try
+		{
+			return Optional.ofNullable(
+				Class.forName(className, false, Thread.currentThread().getContextClassLoader())
+					.getAnnotation(PreStartDemand.class));
+		}
+		catch(final ClassNotFoundException | LinkageError ex)
+		{
+			LOG.debug("Unable to load class {}", className, ex);
+			return Optional.empty();
+		}
+	}
+	
+	// region Record
+	protected void readRecorded()
+	{
+		if(!Files.exists(this.recordFile))
+		{
+			return;
+		}
+		
+		try(final Stream<String> lines = Files.lines(this.recordFile, StandardCharsets.UTF_8))
+		{
+			lines.filter(line -> !line.isBlank() && !line.startsWith("#"))
+				.map(line -> line.split("=", 2))
+				.filter(parts -> parts.length == 2)
+				.map(parts -> Map.entry(parts[0].trim(), parseDemand(parts[1])))
+				// An empty demand is not trustworthy (might be recorded by an older version) -> unknown
+				.filter(e -> !e.getValue().isEmpty())
+				.forEach(e -> this.recorded.put(e.getKey(), e.getValue()));
+		}
+		catch(final IOException | RuntimeException ex)
+		{
+			LOG.warn("Failed to read recorded PreStart demand from {}", this.recordFile, ex);
+		}
+	}
+	
+	protected static Map<String, Integer> parseDemand(final String value)
+	{
+		final Map<String, Integer> demand = new HashMap<>();
+		for(final String entry : value.split(","))
+		{
+			final String[] nameAndCount = entry.split(":", 2);
+			if(nameAndCount.length == 2)
+			{
+				try
+				{
+					demand.merge(nameAndCount[0].trim(), Integer.parseInt(nameAndCount[1].trim()), Integer::sum);
+				}
+				catch(final NumberFormatException ignored)
+				{
+					// Skip invalid entry
+				}
+			}
+		}
+		return demand;
+	}
+	
+	protected void writeRecorded()
+	{
+		final Map<String, Map<String, Integer>> toRecord = new TreeMap<>(this.recorded);
+		// Only record classes with attributed acquisitions.
+		// Nothing attributed does not mean that nothing was acquired (e.g. on a not propagated thread)
+		// -> the demand of these classes stays unknown
+		this.executedTestClasses.stream()
+			.filter(className -> this.readAnnotatedDemand(className).isEmpty())
+			.forEach(className -> Optional.ofNullable(this.acquiredInRun.get(className))
+				.ifPresent(acquired -> toRecord.put(
+					className,
+					acquired.entrySet()
+						.stream()
+						.collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get())))));
+		
+		final List<String> lines = new ArrayList<>();
+		lines.add("# Recorded PreStart demand per test class - used for forecasting");
+		toRecord.forEach((className, demand) -> lines.add(className + "=" + new TreeMap<>(demand).entrySet()
+			.stream()
+			.map(e -> e.getKey() + ":" + e.getValue())
+			.collect(Collectors.joining(","))));
+		
+		try
+		{
+			final Path parent = this.recordFile.toAbsolutePath().getParent();
+			if(parent != null)
+			{
+				Files.createDirectories(parent);
+			}
+			Files.write(this.recordFile, lines, StandardCharsets.UTF_8);
+		}
+		catch(final IOException ex)
+		{
+			LOG.warn("Failed to record PreStart demand into {}", this.recordFile, ex);
+		}
+	}
+	
+	// endregion
+	
+	/**
+	 * @param totalDemand the demand of the test class or <code>null</code> if unknown
+	 */
+	protected record ClassDemand(
+		Map<String, Integer> totalDemand,
+		int testCount,
+		AtomicInteger finishedTests)
+	{
+		int remainingTests()
+		{
+			return Math.max(0, this.testCount - this.finishedTests.get());
+		}
+		
+		int remaining(final String preStartName)
+		{
+			final int total = this.totalDemand.getOrDefault(preStartName, 0);
+			if(total == 0 || this.testCount == 0)
+			{
+				return 0;
+			}
+			return (int)Math.ceil(total * this.remainingTests() / (double)this.testCount);
+		}
+	}
+}
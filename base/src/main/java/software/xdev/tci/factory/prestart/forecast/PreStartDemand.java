@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.forecast;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares which PreStartable infrastructure the tests of the annotated class need.
+ * <p>
+ * Used by the {@link PreStartForecast} to only PreStart infrastructure that is actually needed by the remaining
+ * tests.
+ * </p>
+ * Example:
+ * <pre>
+ * &#64;PreStartDemand({"DB", "OIDC"})
+ * class LoginTest { ... }
+ * </pre>
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PreStartDemand
+{
+	/**
+	 * The names of the PreStartable factories (<code>preStartName</code>) whose infrastructure is needed.
+	 */
+	String[] value();
+	
+	/**
+	 * How many infrastructures of each factory every test needs.
+	 */
+	int perTest() default 1;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.forecast;
+
+import java.util.OptionalInt;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+
+
+/**
+ * Forecasts which PreStartable infrastructure the remaining tests will need.
+ * <p>
+ * The demand of a test class is determined by {@link PreStartDemand} or by the acquisitions recorded during a
+ * previous run.
+ * </p>
+ */
+public interface PreStartForecast
+{
+	boolean isActive();
+	
+	/**
+	 * @return how much infrastructure the remaining tests still need or empty if this is unknown
+	 */
+	OptionalInt remainingDemand(String preStartName);
+	
+	/**
+	 * Records that infrastructure was acquired by the currently executed test.
+	 */
+	void recordAcquire(String preStartName);
+	
+	/**
+	 * Wraps the task so that infrastructure acquired by it on another thread is attributed to the test that is
+	 * currently executed on the calling thread.
+	 */
+	default Runnable propagateTestContext(final Runnable task)
+	{
+		return task;
+	}
+	
+	void testPlanExecutionStarted(TestPlan testPlan);
+	
+	void executionStarted(TestIdentifier testIdentifier);
+	
+	void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult);
+	
+	void executionSkipped(TestIdentifier testIdentifier);
+	
+	void testPlanExecutionFinished(TestPlan testPlan);
+	
+	static PreStartForecast instance()
+	{
+		return TCIServiceLoaderHolder.instance().service(PreStartForecast.class);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.forecast;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import software.xdev.tci.factory.prestart.config.PreStartConfig;
+
+
+/**
+ * Forwards the test execution to the {@link PreStartForecast}.
+ * <p>
+ * Active by default due to service loading.
+ * </p>
+ */
+public class PreStartForecastAgent implements TestExecutionListener
+{
+	private PreStartForecast forecast;
+	
+	@Override
+	public void testPlanExecutionStarted(final TestPlan testPlan)
+	{
+		if(PreStartConfig.instance().forecastEnabled())
+		{
+			this.forecast = PreStartForecast.instance();
+			this.forecast.testPlanExecutionStarted(testPlan);
+		}
+	}
+	
+	@Override
+	public void executionStarted(final TestIdentifier testIdentifier)
+	{
+		if(this.forecast != null)
+		{
+			this.forecast.executionStarted(testIdentifier);
+		}
+	}
+	
+	@Override
+	public void executionSkipped(final TestIdentifier testIdentifier, final String reason)
+	{
+		if(this.forecast != null)
+		{
+			this.forecast.executionSkipped(testIdentifier);
+		}
+	}
+	
+	@Override
+	public void executionFinished(final TestIdentifier testIdentifier, final TestExecutionResult testExecutionResult)
+	{
+		if(this.forecast != null)
+		{
+			this.forecast.executionFinished(testIdentifier, testExecutionResult);
+		}
+	}
+	
+	@Override
+	public void testPlanExecutionFinished(final TestPlan testPlan)
+	{
+		if(this.forecast != null)
+		{
+			this.forecast.testPlanExecutionFinished(testPlan);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.keepready;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Adapts the amount of infrastructure that is kept ready based on the observed demand.
+ * <p>
+ * For this the following metrics are tracked within a sliding window:
+ * <ul>
+ *     <li>the rate at which infrastructure is acquired</li>
+ *     <li>how often no PreStarted infrastructure was available (miss)</li>
+ *     <li>how long acquiring had to wait for the infrastructure to become ready</li>
+ * </ul>
+ * The required amount is estimated by multiplying the acquire rate with the average start duration (the amount of
+ * infrastructure that needs to be "in-flight" to satisfy the demand).<br/>
+ * The target grows immediately when the demand rises or acquiring starved (one step per starved acquire) and shrinks
+ * slowly (one step at a time) when the demand decreases. It's always kept between the configured min and max.
+ * </p>
+ */
+public class AdaptiveKeepReadyStrategy implements KeepReadyStrategy
+{
+	/**
+	 * If acquiring PreStarted infrastructure had to wait at least this long it's considered as starved.
+	 */
+	protected static final long STARVATION_WAIT_MS = 500;
+	
+	protected final int min;
+	protected final int max;
+	protected final long windowMs;
+	protected final LongSupplier clock;
+	
+	protected final long createdAt;
+	protected final Deque<AcquireRecord> acquires = new ArrayDeque<>();
+	/**
+	 * Starved acquires that were not yet considered by {@link #recalculate(double)}.
+	 */
+	protected int unhandledStarvations;
+	
+	protected volatile int target;
+	protected long lastTargetChange;
+	
+	public AdaptiveKeepReadyStrategy(
+		final int min,
+		final int max,
+		final int initialTarget,
+		final long windowMs)
+	{
+		this(min, max, initialTarget, windowMs, System::currentTimeMillis);
+	}
+	
+	public AdaptiveKeepReadyStrategy(
+		final int min,
+		final int max,
+		final int initialTarget,
+		final long windowMs,
+		final LongSupplier clock)
+	{
+		this.min = Math.max(0, min);
+		this.max = Math.max(Math.max(1, this.min), max);
+		this.windowMs = Math.max(1, windowMs);
+		this.clock = clock;
+		
+		this.createdAt = clock.getAsLong();
+		this.lastTargetChange = this.createdAt;
+		this.target = this.clamp(initialTarget);
+	}
+	
+	@Override
+	public int capacity()
+	{
+		return this.max;
+	}
+	
+	@Override
+	public int currentTarget()
+	{
+		return this.target;
+	}
+	
+	@Override
+	public synchronized void recordAcquire(final boolean preStartedUsed, final long waitedMs)
+	{
+		final long now = this.clock.getAsLong();
+		final boolean starved = !preStartedUsed || waitedMs >= STARVATION_WAIT_MS;
+		this.acquires.addLast(new AcquireRecord(now, starved));
+		if(starved)
+		{
+			this.unhandledStarvations++;
+		}
+		this.removeOutdated(now);
+	}
+	
+	@Override
+	public synchronized void recalculate(final double averageStartMs)
+	{
+		final long now = this.clock.getAsLong();
+		this.removeOutdated(now);
+		
+		final boolean starved = this.acquires.stream().anyMatch(AcquireRecord::starved);
+		
+		// The window is not fully filled at the beginning
+		// Ensure that a few acquires at the start don't result in an extremely high rate
+		final long effectiveWindowMs = Math.max(Math.min(this.windowMs, now - this.createdAt), this.windowMs / 4);
+		final double acquiresPerMs = this.acquires.size() / (double)Math.max(1, effectiveWindowMs);
+		
+		int demand = (int)Math.ceil(acquiresPerMs * averageStartMs);
+		if(this.unhandledStarvations > 0)
+		{
+			// Only grow once per starved acquire - otherwise every recalculation would grow the target again
+			demand = Math.max(demand, this.target + this.unhandledStarvations);
+			this.unhandledStarvations = 0;
+		}
+		demand = this.clamp(demand);
+		
+		if(demand > this.target)
+		{
+			// Grow fast
+			this.changeTarget(demand, now);
+		}
+		else if(demand < this.target
+			&& !starved
+			&& now - this.lastTargetChange >= this.windowMs / 4)
+		{
+			// Shrink slowly
+			this.changeTarget(this.target - 1, now);
+		}
+	}
+	
+	protected void changeTarget(final int newTarget, final long now)
+	{
+		this.target = newTarget;
+		this.lastTargetChange = now;
+	}
+	
+	protected void removeOutdated(final long now)
+	{
+		while(!this.acquires.isEmpty() && this.acquires.peekFirst().time() < now - this.windowMs)
+		{
+			this.acquires.removeFirst();
+		}
+	}
+	
+	protected int clamp(final int value)
+	{
+		return Math.min(Math.max(value, this.min), this.max);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "Adaptive[min=" + this.min + ", max=" + this.max + ", windowMs=" + this.windowMs + "]";
+	}
+	
+	protected record AcquireRecord(long time, boolean starved)
+	{
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.keepready;
+
+/**
+ * Always keeps the same amount of infrastructure ready.
+ */
+public class FixedKeepReadyStrategy implements KeepReadyStrategy
+{
+	protected final int amount;
+	
+	public FixedKeepReadyStrategy(final int amount)
+	{
+		this.amount = Math.max(0, amount);
+	}
+	
+	@Override
+	public int capacity()
+	{
+		return this.amount;
+	}
+	
+	@Override
+	public int currentTarget()
+	{
+		return this.amount;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "Fixed[" + this.amount + "]";
+	}
+}
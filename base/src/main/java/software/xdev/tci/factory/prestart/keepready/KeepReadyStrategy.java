@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.keepready;
+
+/**
+ * Determines how many PreStarted infrastructures a
+ * {@link software.xdev.tci.factory.prestart.PreStartableTCIFactory} should keep ready.
+ */
+public interface KeepReadyStrategy
+{
+	/**
+	 * The maximum amount of infrastructure that may ever be kept ready.
+	 * <p>
+	 * Used to size the underlying PreStart-queue and must therefore not change.
+	 * </p>
+	 */
+	int capacity();
+	
+	/**
+	 * The amount of infrastructure that should currently be kept ready.
+	 * <p>
+	 * Must be between <code>0</code> and {@link #capacity()}.
+	 * </p>
+	 */
+	int currentTarget();
+	
+	/**
+	 * Called every time infrastructure is acquired.
+	 *
+	 * @param preStartedUsed was a PreStarted infrastructure used (<code>true</code>) or did a new one have to be
+	 *                       booted (<code>false</code> = miss)?
+	 * @param waitedMs       how long the acquiring had to wait until the infrastructure was ready
+	 */
+	default void recordAcquire(final boolean preStartedUsed, final long waitedMs)
+	{
+		// NO OP
+	}
+	
+	/**
+	 * Called before PreStarting is scheduled. Can be used to recalculate {@link #currentTarget()}.
+	 *
+	 * @param averageStartMs the average time that is required to start a new infrastructure
+	 */
+	default void recalculate(final double averageStartMs)
+	{
+		// NO OP
+	}
+}
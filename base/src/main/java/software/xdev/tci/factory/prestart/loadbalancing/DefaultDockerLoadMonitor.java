@@ -20,12 +20,12 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.OptionalDouble;
+import java.util.OptionalLong;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +51,9 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 	
 	protected ScrapeData scrapeData;
 	protected OptionalDouble idlePercent = OptionalDouble.empty(); // Idle load in percent. 12.34=12.34%; 0-100
+	protected OptionalLong availableMemoryBytes = OptionalLong.empty();
+	protected OptionalDouble memoryPressurePercent = OptionalDouble.empty();
+	protected OptionalDouble ioPressurePercent = OptionalDouble.empty();
 	
 	@SuppressWarnings("java:S2095")
 	public DefaultDockerLoadMonitor()
@@ -58,7 +61,7 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 		this.nodeExporterContainer = new NodeExporterContainer()
 			.withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger("container.node_exporter")))
 			// We only need specific metrics so disable the rest
-			.withCommand("--collector.disable-defaults --collector.cpu");
+			.withCommand("--collector.disable-defaults --collector.cpu --collector.meminfo --collector.pressure");
 		new SafeNamedContainerStarter<>("load-monitor", this.nodeExporterContainer).start();
 		
 		this.httpClient = HttpClient.newBuilder()
@@ -86,24 +89,7 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 			
 			final long scrapeTime = System.currentTimeMillis();
 			
-			// Metrics look like this:
-			// node_cpu_seconds_total{cpu="10",mode="idle"} 2012.73
-			final Map<Integer, Double> cpuIdleSec = Stream.of(response.body().split("\n"))
-				.filter(s -> s.startsWith("node_cpu_seconds_total"))
-				.filter(s -> s.contains("mode=\"idle\""))
-				.map(s -> s.split(" "))
-				.filter(parts -> parts.length == 2)
-				.map(parts -> {
-					final String startCPU = "cpu=\"";
-					final String cpu = parts[0].substring(parts[0].indexOf(startCPU) + startCPU.length());
-					final int cpuIndex = Integer.parseInt(cpu.substring(0, cpu.indexOf('\"')));
-					final double idleSec = Double.parseDouble(parts[1]);
-					
-					return Map.entry(cpuIndex, idleSec);
-				})
-				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-			
-			final ScrapeData newScrapeData = new ScrapeData(scrapeTime, cpuIdleSec);
+			final ScrapeData newScrapeData = this.parseMetrics(scrapeTime, response.body());
 			this.calculateScrapeDataDiff(this.scrapeData, newScrapeData);
 			this.scrapeData = newScrapeData;
 		}
@@ -118,6 +104,53 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 		}
 	}
 	
+	protected ScrapeData parseMetrics(final long scrapeTime, final String body)
+	{
+		final Map<Integer, Double> cpuIdleSec = new HashMap<>();
+		double memAvailableBytes = Double.NaN;
+		double memoryWaitingSec = Double.NaN;
+		double ioWaitingSec = Double.NaN;
+		for(final String line : body.split("\n"))
+		{
+			final int valueSeparator = line.lastIndexOf(' ');
+			if(line.startsWith("#") || valueSeparator < 0)
+			{
+				continue;
+			}
+			
+			// Metrics look like this:
+			// node_cpu_seconds_total{cpu="10",mode="idle"} 2012.73
+			if(line.startsWith("node_cpu_seconds_total") && line.contains("mode=\"idle\""))
+			{
+				final String startCPU = "cpu=\"";
+				final String cpu = line.substring(line.indexOf(startCPU) + startCPU.length());
+				final int cpuIndex = Integer.parseInt(cpu.substring(0, cpu.indexOf('\"')));
+				cpuIdleSec.put(cpuIndex, Double.parseDouble(line.substring(valueSeparator + 1)));
+			}
+			// node_memory_MemAvailable_bytes 1.2345e+10
+			else if(line.startsWith("node_memory_MemAvailable_bytes "))
+			{
+				memAvailableBytes = Double.parseDouble(line.substring(valueSeparator + 1));
+			}
+			// node_pressure_memory_waiting_seconds_total 12.34
+			else if(line.startsWith("node_pressure_memory_waiting_seconds_total "))
+			{
+				memoryWaitingSec = Double.parseDouble(line.substring(valueSeparator + 1));
+			}
+			else if(line.startsWith("node_pressure_io_waiting_seconds_total "))
+			{
+				ioWaitingSec = Double.parseDouble(line.substring(valueSeparator + 1));
+			}
+		}
+		
+		if(!Double.isNaN(memAvailableBytes))
+		{
+			this.availableMemoryBytes = OptionalLong.of((long)memAvailableBytes);
+		}
+		
+		return new ScrapeData(scrapeTime, cpuIdleSec, memoryWaitingSec, ioWaitingSec);
+	}
+	
 	protected void calculateScrapeDataDiff(final ScrapeData oldScrapeData, final ScrapeData newScrapeData)
 	{
 		if(oldScrapeData == null)
@@ -144,6 +177,27 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 		final double avgCoreIdleMs = totalCoreIdleSec / newScrapeData.coreIdleSec().size() * 1000;
 		this.idlePercent = OptionalDouble.of(Math.max(0, Math.min(1, avgCoreIdleMs / diffMs)) * 100);
 		LOG.debug("IDLE {}%", this.idlePercent);
+		
+		this.memoryPressurePercent = this.calculatePressurePercent(
+			oldScrapeData.memoryWaitingSec(),
+			newScrapeData.memoryWaitingSec(),
+			diffMs);
+		this.ioPressurePercent = this.calculatePressurePercent(
+			oldScrapeData.ioWaitingSec(),
+			newScrapeData.ioWaitingSec(),
+			diffMs);
+	}
+	
+	protected OptionalDouble calculatePressurePercent(
+		final double oldWaitingSec,
+		final double newWaitingSec,
+		final long diffMs)
+	{
+		if(Double.isNaN(oldWaitingSec) || Double.isNaN(newWaitingSec))
+		{
+			return OptionalDouble.empty();
+		}
+		return OptionalDouble.of(Math.max(0, Math.min(1, (newWaitingSec - oldWaitingSec) * 1000 / diffMs)) * 100);
 	}
 	
 	@Override
@@ -152,6 +206,24 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 		return this.idlePercent;
 	}
 	
+	@Override
+	public OptionalLong getAvailableMemoryBytes()
+	{
+		return this.availableMemoryBytes;
+	}
+	
+	@Override
+	public OptionalDouble getMemoryPressurePercent()
+	{
+		return this.memoryPressurePercent;
+	}
+	
+	@Override
+	public OptionalDouble getIOPressurePercent()
+	{
+		return this.ioPressurePercent;
+	}
+	
 	@Override
 	public void close()
 	{
@@ -165,7 +237,11 @@ public class DefaultDockerLoadMonitor implements AutoCloseable, LoadMonitor
 		this.nodeExporterContainer.stop();
 	}
 	
-	protected record ScrapeData(long scrapeTime, Map<Integer, Double> coreIdleSec)
+	protected record ScrapeData(
+		long scrapeTime,
+		Map<Integer, Double> coreIdleSec,
+		double memoryWaitingSec,
+		double ioWaitingSec)
 	{
 	}
 }
@@ -16,6 +16,7 @@
 package software.xdev.tci.factory.prestart.loadbalancing;
 
 import java.util.OptionalDouble;
+import java.util.OptionalLong;
 
 import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
 
@@ -33,6 +34,46 @@ public interface LoadMonitor
 	 */
 	OptionalDouble getCurrentIdlePercent();
 	
+	/**
+	 * Memory that is available for starting new containers (<code>MemAvailable</code>) in bytes.
+	 * <p>
+	 * {@link OptionalLong#empty()} when initializing or not supported
+	 * </p>
+	 */
+	default OptionalLong getAvailableMemoryBytes()
+	{
+		return OptionalLong.empty();
+	}
+	
+	/**
+	 * Percentage of time in which at least one task was stalled waiting for memory (e.g. reclaiming or swapping).
+	 * 12.34=12.34%; 0-100
+	 * <p>
+	 * See <a href="https://docs.kernel.org/accounting/psi.html">Pressure Stall Information</a>
+	 * </p>
+	 * <p>
+	 * {@link OptionalDouble#empty()} when initializing or not supported
+	 * </p>
+	 */
+	default OptionalDouble getMemoryPressurePercent()
+	{
+		return OptionalDouble.empty();
+	}
+	
+	/**
+	 * Percentage of time in which at least one task was stalled waiting for IO. 12.34=12.34%; 0-100
+	 * <p>
+	 * See <a href="https://docs.kernel.org/accounting/psi.html">Pressure Stall Information</a>
+	 * </p>
+	 * <p>
+	 * {@link OptionalDouble#empty()} when initializing or not supported
+	 * </p>
+	 */
+	default OptionalDouble getIOPressurePercent()
+	{
+		return OptionalDouble.empty();
+	}
+	
 	static LoadMonitor instance()
 	{
 		return TCIServiceLoaderHolder.instance().service(LoadMonitor.class);
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.loadbalancing;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+
+import com.github.dockerjava.api.model.Info;
+
+
+/**
+ * Detects if the Docker daemon runs on the same (Linux) host as the JVM and therefore shares its
+ * <code>/proc</code>.
+ * <p>
+ * This is not the case for remote daemons or daemons inside a VM (e.g. Docker Desktop).
+ * </p>
+ * <p>
+ * The daemon is considered local when it's reached over a unix socket (or loopback), runs on the same kernel and
+ * reports the same total memory.
+ * </p>
+ */
+public final class LocalDockerDaemonDetector
+{
+	private static final Logger LOG = LoggerFactory.getLogger(LocalDockerDaemonDetector.class);
+	
+	static final Path PROC_MEMINFO = Path.of("/proc/meminfo");
+	
+	private static Boolean local;
+	
+	public static boolean isLocal()
+	{
+		if(local == null)
+		{
+			init();
+		}
+		return local;
+	}
+	
+	private static synchronized void init()
+	{
+		if(local != null)
+		{
+			return;
+		}
+		local = detect();
+		LOG.debug("Docker daemon is local: {}", local);
+	}
+	
+	static boolean detect()
+	{
+		if(!System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).contains("linux")
+			|| !Files.isReadable(PROC_MEMINFO))
+		{
+			return false;
+		}
+		
+		try
+		{
+			final DockerClientFactory dockerClientFactory = DockerClientFactory.instance();
+			final URI dockerHost = dockerClientFactory.getTransportConfig().getDockerHost();
+			final Info info = dockerClientFactory.getInfo();
+			return isLocalSocket(dockerHost)
+				// A daemon inside a VM (e.g. Docker Desktop) runs on a different kernel
+				&& System.getProperty("os.version", "").equals(info.getKernelVersion())
+				&& isSameMemTotal(info.getMemTotal(), readMemTotalBytes());
+		}
+		catch(final Exception ex)
+		{
+			LOG.debug("Failed to detect if Docker daemon is local", ex);
+			return false;
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the daemon is reached over a unix socket or the loopback interface
+	 */
+	static boolean isLocalSocket(final URI dockerHost)
+	{
+		if(dockerHost == null || dockerHost.getScheme() == null)
+		{
+			return false;
+		}
+		return switch(dockerHost.getScheme().toLowerCase(Locale.ENGLISH))
+		{
+			case "unix" -> true;
+			case "tcp", "http", "https" -> isLoopback(dockerHost.getHost());
+			default -> false;
+		};
+	}
+	
+	static boolean isLoopback(final String host)
+	{
+		if(host == null)
+		{
+			return false;
+		}
+		try
+		{
+			return InetAddress.getByName(host).isLoopbackAddress();
+		}
+		catch(final UnknownHostException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * The daemon reports the total memory of the host it's running on.
+	 */
+	@SuppressWarnings("checkstyle:MagicNumber")
+	static boolean isSameMemTotal(final Long daemonMemTotal, final long hostMemTotal)
+	{
+		return daemonMemTotal != null
+			&& hostMemTotal > 0
+			&& Math.abs(daemonMemTotal - hostMemTotal) <= hostMemTotal / 100;
+	}
+	
+	static long readMemTotalBytes() throws IOException
+	{
+		// MemTotal:       32768000 kB
+		try(final Stream<String> lines = Files.lines(PROC_MEMINFO, StandardCharsets.US_ASCII))
+		{
+			return lines.filter(l -> l.startsWith("MemTotal:"))
+				.findFirst()
+				.map(l -> Long.parseLong(l.substring("MemTotal:".length()).replace("kB", "").trim()) * 1024)
+				.orElse(-1L);
+		}
+	}
+	
+	private LocalDockerDaemonDetector()
+	{
+	}
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.loadbalancing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.concurrent.ExecutorServiceCreatorHolder;
+import software.xdev.tci.serviceloading.TCIProviderCondition;
+import software.xdev.tci.serviceloading.TCIProviderPriority;
+
+
+/**
+ * {@link LoadMonitor} that directly reads <code>/proc</code> of the host.
+ * <p>
+ * Only usable when the Docker daemon runs on the same host (see {@link LocalDockerDaemonDetector}), otherwise
+ * {@link DefaultDockerLoadMonitor} is used.
+ * </p>
+ * <p>
+ * Compared to {@link DefaultDockerLoadMonitor} no container is required and the files are parsed using a reusable
+ * buffer, so scraping causes no allocations.
+ * </p>
+ */
+@TCIProviderPriority(TCIProviderPriority.DEFAULT_PRIORITY + 1)
+@TCIProviderCondition(ProcFsLoadMonitor.AvailableCondition.class)
+public class ProcFsLoadMonitor implements AutoCloseable, LoadMonitor
+{
+	private static final Logger LOG = LoggerFactory.getLogger(ProcFsLoadMonitor.class);
+	
+	protected static final Path PROC_STAT = Path.of("/proc/stat");
+	protected static final Path PROC_MEMINFO = Path.of("/proc/meminfo");
+	protected static final Path PROC_PRESSURE_MEMORY = Path.of("/proc/pressure/memory");
+	protected static final Path PROC_PRESSURE_IO = Path.of("/proc/pressure/io");
+	
+	protected static final byte[] CPU_PREFIX = "cpu ".getBytes(StandardCharsets.US_ASCII);
+	protected static final byte[] MEM_AVAILABLE_PREFIX = "MemAvailable:".getBytes(StandardCharsets.US_ASCII);
+	protected static final byte[] SOME_PREFIX = "some ".getBytes(StandardCharsets.US_ASCII);
+	protected static final byte[] TOTAL_KEY = "total=".getBytes(StandardCharsets.US_ASCII);
+	
+	// user nice system idle iowait irq softirq steal (guest is already included in user)
+	protected static final int CPU_FIELDS = 8;
+	protected static final int CPU_FIELD_IDLE = 3;
+	
+	protected static final int BUFFER_SIZE = 16 * 1024;
+	
+	protected final byte[] buffer = new byte[BUFFER_SIZE];
+	protected final ByteBuffer byteBuffer = ByteBuffer.wrap(this.buffer);
+	protected int bufferLength;
+	protected int cursor;
+	
+	protected final FileChannel statChannel;
+	protected final FileChannel meminfoChannel;
+	protected final FileChannel memoryPressureChannel;
+	protected final FileChannel ioPressureChannel;
+	
+	protected final ScheduledExecutorService scrapeExecutor;
+	
+	protected long lastScrapeNanos;
+	protected long lastIdleTicks = -1;
+	protected long lastTotalTicks = -1;
+	protected long lastMemoryStallUs = -1;
+	protected long lastIOStallUs = -1;
+	
+	// NaN/-1 = not available
+	protected volatile double idlePercent = Double.NaN;
+	protected volatile long availableMemoryBytes = -1;
+	protected volatile double memoryPressurePercent = Double.NaN;
+	protected volatile double ioPressurePercent = Double.NaN;
+	
+	public ProcFsLoadMonitor()
+	{
+		this(PROC_STAT, PROC_MEMINFO, PROC_PRESSURE_MEMORY, PROC_PRESSURE_IO, true);
+	}
+	
+	protected ProcFsLoadMonitor(
+		final Path stat,
+		final Path meminfo,
+		final Path memoryPressure,
+		final Path ioPressure,
+		final boolean scheduleScrape)
+	{
+		this.statChannel = openChannel(stat);
+		this.meminfoChannel = openChannel(meminfo);
+		// PSI might not be available (Kernel < 4.20 or disabled)
+		this.memoryPressureChannel = openChannel(memoryPressure);
+		this.ioPressureChannel = openChannel(ioPressure);
+		
+		if(this.statChannel == null)
+		{
+			throw new IllegalStateException("Unable to read " + stat);
+		}
+		
+		this.scrape();
+		if(scheduleScrape)
+		{
+			this.scrapeExecutor = ExecutorServiceCreatorHolder.instance().createdSingleScheduled("ProcFsLoadMonitor");
+			this.scrapeExecutor.scheduleAtFixedRate(this::scrape, 1, 1, TimeUnit.SECONDS);
+		}
+		else
+		{
+			this.scrapeExecutor = null;
+		}
+	}
+	
+	protected static FileChannel openChannel(final Path path)
+	{
+		try
+		{
+			return Files.isReadable(path) ? FileChannel.open(path, StandardOpenOption.READ) : null;
+		}
+		catch(final IOException ex)
+		{
+			LOG.debug("Unable to open {}", path, ex);
+			return null;
+		}
+	}
+	
+	public synchronized void scrape()
+	{
+		try
+		{
+			final long scrapeNanos = System.nanoTime();
+			final long diffUs = this.lastScrapeNanos > 0
+				? TimeUnit.NANOSECONDS.toMicros(scrapeNanos - this.lastScrapeNanos)
+				: 0;
+			this.lastScrapeNanos = scrapeNanos;
+			
+			this.scrapeCPU();
+			this.scrapeMemory();
+			this.memoryPressurePercent = this.scrapePressure(this.memoryPressureChannel, diffUs, true);
+			this.ioPressurePercent = this.scrapePressure(this.ioPressureChannel, diffUs, false);
+		}
+		catch(final Exception ex)
+		{
+			LOG.warn("Failed to scrape", ex);
+		}
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected void scrapeCPU() throws IOException
+	{
+		// cpu  10132153 290696 3084719 46828483 16683 0 25195 0 175628 0
+		if(!this.read(this.statChannel) || !this.seekLine(CPU_PREFIX))
+		{
+			return;
+		}
+		
+		long totalTicks = 0;
+		long idleTicks = 0;
+		for(int i = 0; i < CPU_FIELDS; i++)
+		{
+			final long value = this.nextLong();
+			if(value < 0)
+			{
+				break;
+			}
+			totalTicks += value;
+			if(i == CPU_FIELD_IDLE)
+			{
+				idleTicks = value;
+			}
+		}
+		
+		if(this.lastTotalTicks >= 0 && totalTicks > this.lastTotalTicks)
+		{
+			final double idle = (double)(idleTicks - this.lastIdleTicks) / (totalTicks - this.lastTotalTicks);
+			this.idlePercent = Math.max(0, Math.min(1, idle)) * 100;
+		}
+		this.lastTotalTicks = totalTicks;
+		this.lastIdleTicks = idleTicks;
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected void scrapeMemory() throws IOException
+	{
+		// MemAvailable:   12345678 kB
+		if(this.read(this.meminfoChannel) && this.seekLine(MEM_AVAILABLE_PREFIX))
+		{
+			final long kb = this.nextLong();
+			if(kb >= 0)
+			{
+				this.availableMemoryBytes = kb * 1024;
+			}
+		}
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected double scrapePressure(final FileChannel channel, final long diffUs, final boolean memory)
+		throws IOException
+	{
+		// some avg10=0.00 avg60=0.00 avg300=0.00 total=12345
+		if(!this.read(channel) || !this.seekLine(SOME_PREFIX) || !this.seekInLine(TOTAL_KEY))
+		{
+			return Double.NaN;
+		}
+		
+		final long stallUs = this.nextLong();
+		final long lastStallUs = memory ? this.lastMemoryStallUs : this.lastIOStallUs;
+		if(memory)
+		{
+			this.lastMemoryStallUs = stallUs;
+		}
+		else
+		{
+			this.lastIOStallUs = stallUs;
+		}
+		
+		if(stallUs < 0 || lastStallUs < 0 || diffUs <= 0)
+		{
+			return Double.NaN;
+		}
+		return Math.max(0, Math.min(1, (double)(stallUs - lastStallUs) / diffUs)) * 100;
+	}
+	
+	// region Parsing
+	
+	/**
+	 * Reads the (beginning of the) file into the buffer.
+	 */
+	protected boolean read(final FileChannel channel) throws IOException
+	{
+		if(channel == null)
+		{
+			return false;
+		}
+		
+		this.byteBuffer.clear();
+		// procfs regenerates the content when reading from position 0
+		long fileOffset = 0;
+		int read;
+		// Reading advances the position of the buffer
+		while(this.byteBuffer.hasRemaining() && (read = channel.read(this.byteBuffer, fileOffset)) > 0)
+		{
+			fileOffset += read;
+		}
+		this.bufferLength = this.byteBuffer.position();
+		this.cursor = 0;
+		return this.bufferLength > 0;
+	}
+	
+	/**
+	 * Moves the cursor behind the prefix of the first line starting with it.
+	 */
+	protected boolean seekLine(final byte[] prefix)
+	{
+		int lineStart = 0;
+		while(lineStart < this.bufferLength)
+		{
+			if(this.startsWith(lineStart, prefix))
+			{
+				this.cursor = lineStart + prefix.length;
+				return true;
+			}
+			while(lineStart < this.bufferLength && this.buffer[lineStart] != '\n')
+			{
+				lineStart++;
+			}
+			lineStart++;
+		}
+		return false;
+	}
+	
+	/**
+	 * Moves the cursor behind the next occurrence of the key inside the current line.
+	 */
+	protected boolean seekInLine(final byte[] key)
+	{
+		for(int i = this.cursor; i < this.bufferLength && this.buffer[i] != '\n'; i++)
+		{
+			if(this.startsWith(i, key))
+			{
+				this.cursor = i + key.length;
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	protected boolean startsWith(final int offset, final byte[] prefix)
+	{
+		if(offset + prefix.length > this.bufferLength)
+		{
+			return false;
+		}
+		for(int i = 0; i < prefix.length; i++)
+		{
+			if(this.buffer[offset + i] != prefix[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Parses the next non-negative number in the current line.
+	 *
+	 * @return the number or <code>-1</code> if there is none
+	 */
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected long nextLong()
+	{
+		while(this.cursor < this.bufferLength && this.buffer[this.cursor] == ' ')
+		{
+			this.cursor++;
+		}
+		
+		long value = 0;
+		int digits = 0;
+		while(this.cursor < this.bufferLength)
+		{
+			final byte b = this.buffer[this.cursor];
+			if(b < '0' || b > '9')
+			{
+				break;
+			}
+			value = value * 10 + (b - '0');
+			digits++;
+			this.cursor++;
+		}
+		return digits > 0 ? value : -1;
+	}
+	
+	// endregion
+	
+	@Override
+	public OptionalDouble getCurrentIdlePercent()
+	{
+		final double value = this.idlePercent;
+		return Double.isNaN(value) ? OptionalDouble.empty() : OptionalDouble.of(value);
+	}
+	
+	@Override
+	public OptionalLong getAvailableMemoryBytes()
+	{
+		final long value = this.availableMemoryBytes;
+		return value < 0 ? OptionalLong.empty() : OptionalLong.of(value);
+	}
+	
+	@Override
+	public OptionalDouble getMemoryPressurePercent()
+	{
+		final double value = this.memoryPressurePercent;
+		return Double.isNaN(value) ? OptionalDouble.empty() : OptionalDouble.of(value);
+	}
+	
+	@Override
+	public OptionalDouble getIOPressurePercent()
+	{
+		final double value = this.ioPressurePercent;
+		return Double.isNaN(value) ? OptionalDouble.empty() : OptionalDouble.of(value);
+	}
+	
+	@Override
+	public void close()
+	{
+		if(this.scrapeExecutor != null && !this.scrapeExecutor.isShutdown())
+		{
+			this.scrapeExecutor.shutdown();
+		}
+		
+		for(final FileChannel channel : new FileChannel[]{
+			this.statChannel,
+			this.meminfoChannel,
+			this.memoryPressureChannel,
+			this.ioPressureChannel})
+		{
+			if(channel != null)
+			{
+				try
+				{
+					channel.close();
+				}
+				catch(final IOException ex)
+				{
+					LOG.debug("Failed to close channel", ex);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Only available when the Docker daemon is running on the same host.
+	 */
+	public static class AvailableCondition implements BooleanSupplier
+	{
+		@Override
+		public boolean getAsBoolean()
+		{
+			return Files.isReadable(PROC_STAT) && LocalDockerDaemonDetector.isLocal();
+		}
+	}
+}
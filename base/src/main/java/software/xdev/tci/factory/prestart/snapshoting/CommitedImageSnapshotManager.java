@@ -15,10 +15,19 @@
  */
 package software.xdev.tci.factory.prestart.snapshoting;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -31,10 +40,14 @@ import org.testcontainers.images.RemoteDockerImage;
 import org.testcontainers.utility.DockerImageName;
 import org.testcontainers.utility.ResourceReaper;
 
+import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Image;
 import com.github.dockerjava.api.model.Volume;
 
 import software.xdev.tci.pull.policy.NeverPullPolicy;
+import software.xdev.tci.tracing.jfr.SnapshotCommitEvent;
 
 
 /**
@@ -48,17 +61,47 @@ import software.xdev.tci.pull.policy.NeverPullPolicy;
  *     <li>Volumes are not snapshoted (see {@link #checkForVolumes(GenericContainer)})</li>
  * </ul>
  * </p>
+ * <p>
+ * By default a new image is commited for every JVM and removed afterward.
+ * If {@link #withPersistent(String) persistent} the image is kept and reused by later runs or other JVMs (e.g.
+ * surefire forks).
+ * </p>
  */
 public class CommitedImageSnapshotManager implements SnapshotManager
 {
 	protected static final Logger LOG = LoggerFactory.getLogger(CommitedImageSnapshotManager.class);
 	
+	public static final String LABEL_PERSISTENT = "software.xdev.tci.snapshot.persistent";
+	public static final String LABEL_REPOSITORY = "software.xdev.tci.snapshot.repository";
+	/**
+	 * Identifies the container (class, original image and level) a persistent image belongs to.
+	 * <p>
+	 * Old persistent images are only cleaned up within the same scope.
+	 * </p>
+	 */
+	public static final String LABEL_SCOPE = "software.xdev.tci.snapshot.scope";
+	/**
+	 * Image of the container before a snapshot was set into it
+	 */
+	public static final String LABEL_ORIGINAL_IMAGE = "software.xdev.tci.snapshot.original-image";
+	protected static final int DEFAULT_MAX_PERSISTENT_IMAGES = 5;
+	
 	protected Set<String> ignoreWarningsVolumePaths = Set.of();
 	protected boolean waitForFirstSnapshot = true;
 	protected String commitedImagePrefix = "commited-cache";
 	
+	protected boolean persistent;
+	protected String dataVersion = "";
+	protected int maxPersistentImages = DEFAULT_MAX_PERSISTENT_IMAGES;
+	protected long maxPersistentImagesBytes;
+	protected final Set<String> persistentLookupDoneLevels = ConcurrentHashMap.newKeySet();
+	
 	protected final ReentrantLock commitLock = new ReentrantLock();
 	protected final AtomicReference<RemoteDockerImage> cachedImage = new AtomicReference<>();
+	/**
+	 * Images of all levels except {@link SnapshotManager#LEVEL_STARTED} (which is stored in {@link #cachedImage})
+	 */
+	protected final Map<String, RemoteDockerImage> levelImages = new ConcurrentHashMap<>();
 	
 	protected final ReentrantLock waitForFirstSnapshotLock = new ReentrantLock();
 	protected final AtomicReference<GenericContainer<?>> waitForFirstSnapshotContainer = new AtomicReference<>();
@@ -146,9 +189,59 @@ public class CommitedImageSnapshotManager implements SnapshotManager
 		return this;
 	}
 	
+	/**
+	 * Keeps the commited image after the JVM exits, so that it can be reused by later runs or other JVMs.
+	 * <p>
+	 * The image is tagged with a hash of the container definition (image id, environment, command, exposed ports)
+	 * and the supplied <code>dataVersion</code>.
+	 * If a definition changes a new image is commited. Old images are cleaned up
+	 * (see {@link #withMaxPersistentImages(int)} and {@link #withMaxPersistentImagesBytes(long)}).
+	 * </p>
+	 *
+	 * @param dataVersion Version of the data inside the container that is not covered by the container definition,
+	 *                    e.g. a checksum of all database migrations. Use an empty string if not required.
+	 */
+	public CommitedImageSnapshotManager withPersistent(final String dataVersion)
+	{
+		this.persistent = true;
+		this.dataVersion = Objects.requireNonNull(dataVersion);
+		return this;
+	}
+	
+	/**
+	 * How many persistent images (with the same {@link #withCommitedImagePrefix(String) prefix}, container and
+	 * level) should be kept.
+	 * The oldest ones are removed first.
+	 */
+	public CommitedImageSnapshotManager withMaxPersistentImages(final int maxPersistentImages)
+	{
+		this.maxPersistentImages = Math.max(1, maxPersistentImages);
+		return this;
+	}
+	
+	/**
+	 * How many bytes all persistent images (with the same {@link #withCommitedImagePrefix(String) prefix}, container
+	 * and level) may use.
+	 * The oldest ones are removed first. The newest image is always kept.
+	 * <p>
+	 * <code>0</code> (default) = unlimited
+	 * </p>
+	 */
+	public CommitedImageSnapshotManager withMaxPersistentImagesBytes(final long maxPersistentImagesBytes)
+	{
+		this.maxPersistentImagesBytes = Math.max(0, maxPersistentImagesBytes);
+		return this;
+	}
+	
 	@Override
 	public void tryReuse(final GenericContainer<?> container)
 	{
+		this.rememberOriginalImage(container);
+		if(this.persistent && !this.persistentLookupDoneLevels.contains(LEVEL_STARTED))
+		{
+			this.lookupPersistentImage(container, LEVEL_STARTED);
+		}
+		
 		final RemoteDockerImage image = this.getImageAndMaybeWaitForFirstSnapshot(container);
 		if(image != null)
 		{
@@ -183,35 +276,100 @@ public class CommitedImageSnapshotManager implements SnapshotManager
 		return image;
 	}
 	
+	@Override
+	public boolean tryReuse(final GenericContainer<?> container, final String level)
+	{
+		if(LEVEL_STARTED.equals(level))
+		{
+			this.tryReuse(container);
+			return this.cachedImage.get() != null;
+		}
+		
+		this.rememberOriginalImage(container);
+		if(this.persistent && !this.persistentLookupDoneLevels.contains(level))
+		{
+			this.lookupPersistentImage(container, level);
+		}
+		
+		final RemoteDockerImage image = this.levelImages.get(level);
+		if(image == null)
+		{
+			return false;
+		}
+		
+		LOG.debug("Using cached image {} for {} at level {}", image, container.getClass(), level);
+		SetImageIntoContainer.instance().accept(container, image);
+		return true;
+	}
+	
 	@Override
 	public <C extends GenericContainer<?>> void snapshot(final C container)
 	{
 		this.commit(container, null, null);
 	}
 	
+	@Override
+	public <C extends GenericContainer<?>> void snapshot(final C container, final String level)
+	{
+		this.commit(container, level, null, null);
+	}
+	
+	protected RemoteDockerImage getImage(final String level)
+	{
+		return LEVEL_STARTED.equals(level)
+			? this.cachedImage.get()
+			: this.levelImages.get(level);
+	}
+	
+	protected void setImage(final String level, final RemoteDockerImage image)
+	{
+		if(LEVEL_STARTED.equals(level))
+		{
+			this.cachedImage.set(image);
+		}
+		else
+		{
+			this.levelImages.put(level, image);
+		}
+	}
+	
 	// Before and After-Commit can be used to maybe fully stop/start the container
 	// or signal that it should flush everything to disk
+	protected <C extends GenericContainer<?>> void commit(
+		final C container,
+		final Consumer<C> beforeCommit,
+		final Consumer<C> afterCommit)
+	{
+		this.commit(container, LEVEL_STARTED, beforeCommit, afterCommit);
+	}
+	
 	@SuppressWarnings("java:S2629")
 	protected <C extends GenericContainer<?>> void commit(
 		final C container,
+		final String level,
 		final Consumer<C> beforeCommit,
 		final Consumer<C> afterCommit)
 	{
-		if(this.cachedImage.get() != null)
+		if(this.getImage(level) != null)
 		{
 			return;
 		}
 		
 		this.commitLock.lock();
 		
+		SnapshotCommitEvent event = null;
+		boolean success = false;
 		try
 		{
 			// Recheck if other thread might have already set it
-			if(this.cachedImage.get() != null)
+			if(this.getImage(level) != null)
 			{
 				return;
 			}
 			
+			event = new SnapshotCommitEvent();
+			event.begin();
+			
 			if(beforeCommit != null)
 			{
 				beforeCommit.accept(container);
@@ -219,30 +377,40 @@ public class CommitedImageSnapshotManager implements SnapshotManager
 			
 			this.checkForVolumes(container);
 			
-			final String name = this.commitedImagePrefix
-				+ "-"
-				+ container.getContainerName()
-				.replace("/", "")
-				.toLowerCase(Locale.ENGLISH)
-				+ "-"
-				+ this.hashCode();
-			
-			LOG.info("Creating cached image {} for {}", name, container.getContainerName());
-			
-			@SuppressWarnings({"resource", "java:S1874", "deprecation"})
-			final String commitedSha = DockerClientFactory.lazyClient()
-				.commitCmd(container.getContainerId())
-				.withRepository(name)
-				.withLabels(ResourceReaper.instance().getLabels())
-				.exec();
-			LOG.info("Created cached image {}/{} for {}", name, commitedSha, container.getContainerName());
-			this.cachedImage.set(new RemoteDockerImage(DockerImageName.parse(name))
+			final String name;
+			if(this.persistent)
+			{
+				name = this.commitPersistent(container, level);
+			}
+			else
+			{
+				name = this.commitedImagePrefix
+					+ "-"
+					+ container.getContainerName()
+					.replace("/", "")
+					.toLowerCase(Locale.ENGLISH)
+					+ "-"
+					+ this.hashCode()
+					+ (LEVEL_STARTED.equals(level) ? "" : "-" + level.toLowerCase(Locale.ENGLISH));
+				
+				LOG.info("Creating cached image {} for {}", name, container.getContainerName());
+				
+				@SuppressWarnings({"resource", "java:S1874", "deprecation"})
+				final String commitedSha = DockerClientFactory.lazyClient()
+					.commitCmd(container.getContainerId())
+					.withRepository(name)
+					.withLabels(ResourceReaper.instance().getLabels())
+					.exec();
+				LOG.info("Created cached image {}/{} for {}", name, commitedSha, container.getContainerName());
+			}
+			this.setImage(level, new RemoteDockerImage(DockerImageName.parse(name))
 				.withImagePullPolicy(NeverPullPolicy.INSTANCE));
 			
 			if(afterCommit != null)
 			{
 				afterCommit.accept(container);
 			}
+			success = true;
 		}
 		catch(final Exception ex)
 		{
@@ -250,11 +418,264 @@ public class CommitedImageSnapshotManager implements SnapshotManager
 		}
 		finally
 		{
+			if(event != null)
+			{
+				final SnapshotCommitEvent commitEvent = event;
+				commitEvent.complete(null, container::getContainerId, success, () -> commitEvent.level = level);
+			}
 			this.unlockWaitForFirstSnapshotIfRequired(container);
 			this.commitLock.unlock();
 		}
 	}
 	
+	// region Persistent
+	protected String persistentRepository()
+	{
+		return this.commitedImagePrefix + "-persistent";
+	}
+	
+	/**
+	 * Checks once (per level) if there is already a persistent image for the container definition.
+	 */
+	protected void lookupPersistentImage(final GenericContainer<?> container, final String level)
+	{
+		this.commitLock.lock();
+		try
+		{
+			if(this.persistentLookupDoneLevels.contains(level) || this.getImage(level) != null)
+			{
+				return;
+			}
+			
+			final Optional<String> optDefinitionHash = this.computeDefinitionHash(container, level);
+			if(optDefinitionHash.isEmpty())
+			{
+				// Image is not present yet -> can't be looked up; will be commited after start
+				return;
+			}
+			this.persistentLookupDoneLevels.add(level);
+			
+			final String name = this.persistentRepository() + ":" + optDefinitionHash.get();
+			if(this.imageExists(name))
+			{
+				LOG.info("Found persistent cached image {} for {} at level {}", name, container.getClass(), level);
+				this.setImage(level, new RemoteDockerImage(DockerImageName.parse(name))
+					.withImagePullPolicy(NeverPullPolicy.INSTANCE));
+			}
+		}
+		catch(final Exception ex)
+		{
+			LOG.warn("Failed to lookup persistent image for {}", container.getClass(), ex);
+		}
+		finally
+		{
+			this.commitLock.unlock();
+		}
+	}
+	
+	@SuppressWarnings("java:S2629")
+	protected String commitPersistent(final GenericContainer<?> container, final String level)
+	{
+		final String tag = this.computeDefinitionHash(container, level)
+			.orElseThrow(() -> new IllegalStateException("Unable to determine definition of container"));
+		final String name = this.persistentRepository() + ":" + tag;
+		final String scope = this.computeScope(container, level);
+		
+		LOG.info("Creating persistent cached image {} for {}", name, container.getContainerName());
+		
+		@SuppressWarnings("resource")
+		final String commitedSha = DockerClientFactory.lazyClient()
+			.commitCmd(container.getContainerId())
+			.withRepository(this.persistentRepository())
+			.withTag(tag)
+			.withLabels(Map.of(
+				LABEL_PERSISTENT, "true",
+				LABEL_REPOSITORY, this.persistentRepository(),
+				LABEL_SCOPE, scope))
+			.exec();
+		LOG.info("Created persistent cached image {}/{} for {}", name, commitedSha, container.getContainerName());
+		
+		this.cleanupPersistentImages(scope, commitedSha);
+		
+		return name;
+	}
+	
+	protected void rememberOriginalImage(final GenericContainer<?> container)
+	{
+		if(this.persistent && !container.getLabels().containsKey(LABEL_ORIGINAL_IMAGE))
+		{
+			container.withLabel(LABEL_ORIGINAL_IMAGE, container.getDockerImageName());
+		}
+	}
+	
+	/**
+	 * Computes a hash over everything that defines the state of the container.
+	 *
+	 * @return the hash or empty if the image of the container is not present yet
+	 */
+	protected Optional<String> computeDefinitionHash(final GenericContainer<?> container, final String level)
+	{
+		final Optional<String> optImageId = this.resolveImageId(
+			container.getLabels().getOrDefault(LABEL_ORIGINAL_IMAGE, container.getDockerImageName()));
+		if(optImageId.isEmpty())
+		{
+			return Optional.empty();
+		}
+		
+		final StringBuilder sb = new StringBuilder()
+			.append("image=").append(optImageId.get()).append('\n');
+		new TreeMap<>(container.getEnvMap()).forEach((k, v) -> sb.append("env=").append(k).append('=').append(v)
+			.append('\n'));
+		sb.append("cmd=").append(String.join(" ", container.getCommandParts())).append('\n');
+		container.getExposedPorts().stream()
+			.sorted()
+			.forEach(p -> sb.append("port=").append(p).append('\n'));
+		sb.append("dataVersion=").append(this.dataVersion).append('\n');
+		if(!LEVEL_STARTED.equals(level))
+		{
+			sb.append("level=").append(level).append('\n');
+		}
+		this.appendAdditionalDefinition(container, sb);
+		
+		return Optional.of(sha256Hex(sb.toString()));
+	}
+	
+	/**
+	 * Computes the scope of the persistent images of a container.
+	 * <p>
+	 * Unlike the definition hash this stays the same when e.g. the environment changes, so that outdated images of
+	 * the same container can be cleaned up without touching the ones of other containers or levels.
+	 * </p>
+	 */
+	protected String computeScope(final GenericContainer<?> container, final String level)
+	{
+		return sha256Hex(container.getClass().getName() + '\n'
+			+ container.getLabels().getOrDefault(LABEL_ORIGINAL_IMAGE, container.getDockerImageName()) + '\n'
+			+ level);
+	}
+	
+	protected static String sha256Hex(final String input)
+	{
+		try
+		{
+			return HexFormat.of()
+				.formatHex(MessageDigest.getInstance("SHA-256")
+					.digest(input.getBytes(StandardCharsets.UTF_8)))
+				.substring(0, 32);
+		}
+		catch(final NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Can be overwritten to add additional information to the definition hash.
+	 */
+	protected void appendAdditionalDefinition(final GenericContainer<?> container, final StringBuilder sb)
+	{
+		// NO OP
+	}
+	
+	@SuppressWarnings("resource")
+	protected Optional<String> resolveImageId(final String imageName)
+	{
+		try
+		{
+			return Optional.ofNullable(DockerClientFactory.lazyClient()
+				.inspectImageCmd(imageName)
+				.exec()
+				.getId());
+		}
+		catch(final NotFoundException nfe)
+		{
+			return Optional.empty();
+		}
+	}
+	
+	protected boolean imageExists(final String imageName)
+	{
+		return this.resolveImageId(imageName).isPresent();
+	}
+	
+	/**
+	 * Removes the oldest persistent images (of this repository and scope) if there are too many or they use too much
+	 * space.
+	 * <p>
+	 * Docker doesn't track when an image was last used, so the creation time is used as approximation.
+	 * </p>
+	 * <p>
+	 * Images that are used by a container (e.g. one started by another JVM) are never removed.
+	 * </p>
+	 */
+	@SuppressWarnings("resource")
+	protected void cleanupPersistentImages(final String scope, final String keepImageId)
+	{
+		try
+		{
+			final DockerClient client = DockerClientFactory.lazyClient();
+			final List<Image> images = client.listImagesCmd()
+				.withLabelFilter(Map.of(
+					LABEL_REPOSITORY, this.persistentRepository(),
+					LABEL_SCOPE, scope))
+				.exec()
+				.stream()
+				.sorted(Comparator.comparing(Image::getCreated, Comparator.nullsFirst(Comparator.naturalOrder()))
+					.reversed())
+				.toList();
+			
+			long totalBytes = 0;
+			int kept = 0;
+			for(final Image image : images)
+			{
+				final long size = Objects.requireNonNullElse(image.getSize(), 0L);
+				final boolean isNewest = image.getId().equals(keepImageId) || kept == 0;
+				if(isNewest
+					|| kept < this.maxPersistentImages
+					&& (this.maxPersistentImagesBytes <= 0 || totalBytes + size <= this.maxPersistentImagesBytes))
+				{
+					kept++;
+					totalBytes += size;
+					continue;
+				}
+				
+				try
+				{
+					if(this.isImageUsedByContainer(client, image.getId()))
+					{
+						LOG.debug("Not removing old persistent cached image {} as it's used by a container",
+							image.getId());
+						continue;
+					}
+					
+					LOG.info("Removing old persistent cached image {}", image.getId());
+					// Never force: The image might have been started by another JVM in the meantime
+					client.removeImageCmd(image.getId()).exec();
+				}
+				catch(final Exception ex)
+				{
+					// Might be currently used by another JVM
+					LOG.debug("Failed to remove old persistent cached image {}", image.getId(), ex);
+				}
+			}
+		}
+		catch(final Exception ex)
+		{
+			LOG.warn("Failed to cleanup old persistent cached images", ex);
+		}
+	}
+	
+	protected boolean isImageUsedByContainer(final DockerClient client, final String imageId)
+	{
+		return !client.listContainersCmd()
+			.withShowAll(true)
+			.withAncestorFilter(List.of(imageId))
+			.exec()
+			.isEmpty();
+	}
+	
+	// endregion
+	
 	@SuppressWarnings("java:S2629")
 	protected void checkForVolumes(final GenericContainer<?> container)
 	{
@@ -33,12 +33,39 @@ import org.testcontainers.containers.GenericContainer;
  *     <li>Subsequent containers will be "restored"/created from this snapshot</li>
  * </ol>
  * </p>
+ * <p>
+ * Additionally to the snapshot that is created directly after the start ({@link #LEVEL_STARTED}) a container may be
+ * snapshoted at further named levels, e.g. after test data was inserted.
+ * </p>
  */
 public interface SnapshotManager
 {
+	/**
+	 * Level of the snapshot that is created directly after the container was started
+	 */
+	String LEVEL_STARTED = "started";
+	
 	void tryReuse(GenericContainer<?> container);
 	
 	<C extends GenericContainer<?>> void snapshot(C container);
 	
 	void snapshotFailed(GenericContainer<?> container, Exception ex);
+	
+	/**
+	 * Tries to reuse the snapshot of the given level.
+	 *
+	 * @return <code>true</code> if the container will be created from the snapshot of the level
+	 */
+	default boolean tryReuse(final GenericContainer<?> container, final String level)
+	{
+		return false;
+	}
+	
+	/**
+	 * Snapshots the container at the given level.
+	 */
+	default <C extends GenericContainer<?>> void snapshot(final C container, final String level)
+	{
+		// NO OP
+	}
 }
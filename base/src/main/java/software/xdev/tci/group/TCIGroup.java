@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.group;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+
+import software.xdev.tci.TCI;
+import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
+import software.xdev.tci.factory.PendingInfra;
+import software.xdev.tci.factory.prestart.PreStartableTCIFactory;
+import software.xdev.tci.factory.prestart.forecast.PreStartForecast;
+
+
+/**
+ * A group of infrastructure that is acquired (and stopped) concurrently.
+ * <p>
+ * A test usually requires infrastructure from multiple factories (e.g. DB, OIDC, Mail and a browser).
+ * Acquiring them one after another - including connecting them to the network and post-processing - takes the sum
+ * of all durations. When acquired as a group it only takes as long as the slowest member.
+ * </p>
+ * <p>
+ * The group is acquired in phases - each executed concurrently for all members:
+ * <ol>
+ *     <li>Acquire the infrastructure without connecting it to the network</li>
+ *     <li>Connect all members to the network at once</li>
+ *     <li>Post-process the members - at this point all other members are reachable</li>
+ * </ol>
+ * Members that were added using a plain {@link Supplier} are fully acquired in the first phase.
+ * </p>
+ * <p>
+ * Example:
+ * <pre>
+ * final TCIGroup group = new TCIGroup();
+ * final TCIGroup.Member&lt;DBTCI&gt; db = group.add(DB_FACTORY, network, "db");
+ * final TCIGroup.Member&lt;OIDCTCI&gt; oidc = group.add(OIDC_FACTORY, network, "oidc");
+ * group.acquire();
+ *
+ * db.get().createEntityManager();
+ * </pre>
+ * </p>
+ * <p>
+ * If a member fails to be acquired all other members are stopped and the exception is rethrown.
+ * </p>
+ * <p>
+ * Please note that members are acquired on other threads. These acquisitions are attributed to the test that
+ * called {@link #acquire()} (see {@link PreStartForecast#propagateTestContext(Runnable)}).
+ * </p>
+ */
+public class TCIGroup
+{
+	private static final Logger LOG = LoggerFactory.getLogger(TCIGroup.class);
+	
+	protected final ExecutorService executor;
+	protected final List<Member<?>> members = new ArrayList<>();
+	
+	public TCIGroup()
+	{
+		this(TCIExecutorServiceHolder.instance());
+	}
+	
+	public TCIGroup(final ExecutorService executor)
+	{
+		this.executor = Objects.requireNonNull(executor);
+	}
+	
+	/**
+	 * Adds a member to the group that is fully acquired in the first phase.
+	 *
+	 * @param supplier acquires the infrastructure, e.g. <code>() -&gt; factory.getNew(network, "alias")</code>
+	 * @return the member which contains the infrastructure after {@link #acquire()}
+	 */
+	public <I extends TCI<?>> Member<I> add(final Supplier<I> supplier)
+	{
+		Objects.requireNonNull(supplier);
+		return this.addPending(() -> PendingInfra.ready(supplier.get()));
+	}
+	
+	/**
+	 * Adds a member to the group whose network connect is done together with the other members.
+	 *
+	 * @see PreStartableTCIFactory#getNewPending(Network, String...)
+	 */
+	public <C extends GenericContainer<C>, I extends TCI<C>> Member<I> add(
+		final PreStartableTCIFactory<C, I> factory,
+		final Network network,
+		final String... aliases)
+	{
+		Objects.requireNonNull(factory);
+		return this.addPending(() -> factory.getNewPending(network, aliases));
+	}
+	
+	/**
+	 * Adds a member to the group.
+	 *
+	 * @param supplier acquires the infrastructure without connecting it to the network, e.g.
+	 *                 <code>() -&gt; factory.getNewPending(network, "alias")</code>
+	 * @return the member which contains the infrastructure after {@link #acquire()}
+	 */
+	public synchronized <I extends TCI<?>> Member<I> addPending(final Supplier<PendingInfra<I>> supplier)
+	{
+		final Member<I> member = new Member<>(Objects.requireNonNull(supplier));
+		this.members.add(member);
+		return member;
+	}
+	
+	/**
+	 * Acquires all members (that were not acquired yet) concurrently and waits until all are ready.
+	 */
+	public synchronized TCIGroup acquire()
+	{
+		final long startTime = System.currentTimeMillis();
+		
+		final List<Member<?>> toAcquire = this.members.stream()
+			.filter(m -> m.infra == null)
+			.toList();
+		
+		try
+		{
+			this.runPhase(toAcquire, Member::acquire);
+			this.runPhase(toAcquire, Member::connectToNetwork);
+			this.runPhase(toAcquire, Member::complete);
+		}
+		catch(final CompletionException cex)
+		{
+			this.stop();
+			
+			if(cex.getCause() instanceof final RuntimeException rex)
+			{
+				throw rex;
+			}
+			throw new IllegalStateException("Failed to acquire group", cex.getCause());
+		}
+		
+		LOG.debug("Acquired {} members, took {}ms", toAcquire.size(), System.currentTimeMillis() - startTime);
+		return this;
+	}
+	
+	/**
+	 * Executes the phase concurrently for all members and waits until it's completed for all of them.
+	 */
+	protected void runPhase(final List<Member<?>> phaseMembers, final Consumer<Member<?>> phase)
+	{
+		final PreStartForecast forecast = PreStartForecast.instance();
+		final Executor propagatingExecutor = task -> this.executor.execute(forecast.propagateTestContext(task));
+		
+		// allOf only completes once all members are done -> failed phases can be cleaned up afterwards
+		CompletableFuture.allOf(phaseMembers.stream()
+				.map(m -> CompletableFuture.runAsync(() -> phase.accept(m), propagatingExecutor))
+				.toArray(CompletableFuture[]::new))
+			.join();
+	}
+	
+	/**
+	 * Stops all acquired members concurrently and waits until they are stopped.
+	 */
+	public synchronized void stop()
+	{
+		this.members.stream()
+			.map(Member::stopAsync)
+			.toList() // collect so everything is getting executed async
+			.forEach(CompletableFuture::join);
+	}
+	
+	
+	public static class Member<I extends TCI<?>>
+	{
+		protected final Supplier<PendingInfra<I>> supplier;
+		protected volatile PendingInfra<I> pending;
+		protected volatile I infra;
+		
+		protected Member(final Supplier<PendingInfra<I>> supplier)
+		{
+			this.supplier = supplier;
+		}
+		
+		protected void acquire()
+		{
+			this.pending = Objects.requireNonNull(this.supplier.get());
+		}
+		
+		protected void connectToNetwork()
+		{
+			this.pending.connectToNetwork();
+		}
+		
+		protected void complete()
+		{
+			this.infra = this.pending.complete();
+			this.pending = null;
+		}
+		
+		protected CompletableFuture<Void> stopAsync()
+		{
+			// A member might fail during a phase -> its infra is then only pending
+			final I toStop = Optional.ofNullable(this.infra)
+				.or(() -> Optional.ofNullable(this.pending).map(PendingInfra::infra))
+				.orElse(null);
+			this.infra = null;
+			this.pending = null;
+			if(toStop == null)
+			{
+				return CompletableFuture.completedFuture(null);
+			}
+			// Failures are already logged by the stop pipeline
+			return toStop.stopAsync()
+				.handle((v, ex) -> null);
+		}
+		
+		/**
+		 * @return the acquired infrastructure
+		 * @throws IllegalStateException if the member was not acquired
+		 */
+		public I get()
+		{
+			final I i = this.infra;
+			if(i == null)
+			{
+				throw new IllegalStateException("Member was not acquired");
+			}
+			return i;
+		}
+	}
+}
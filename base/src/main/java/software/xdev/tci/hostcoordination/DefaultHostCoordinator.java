@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.hostcoordination;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.factory.prestart.loadbalancing.LoadMonitor;
+import software.xdev.tci.hostcoordination.config.HostCoordinationConfig;
+
+
+/**
+ * Default implementation of {@link HostCoordinator} using files inside
+ * {@link HostCoordinationConfig#directory() a shared directory}.
+ * <p>
+ * If {@link HostCoordinationConfig#enabled() disabled} no coordination takes place.
+ * </p>
+ */
+public class DefaultHostCoordinator implements HostCoordinator
+{
+	private static final Logger LOG = LoggerFactory.getLogger(DefaultHostCoordinator.class);
+	
+	protected final HostCoordinationConfig config;
+	protected final FileLockSemaphore startPermits;
+	
+	protected final ReentrantLock loadMonitorLock = new ReentrantLock();
+	protected volatile LoadMonitor loadMonitor;
+	
+	public DefaultHostCoordinator()
+	{
+		this(HostCoordinationConfig.instance());
+	}
+	
+	public DefaultHostCoordinator(final HostCoordinationConfig config)
+	{
+		this.config = config;
+		if(!config.enabled())
+		{
+			this.startPermits = null;
+			return;
+		}
+		
+		try
+		{
+			Files.createDirectories(config.directory());
+		}
+		catch(final IOException ioe)
+		{
+			throw new IllegalStateException("Unable to create coordination directory " + config.directory(), ioe);
+		}
+		this.startPermits = new FileLockSemaphore(config.directory(), "start", config.maxStartSimultan());
+		
+		LOG.info(
+			"Coordinating with other JVMs using {}; maxStartSimultan={}",
+			config.directory(),
+			config.maxStartSimultan());
+	}
+	
+	@Override
+	public StartPermit acquireStartPermit()
+	{
+		if(this.startPermits == null)
+		{
+			return StartPermit.NONE;
+		}
+		
+		final StartPermit permit = this.startPermits.tryAcquire(this.config.startPermitTimeoutMs());
+		if(permit == null)
+		{
+			// Another JVM might hang while starting - don't block all others forever
+			LOG.warn(
+				"Unable to acquire start permit within {}ms - starting without permit",
+				this.config.startPermitTimeoutMs());
+			return StartPermit.NONE;
+		}
+		return permit;
+	}
+	
+	@Override
+	public LoadMonitor loadMonitor()
+	{
+		if(this.startPermits == null)
+		{
+			return LoadMonitor.instance();
+		}
+		
+		if(this.loadMonitor == null)
+		{
+			this.loadMonitorLock.lock();
+			try
+			{
+				if(this.loadMonitor == null)
+				{
+					this.loadMonitor = new SharedHostLoadMonitor(
+						this.config.directory(),
+						this.config.loadMonitorStaleMs(),
+						LoadMonitor::instance);
+				}
+			}
+			finally
+			{
+				this.loadMonitorLock.unlock();
+			}
+		}
+		return this.loadMonitor;
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.hostcoordination;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A semaphore that works across JVMs by using one lock file per permit.
+ * <p>
+ * File locks are automatically released by the operating system when a JVM crashes, so permits can't leak.
+ * </p>
+ */
+public class FileLockSemaphore
+{
+	private static final Logger LOG = LoggerFactory.getLogger(FileLockSemaphore.class);
+	
+	protected static final long MIN_BACKOFF_MS = 10;
+	protected static final long MAX_BACKOFF_MS = 250;
+	
+	protected final Path directory;
+	protected final String name;
+	protected final int permits;
+	// File locks are held on behalf of the whole JVM - so it's also required to synchronize inside the JVM
+	protected final Set<Integer> locallyHeldPermits = ConcurrentHashMap.newKeySet();
+	
+	public FileLockSemaphore(final Path directory, final String name, final int permits)
+	{
+		this.directory = Objects.requireNonNull(directory);
+		this.name = Objects.requireNonNull(name);
+		this.permits = Math.max(1, permits);
+	}
+	
+	/**
+	 * Blocks until a permit is available or the timeout is reached.
+	 *
+	 * @return the permit or <code>null</code> if none could be acquired within the timeout
+	 */
+	public HostCoordinator.StartPermit tryAcquire(final long timeoutMs)
+	{
+		final long deadline = System.currentTimeMillis() + Math.max(0, timeoutMs);
+		long backoffMs = MIN_BACKOFF_MS;
+		while(true)
+		{
+			// Start at a random permit to reduce contention
+			final int offset = ThreadLocalRandom.current().nextInt(this.permits);
+			for(int i = 0; i < this.permits; i++)
+			{
+				final int permit = (offset + i) % this.permits;
+				final FileLock lock = this.tryLock(permit);
+				if(lock != null)
+				{
+					return () -> this.release(permit, lock);
+				}
+			}
+			
+			final long remainingMs = deadline - System.currentTimeMillis();
+			if(remainingMs <= 0)
+			{
+				return null;
+			}
+			
+			try
+			{
+				Thread.sleep(Math.min(remainingMs, ThreadLocalRandom.current().nextLong(backoffMs / 2, backoffMs + 1)));
+			}
+			catch(final InterruptedException ie)
+			{
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for permit", ie);
+			}
+			backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+		}
+	}
+	
+	@SuppressWarnings("java:S2095") // Channel is closed when the permit is released
+	protected FileLock tryLock(final int permit)
+	{
+		if(!this.locallyHeldPermits.add(permit))
+		{
+			return null;
+		}
+		
+		FileChannel channel = null;
+		try
+		{
+			channel = FileChannel.open(
+				this.directory.resolve(this.name + "-" + permit + ".lock"),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+			final FileLock lock = channel.tryLock();
+			if(lock != null)
+			{
+				return lock;
+			}
+		}
+		catch(final IOException | OverlappingFileLockException ex)
+		{
+			LOG.debug("Failed to lock permit {} of {}", permit, this.name, ex);
+		}
+		
+		this.closeQuietly(channel);
+		this.locallyHeldPermits.remove(permit);
+		return null;
+	}
+	
+	protected void release(final int permit, final FileLock lock)
+	{
+		try
+		{
+			lock.release();
+		}
+		catch(final IOException ex)
+		{
+			LOG.warn("Failed to release permit {} of {}", permit, this.name, ex);
+		}
+		finally
+		{
+			this.closeQuietly(lock.channel());
+			this.locallyHeldPermits.remove(permit);
+		}
+	}
+	
+	protected void closeQuietly(final FileChannel channel)
+	{
+		if(channel == null)
+		{
+			return;
+		}
+		try
+		{
+			channel.close();
+		}
+		catch(final IOException ex)
+		{
+			LOG.debug("Failed to close channel", ex);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.hostcoordination;
+
+import software.xdev.tci.factory.prestart.loadbalancing.LoadMonitor;
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+
+
+/**
+ * Coordinates multiple JVMs (e.g. surefire/failsafe forks) that use the same container environment.
+ * <p>
+ * Without coordination every JVM monitors the load on its own and starts as many containers as it likes, which
+ * oversubscribes the container environment.
+ * </p>
+ */
+public interface HostCoordinator
+{
+	/**
+	 * Acquires a permit to start a container.
+	 * <p>
+	 * Blocks until a permit is available. The permit must be closed once the container was started.<br/>
+	 * If no permit is available within a timeout, the container is started without a permit (a no-op permit is
+	 * returned), so that e.g. a hanging start in another JVM doesn't block all others.
+	 * </p>
+	 */
+	StartPermit acquireStartPermit();
+	
+	/**
+	 * @return the {@link LoadMonitor} that is shared by all coordinated JVMs
+	 */
+	LoadMonitor loadMonitor();
+	
+	static HostCoordinator instance()
+	{
+		return TCIServiceLoaderHolder.instance().service(HostCoordinator.class);
+	}
+	
+	@FunctionalInterface
+	interface StartPermit extends AutoCloseable
+	{
+		StartPermit NONE = () -> {
+		};
+		
+		@Override
+		void close();
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.hostcoordination;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.concurrent.ExecutorServiceCreatorHolder;
+import software.xdev.tci.factory.prestart.loadbalancing.LoadMonitor;
+
+
+/**
+ * A {@link LoadMonitor} that is shared by multiple JVMs.
+ * <p>
+ * Only one JVM - the leader - actually monitors the load and publishes it into a file.
+ * All other JVMs read the load from this file.<br/>
+ * Leadership is determined by a file lock. If the leader exits the lock is released and once the published load is
+ * stale another JVM takes over.
+ * </p>
+ */
+public class SharedHostLoadMonitor implements LoadMonitor, AutoCloseable
+{
+	private static final Logger LOG = LoggerFactory.getLogger(SharedHostLoadMonitor.class);
+	
+	protected static final long PUBLISH_PERIOD_MS = 1_000;
+	protected static final long READ_CACHE_MS = 250;
+	
+	protected final Path leaderLockFile;
+	protected final Path stateFile;
+	protected final long staleMs;
+	protected final Supplier<LoadMonitor> delegateSupplier;
+	
+	protected final ReentrantLock leaderLock = new ReentrantLock();
+	protected FileChannel leaderChannel;
+	protected volatile LoadMonitor delegate;
+	protected ScheduledExecutorService publishExecutor;
+	
+	protected volatile PublishedLoad lastRead;
+	protected volatile long lastReadTime;
+	
+	public SharedHostLoadMonitor(
+		final Path directory,
+		final long staleMs,
+		final Supplier<LoadMonitor> delegateSupplier)
+	{
+		this.leaderLockFile = directory.resolve("load-monitor.lock");
+		this.stateFile = directory.resolve("load-monitor.state");
+		this.staleMs = staleMs;
+		this.delegateSupplier = Objects.requireNonNull(delegateSupplier);
+		
+		this.tryBecomeLeader();
+	}
+	
+	@Override
+	public OptionalDouble getCurrentIdlePercent()
+	{
+		return this.currentLoad().idlePercent();
+	}
+	
+	@Override
+	public OptionalLong getAvailableMemoryBytes()
+	{
+		return this.currentLoad().availableMemoryBytes();
+	}
+	
+	@Override
+	public OptionalDouble getMemoryPressurePercent()
+	{
+		return this.currentLoad().memoryPressurePercent();
+	}
+	
+	@Override
+	public OptionalDouble getIOPressurePercent()
+	{
+		return this.currentLoad().ioPressurePercent();
+	}
+	
+	protected PublishedLoad currentLoad()
+	{
+		final LoadMonitor currentDelegate = this.delegate;
+		if(currentDelegate != null)
+		{
+			return PublishedLoad.of(currentDelegate);
+		}
+		
+		final PublishedLoad load = this.readPublishedLoad();
+		if(load == null || System.currentTimeMillis() - load.timestamp() > this.staleMs)
+		{
+			this.tryBecomeLeader();
+			return this.delegate != null ? PublishedLoad.of(this.delegate) : PublishedLoad.EMPTY;
+		}
+		return load;
+	}
+	
+	public boolean isLeader()
+	{
+		return this.delegate != null;
+	}
+	
+	@SuppressWarnings("java:S2095") // Channel is held until closed
+	protected void tryBecomeLeader()
+	{
+		if(!this.leaderLock.tryLock())
+		{
+			return;
+		}
+		try
+		{
+			if(this.delegate != null)
+			{
+				return;
+			}
+			
+			final FileChannel channel = FileChannel.open(
+				this.leaderLockFile,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+			final FileLock lock;
+			try
+			{
+				lock = channel.tryLock();
+			}
+			catch(final IOException | OverlappingFileLockException ex)
+			{
+				channel.close();
+				throw ex;
+			}
+			if(lock == null)
+			{
+				channel.close();
+				return;
+			}
+			
+			LOG.info("Became leader; monitoring load for all coordinated JVMs");
+			this.leaderChannel = channel;
+			this.delegate = this.delegateSupplier.get();
+			this.publishExecutor = ExecutorServiceCreatorHolder.instance()
+				.createdSingleScheduled("SharedHostLoadMonitor");
+			this.publishExecutor.scheduleAtFixedRate(
+				this::publish,
+				0,
+				PUBLISH_PERIOD_MS,
+				TimeUnit.MILLISECONDS);
+		}
+		catch(final IOException | OverlappingFileLockException ex)
+		{
+			LOG.debug("Failed to become leader", ex);
+		}
+		finally
+		{
+			this.leaderLock.unlock();
+		}
+	}
+	
+	protected void publish()
+	{
+		try
+		{
+			final Path tempFile = this.stateFile.resolveSibling(this.stateFile.getFileName() + ".tmp");
+			Files.writeString(tempFile, PublishedLoad.of(this.delegate).serialize(), StandardCharsets.UTF_8);
+			Files.move(tempFile, this.stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(final Exception ex)
+		{
+			LOG.warn("Failed to publish load", ex);
+		}
+	}
+	
+	protected PublishedLoad readPublishedLoad()
+	{
+		final long now = System.currentTimeMillis();
+		if(now - this.lastReadTime < READ_CACHE_MS)
+		{
+			return this.lastRead;
+		}
+		
+		PublishedLoad load = null;
+		try
+		{
+			load = PublishedLoad.deserialize(Files.readString(this.stateFile, StandardCharsets.UTF_8));
+		}
+		catch(final NoSuchFileException ignored)
+		{
+			// Nothing published yet
+		}
+		catch(final IOException | NumberFormatException ex)
+		{
+			LOG.debug("Failed to read published load", ex);
+		}
+		
+		this.lastRead = load;
+		this.lastReadTime = now;
+		return load;
+	}
+	
+	@Override
+	public void close()
+	{
+		this.leaderLock.lock();
+		try
+		{
+			if(this.publishExecutor != null)
+			{
+				this.publishExecutor.shutdown();
+				this.publishExecutor = null;
+			}
+			if(this.leaderChannel != null)
+			{
+				// Closing the channel also releases the lock
+				this.leaderChannel.close();
+				this.leaderChannel = null;
+			}
+			this.delegate = null;
+		}
+		catch(final IOException ex)
+		{
+			LOG.warn("Failed to release leadership", ex);
+		}
+		finally
+		{
+			this.leaderLock.unlock();
+		}
+	}
+	
+	protected record PublishedLoad(
+		long timestamp,
+		OptionalDouble idlePercent,
+		OptionalLong availableMemoryBytes,
+		OptionalDouble memoryPressurePercent,
+		OptionalDouble ioPressurePercent)
+	{
+		static final PublishedLoad EMPTY = new PublishedLoad(
+			0,
+			OptionalDouble.empty(),
+			OptionalLong.empty(),
+			OptionalDouble.empty(),
+			OptionalDouble.empty());
+		
+		static PublishedLoad of(final LoadMonitor loadMonitor)
+		{
+			return new PublishedLoad(
+				System.currentTimeMillis(),
+				loadMonitor.getCurrentIdlePercent(),
+				loadMonitor.getAvailableMemoryBytes(),
+				loadMonitor.getMemoryPressurePercent(),
+				loadMonitor.getIOPressurePercent());
+		}
+		
+		// Format: timestamp;idlePercent;availableMemoryBytes;memoryPressurePercent;ioPressurePercent
+		String serialize()
+		{
+			return this.timestamp()
+				+ ";" + (this.idlePercent().isPresent() ? this.idlePercent().getAsDouble() : "")
+				+ ";" + (this.availableMemoryBytes().isPresent() ? this.availableMemoryBytes().getAsLong() : "")
+				+ ";" + (this.memoryPressurePercent().isPresent() ? this.memoryPressurePercent().getAsDouble() : "")
+				+ ";" + (this.ioPressurePercent().isPresent() ? this.ioPressurePercent().getAsDouble() : "");
+		}
+		
+		@SuppressWarnings("checkstyle:MagicNumber")
+		static PublishedLoad deserialize(final String content)
+		{
+			final String[] parts = content.trim().split(";", -1);
+			if(parts.length < 2)
+			{
+				return null;
+			}
+			return new PublishedLoad(
+				Long.parseLong(parts[0]),
+				parseDouble(parts, 1),
+				parts.length > 2 && !parts[2].isEmpty()
+					? OptionalLong.of(Long.parseLong(parts[2]))
+					: OptionalLong.empty(),
+				parseDouble(parts, 3),
+				parseDouble(parts, 4));
+		}
+		
+		private static OptionalDouble parseDouble(final String[] parts, final int index)
+		{
+			return parts.length > index && !parts[index].isEmpty()
+				? OptionalDouble.of(Double.parseDouble(parts[index]))
+				: OptionalDouble.empty();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.hostcoordination.config;
+
+import java.nio.file.Path;
+
+import software.xdev.tci.config.DefaultConfig;
+
+
+/**
+ * Default implementation of {@link HostCoordinationConfig} using {@link System#getProperties() System Properties}.
+ */
+public class DefaultHostCoordinationConfig extends DefaultConfig implements HostCoordinationConfig
+{
+	protected final boolean enabled;
+	protected final Path directory;
+	protected final int maxStartSimultan;
+	protected final long startPermitTimeoutMs;
+	protected final long loadMonitorStaleMs;
+	
+	public DefaultHostCoordinationConfig()
+	{
+		this.enabled = this.resolveBool("enabled", DEFAULT_ENABLED);
+		this.directory = this.resolve("directory")
+			.map(Path::of)
+			.orElseGet(HostCoordinationConfig.super::directory);
+		this.maxStartSimultan = Math.max(1, this.resolveInt(
+			"max-start-simultan",
+			HostCoordinationConfig.super::maxStartSimultan));
+		this.startPermitTimeoutMs = Math.max(0, this.resolveLong(
+			"start-permit.timeout-ms",
+			() -> DEFAULT_START_PERMIT_TIMEOUT_MS));
+		this.loadMonitorStaleMs = Math.max(1, this.resolveLong(
+			"load-monitor.stale-ms",
+			() -> DEFAULT_LOAD_MONITOR_STALE_MS));
+	}
+	
+	@Override
+	protected String propertyNamePrefix()
+	{
+		return "tci.host-coordination";
+	}
+	
+	@Override
+	public boolean enabled()
+	{
+		return this.enabled;
+	}
+	
+	@Override
+	public Path directory()
+	{
+		return this.directory;
+	}
+	
+	@Override
+	public int maxStartSimultan()
+	{
+		return this.maxStartSimultan;
+	}
+	
+	@Override
+	public long startPermitTimeoutMs()
+	{
+		return this.startPermitTimeoutMs;
+	}
+	
+	@Override
+	public long loadMonitorStaleMs()
+	{
+		return this.loadMonitorStaleMs;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.hostcoordination.config;
+
+import java.nio.file.Path;
+
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+
+
+public interface HostCoordinationConfig
+{
+	boolean DEFAULT_ENABLED = false;
+	long DEFAULT_LOAD_MONITOR_STALE_MS = 5_000;
+	long DEFAULT_START_PERMIT_TIMEOUT_MS = 60_000;
+	
+	/**
+	 * Should multiple JVMs (e.g. surefire forks) on the same host coordinate with each other?
+	 */
+	default boolean enabled()
+	{
+		return DEFAULT_ENABLED;
+	}
+	
+	/**
+	 * Directory that is used for coordination (lock files, shared state).
+	 * <p>
+	 * All JVMs that should coordinate with each other need to use the same directory.
+	 * </p>
+	 */
+	default Path directory()
+	{
+		return Path.of(System.getProperty("java.io.tmpdir"), "tci-host-coordination");
+	}
+	
+	/**
+	 * Maximum amount of containers that are started simultaneously by all coordinated JVMs
+	 */
+	default int maxStartSimultan()
+	{
+		return Math.max(1, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * How long to wait at most for a start permit. After that the container is started without a permit.
+	 */
+	default long startPermitTimeoutMs()
+	{
+		return DEFAULT_START_PERMIT_TIMEOUT_MS;
+	}
+	
+	/**
+	 * After how much time without an update the shared load is considered stale.
+	 * <p>
+	 * When the load is stale another JVM takes over monitoring the load.
+	 * </p>
+	 */
+	default long loadMonitorStaleMs()
+	{
+		return DEFAULT_LOAD_MONITOR_STALE_MS;
+	}
+	
+	static HostCoordinationConfig instance()
+	{
+		return TCIServiceLoaderHolder.instance().service(HostCoordinationConfig.class);
+	}
+}
@@ -38,6 +38,7 @@ import software.xdev.tci.factory.TCIFactory;
 import software.xdev.tci.factory.registry.TCIFactoryRegistry;
 import software.xdev.tci.leakdetection.config.LeakDetectionConfig;
 import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+import software.xdev.tci.stop.TCIStopPipeline;
 
 
 /**
@@ -85,6 +86,8 @@ public class TCILeakAgent implements TestExecutionListener
 			pendingReapers.forEach(LeakDetectionAsyncReaper::blockUntilReaped);
 		}
 		
+		this.waitForStopPipeline(this.config.defaultStopTimeout());
+		
 		if(this.waitForAllInfraToFullyStop(this.config.defaultStopTimeout()))
 		{
 			LOG.info("No leaks detected");
@@ -102,6 +105,32 @@ public class TCILeakAgent implements TestExecutionListener
 		this.reportLeak(leaked);
 	}
 	
+	/**
+	 * Waits until all stops that were submitted to the {@link TCIStopPipeline} are finished.
+	 */
+	protected void waitForStopPipeline(final Duration defaultStopTimeout)
+	{
+		// Don't create the pipeline when it was never used
+		final TCIStopPipeline pipeline = TCIStopPipeline.instanceIfCreated();
+		if(pipeline == null)
+		{
+			return;
+		}
+		
+		final int pending = pipeline.pendingCount();
+		if(defaultStopTimeout == null || pending == 0)
+		{
+			return;
+		}
+		
+		LOG.info("Waiting for {}x pending stops of the stop pipeline within {}", pending, defaultStopTimeout);
+		final long startMs = System.currentTimeMillis();
+		if(pipeline.awaitAll(defaultStopTimeout))
+		{
+			LOG.info("Took {}ms to wait for the stop pipeline", System.currentTimeMillis() - startMs);
+		}
+	}
+	
 	/**
 	 * @return <code>true</code> if all infra was determined to be stopped
 	 */
@@ -25,6 +25,7 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -85,6 +86,15 @@ public class LazyNetwork implements Network
 	
 	protected CompletableFuture<Void> startCF;
 	protected String id; // null -> not created
+	protected long createdAtMs;
+	
+	// region Recycling
+	/**
+	 * The lease of the current holder; <code>null</code> if the network is not handed out
+	 */
+	protected final AtomicReference<LazyNetworkLease> currentLease = new AtomicReference<>();
+	protected final AtomicInteger useCount = new AtomicInteger();
+	// endregion
 	
 	public LazyNetwork create()
 	{
@@ -146,6 +156,7 @@ public class LazyNetwork implements Network
 		createNetworkCmd.withLabels(labels);
 		
 		this.id = createNetworkCmd.exec().getId();
+		this.createdAtMs = System.currentTimeMillis();
 		// Free up
 		this.startCF = null;
 	}
@@ -191,6 +202,44 @@ public class LazyNetwork implements Network
 		}
 	}
 	
+	/**
+	 * Hands out the network.
+	 * <p>
+	 * The holder only gets the returned lease. Only the lease of the current holder can return the network, so
+	 * that a stale holder that closes its lease (again) can't return the network while it's used by someone else.
+	 * </p>
+	 *
+	 * @param returnHandler called with this network when the lease is closed
+	 */
+	protected LazyNetworkLease handOut(final Consumer<LazyNetwork> returnHandler)
+	{
+		final LazyNetworkLease lease = new LazyNetworkLease(this, returnHandler);
+		if(!this.currentLease.compareAndSet(null, lease))
+		{
+			throw new IllegalStateException("Network " + this.name + " is already handed out");
+		}
+		this.useCount.incrementAndGet();
+		return lease;
+	}
+	
+	/**
+	 * @return <code>true</code> if the lease was the current one and the network can therefore be returned
+	 */
+	protected boolean release(final LazyNetworkLease lease)
+	{
+		return this.currentLease.compareAndSet(lease, null);
+	}
+	
+	public int getUseCount()
+	{
+		return this.useCount.get();
+	}
+	
+	public long getCreatedAtMs()
+	{
+		return this.createdAtMs;
+	}
+	
 	@SuppressWarnings("resource") // AutoClosable is implemented but does nothing?
 	protected synchronized void closeInternal()
 	{
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.network;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.dockerjava.api.DockerClient;
+
+
+/**
+ * A {@link LazyNetwork} that was handed out by a {@link LazyNetworkPool} with recycling enabled.
+ * <p>
+ * Every hand-out gets its own lease. Closing the lease returns the underlying network to the pool - but only if it's
+ * still the current lease of the network. Closing a lease again or after the network was handed out to someone else
+ * has no effect.
+ * </p>
+ */
+public class LazyNetworkLease extends LazyNetwork
+{
+	private static final Logger LOG = LoggerFactory.getLogger(LazyNetworkLease.class);
+	
+	protected final LazyNetwork network;
+	protected final Consumer<LazyNetwork> returnHandler;
+	protected final AtomicBoolean closed = new AtomicBoolean();
+	
+	protected LazyNetworkLease(final LazyNetwork network, final Consumer<LazyNetwork> returnHandler)
+	{
+		this.network = Objects.requireNonNull(network);
+		this.returnHandler = Objects.requireNonNull(returnHandler);
+	}
+	
+	@Override
+	public LazyNetwork create(final Function<Runnable, CompletableFuture<Void>> executor)
+	{
+		throw new IllegalStateException("Creation is handled by the pool");
+	}
+	
+	@Override
+	public void waitForCreation(final Duration timeout)
+	{
+		this.network.waitForCreation(timeout);
+	}
+	
+	@Override
+	public String getIdWithoutCheck()
+	{
+		return this.network.getIdWithoutCheck();
+	}
+	
+	@Override
+	public String getId()
+	{
+		return this.network.getId();
+	}
+	
+	@Override
+	public void close()
+	{
+		if(!this.closed.compareAndSet(false, true) || !this.network.release(this))
+		{
+			LOG.debug("Ignoring close of stale lease of network {}", this.getName());
+			return;
+		}
+		this.returnHandler.accept(this.network);
+	}
+	
+	public boolean isClosed()
+	{
+		return this.closed.get();
+	}
+	
+	public LazyNetwork getNetwork()
+	{
+		return this.network;
+	}
+	
+	@Override
+	public int getUseCount()
+	{
+		return this.network.getUseCount();
+	}
+	
+	@Override
+	public long getCreatedAtMs()
+	{
+		return this.network.getCreatedAtMs();
+	}
+	
+	@Override
+	protected void closeInternal()
+	{
+		// The network is managed by the pool
+	}
+	
+	@Override
+	protected DockerClient getClient()
+	{
+		return this.network.getClient();
+	}
+	
+	@Override
+	public String getName()
+	{
+		return this.network.getName();
+	}
+	
+	@Override
+	public Boolean getEnableIpv6()
+	{
+		return this.network.getEnableIpv6();
+	}
+	
+	@Override
+	public String getDriver()
+	{
+		return this.network.getDriver();
+	}
+}
@@ -15,24 +15,43 @@
  */
 package software.xdev.tci.network;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.dockerjava.api.command.InspectNetworkCmd;
+import com.github.dockerjava.api.model.Network;
+
 import software.xdev.tci.concurrent.ExecutorServiceCreatorHolder;
 import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
 import software.xdev.tci.factory.prestart.config.PreStartConfig;
+import software.xdev.tci.tracing.TCITracer;
 
 
 /**
  * Provides a pool of {@link LazyNetwork}
+ * <h3>Recycling</h3>
+ * <p>
+ * If {@link #withRecycling(int, Duration) enabled}, networks are returned to the pool when they are closed instead of
+ * being deleted (creating and deleting networks is slow and serialized inside the Docker daemon).<br/>
+ * A returned network is only reused once all endpoints (containers) are disconnected from it. As network aliases
+ * belong to the endpoints the network is reused without any of the previous aliases.<br/>
+ * Networks that exceeded their maximum amount of uses or maximum age are deleted.<br/>
+ * Each hand-out gets its own {@link LazyNetworkLease}, so that only the current holder can return the network.
+ * </p>
  */
 public class LazyNetworkPool implements AutoCloseable
 {
@@ -42,34 +61,69 @@ public class LazyNetworkPool implements AutoCloseable
 	
 	protected static final AtomicInteger NETWORK_COUNTER = new AtomicInteger(1);
 	
+	/**
+	 * Weak so that pools that are no longer used - but were never shutdown - can be garbage collected
+	 */
+	protected static final Set<LazyNetworkPool> POOLS = Collections.synchronizedSet(
+		Collections.newSetFromMap(new WeakHashMap<>()));
+	
+	protected static final String PRESTART_NAME = "lazynetwork";
+	protected static final Duration DEFAULT_RECYCLE_MAX_AGE = Duration.ofMinutes(30);
+	protected static final int ENDPOINTS_DISCONNECTED_CHECKS = 10;
+	protected static final long ENDPOINTS_DISCONNECTED_CHECK_INTERVAL_MS = 500;
+	
 	@SuppressWarnings("resource")
 	protected Supplier<LazyNetwork> networkSupplier = () -> new LazyNetwork()
 		.withName("lazynet-" + NETWORK_COUNTER.getAndIncrement() + "-" + UUID.randomUUID())
 		.withCheckDuplicate(false);
 	
+	protected final String name;
+	protected final int size;
 	protected final LinkedBlockingQueue<LazyNetwork> queue;
 	protected final ExecutorService executor;
 	
+	protected int recycleMaxUses;
+	protected Duration recycleMaxAge = DEFAULT_RECYCLE_MAX_AGE;
+	
+	protected final TCITracer tracer = new TCITracer();
+	protected final AtomicLong poolHits = new AtomicLong();
+	protected final AtomicLong poolMisses = new AtomicLong();
+	
 	/**
-	 * Like {@link #LazyNetworkPool(int)} but uses {@link PreStartConfig} to determine the size
+	 * Like {@link #LazyNetworkPool(int)} but uses {@link PreStartConfig} to determine the size and recycling
 	 */
 	public LazyNetworkPool()
 	{
-		this(PreStartConfig.instance().keepReady("lazynetwork"));
+		this(PreStartConfig.instance().keepReady(PRESTART_NAME));
+		this.withRecycling(PreStartConfig.instance().recycleMaxReuse(PRESTART_NAME), DEFAULT_RECYCLE_MAX_AGE);
 	}
 	
 	public LazyNetworkPool(final int size)
+	{
+		this(size, POOL_COUNTER.getAndIncrement());
+	}
+	
+	private LazyNetworkPool(final int size, final int poolNumber)
 	{
 		this(
 			size,
-			ExecutorServiceCreatorHolder.instance().createUnlimited(
-				"LazyNetworkPool-" + POOL_COUNTER.getAndIncrement()));
+			ExecutorServiceCreatorHolder.instance().createUnlimited("LazyNetworkPool-" + poolNumber),
+			"LazyNetworkPool-" + poolNumber);
 	}
 	
 	public LazyNetworkPool(final int size, final ExecutorService executor)
 	{
-		this.queue = size > 0 ? new LinkedBlockingQueue<>(size) : null;
+		this(size, executor, "LazyNetworkPool-" + POOL_COUNTER.getAndIncrement());
+	}
+	
+	protected LazyNetworkPool(final int size, final ExecutorService executor, final String name)
+	{
+		this.name = name;
+		this.size = Math.max(0, size);
+		this.queue = size > 0 ? new LinkedBlockingQueue<>() : null;
 		this.executor = executor;
+		
+		POOLS.add(this);
 	}
 	
 	public LazyNetworkPool withNetworkSupplier(final Supplier<LazyNetwork> networkSupplier)
@@ -78,6 +132,24 @@ public class LazyNetworkPool implements AutoCloseable
 		return this;
 	}
 	
+	/**
+	 * Returns closed networks to the pool.
+	 *
+	 * @param maxUses how often a network may be used; <code>0</code> disables recycling
+	 * @param maxAge  maximum age of a network, after that it's deleted
+	 */
+	public LazyNetworkPool withRecycling(final int maxUses, final Duration maxAge)
+	{
+		this.recycleMaxUses = Math.max(0, maxUses);
+		this.recycleMaxAge = maxAge;
+		return this;
+	}
+	
+	protected boolean isRecyclingEnabled()
+	{
+		return this.queue != null && this.recycleMaxUses > 0;
+	}
+	
 	protected LazyNetwork bootNew()
 	{
 		final LazyNetwork network = this.networkSupplier.get();
@@ -99,7 +171,7 @@ public class LazyNetworkPool implements AutoCloseable
 	{
 		try
 		{
-			while(this.queue.remainingCapacity() > 0)
+			while(this.queue.size() < this.size)
 			{
 				this.queue.add(this.bootNew());
 			}
@@ -117,16 +189,138 @@ public class LazyNetworkPool implements AutoCloseable
 			return this.bootNew();
 		}
 		
-		final LazyNetwork net = Optional.ofNullable(this.queue.poll()).orElseGet(this::bootNew);
+		final LazyNetwork pooled = this.queue.poll();
+		final LazyNetwork net;
+		if(pooled != null)
+		{
+			net = pooled;
+			this.poolHits.incrementAndGet();
+		}
+		else
+		{
+			net = this.bootNew();
+			this.poolMisses.incrementAndGet();
+		}
+		this.traceHitRate();
 		
 		// Replenish
 		this.managePoolAsync();
 		
-		return net;
+		return this.isRecyclingEnabled()
+			? net.handOut(this::returnNetworkAsync)
+			: net;
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected void traceHitRate()
+	{
+		final long hits = this.poolHits.get();
+		final long total = hits + this.poolMisses.get();
+		this.tracer.gaugeSet("poolHits", hits);
+		this.tracer.gaugeSet("poolHitRatePercent", total > 0 ? hits * 100 / total : 0);
+	}
+	
+	// region Recycling
+	protected void returnNetworkAsync(final LazyNetwork network)
+	{
+		if(this.executor.isShutdown())
+		{
+			network.closeInternal();
+			return;
+		}
+		
+		CompletableFuture.runAsync(() -> this.recycleOrDelete(network), this.executor)
+			.exceptionally(ex -> {
+				LOG.warn("Failed to recycle network", ex);
+				return null;
+			});
+	}
+	
+	protected void recycleOrDelete(final LazyNetwork network)
+	{
+		final long startTime = System.currentTimeMillis();
+		
+		final boolean recycle = this.isRecyclable(network)
+			&& this.awaitAllEndpointsDisconnected(network)
+			// Keep a limited amount of idle networks
+			&& this.queue.size() < this.size * 2
+			&& this.queue.offer(network);
+		if(recycle)
+		{
+			this.tracer.timedAdd("recycle", System.currentTimeMillis() - startTime);
+			return;
+		}
+		
+		network.closeInternal();
+		this.tracer.timedAdd("delete", System.currentTimeMillis() - startTime);
+	}
+	
+	protected boolean isRecyclable(final LazyNetwork network)
+	{
+		return !this.executor.isShutdown()
+			&& network.getIdWithoutCheck() != null
+			&& network.getUseCount() < this.recycleMaxUses
+			&& System.currentTimeMillis() - network.getCreatedAtMs() < this.recycleMaxAge.toMillis();
+	}
+	
+	@SuppressWarnings("resource") // AutoClosable is implemented but does nothing?
+	protected boolean awaitAllEndpointsDisconnected(final LazyNetwork network)
+	{
+		// Docker needs a few moments until all endpoints are removed from the network
+		for(int i = 0; i < ENDPOINTS_DISCONNECTED_CHECKS; i++)
+		{
+			try
+			{
+				final InspectNetworkCmd cmd = network.getClient()
+					.inspectNetworkCmd()
+					.withNetworkId(network.getIdWithoutCheck());
+				final Map<String, Network.ContainerNetworkConfig> containers = cmd.exec().getContainers();
+				if(containers == null || containers.isEmpty())
+				{
+					return true;
+				}
+				
+				Thread.sleep(ENDPOINTS_DISCONNECTED_CHECK_INTERVAL_MS);
+			}
+			catch(final InterruptedException iex)
+			{
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			catch(final RuntimeException rex)
+			{
+				LOG.debug("Failed to inspect network", rex);
+				return false;
+			}
+		}
+		return false;
+	}
+	// endregion
+	
+	public String getName()
+	{
+		return this.name;
+	}
+	
+	public TCITracer getTracer()
+	{
+		return this.tracer;
+	}
+	
+	/**
+	 * @return all pools that were not shutdown (and are still in use)
+	 */
+	public static Set<LazyNetworkPool> getPools()
+	{
+		synchronized(POOLS)
+		{
+			return Set.copyOf(POOLS);
+		}
 	}
 	
 	public void shutdown(final boolean drainQueueAndCloseNetworks)
 	{
+		POOLS.remove(this);
 		this.executor.shutdown();
 		
 		if(drainQueueAndCloseNetworks && this.queue != null)
@@ -135,7 +329,7 @@ public class LazyNetworkPool implements AutoCloseable
 			{
 				try
 				{
-					network.close();
+					network.closeInternal();
 				}
 				catch(final Exception ex)
 				{
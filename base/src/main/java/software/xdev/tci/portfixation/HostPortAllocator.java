@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.portfixation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramSocket;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.dockerjava.api.model.InternetProtocol;
+
+
+/**
+ * Allocates free ports directly on the host.
+ * <p>
+ * This only works when the Docker daemon binds the ports on the same host (and network namespace) as the JVM.
+ * </p>
+ * <p>
+ * All ports of an allocation are reserved at the same time.<br/>
+ * Allocated ports are kept in a lease ledger and not handed out again until the lease expired,
+ * giving Docker enough time to bind them.
+ * </p>
+ */
+public class HostPortAllocator implements PortAllocator
+{
+	private static final Logger LOG = LoggerFactory.getLogger(HostPortAllocator.class);
+	
+	protected static final Duration DEFAULT_LEASE_DURATION = Duration.ofMinutes(5);
+	protected static final int MAX_ATTEMPTS_PER_PORT = 10;
+	
+	protected final Duration leaseDuration;
+	protected final ReentrantLock lock = new ReentrantLock();
+	// Key: protocol + port; Value: lease expiry (ms)
+	protected final Map<String, Long> leases = new HashMap<>();
+	
+	public HostPortAllocator()
+	{
+		this(DEFAULT_LEASE_DURATION);
+	}
+	
+	public HostPortAllocator(final Duration leaseDuration)
+	{
+		this.leaseDuration = leaseDuration;
+	}
+	
+	@Override
+	public Map<InternetProtocol, List<Integer>> allocate(final Map<InternetProtocol, Integer> protocolAmounts)
+	{
+		final Map<InternetProtocol, List<Integer>> allocated = new HashMap<>();
+		final List<Closeable> reservations = new ArrayList<>();
+		
+		this.lock.lock();
+		try
+		{
+			final long now = System.currentTimeMillis();
+			this.leases.values().removeIf(expiry -> expiry < now);
+			
+			// Keep all sockets open until everything is allocated so that the OS doesn't hand out a port twice
+			protocolAmounts.forEach((protocol, amount) -> {
+				final List<Integer> ports = new ArrayList<>(amount);
+				int attempts = 0;
+				while(ports.size() < amount)
+				{
+					if(attempts++ > amount * MAX_ATTEMPTS_PER_PORT)
+					{
+						throw new IllegalStateException("Unable to allocate " + amount + " " + protocol + " ports");
+					}
+					
+					final Closeable reservation = this.reserve(protocol);
+					reservations.add(reservation);
+					
+					final int port = reservation instanceof final ServerSocket ss
+						? ss.getLocalPort()
+						: ((DatagramSocket)reservation).getLocalPort();
+					if(this.leases.putIfAbsent(leaseKey(protocol, port), now + this.leaseDuration.toMillis()) == null)
+					{
+						ports.add(port);
+					}
+				}
+				allocated.put(protocol, ports);
+			});
+		}
+		finally
+		{
+			this.lock.unlock();
+			reservations.forEach(HostPortAllocator::closeQuietly);
+		}
+		
+		LOG.debug("Allocated host ports {}", allocated);
+		return allocated;
+	}
+	
+	@SuppressWarnings("java:S2095") // Closed by caller
+	protected Closeable reserve(final InternetProtocol protocol)
+	{
+		try
+		{
+			if(protocol == InternetProtocol.UDP)
+			{
+				return new DatagramSocket(0);
+			}
+			// TCP and SCTP (no SCTP support in Java -> use TCP as approximation)
+			final ServerSocket serverSocket = new ServerSocket();
+			// Docker needs to bind the port after us
+			serverSocket.setReuseAddress(true);
+			serverSocket.bind(null);
+			return serverSocket;
+		}
+		catch(final IOException ioe)
+		{
+			throw new UncheckedIOException("Failed to reserve " + protocol + " port", ioe);
+		}
+	}
+	
+	protected static String leaseKey(final InternetProtocol protocol, final int port)
+	{
+		return protocol + "/" + port;
+	}
+	
+	protected static void closeQuietly(final Closeable closeable)
+	{
+		try
+		{
+			closeable.close();
+		}
+		catch(final IOException ignored)
+		{
+			// Ignore
+		}
+	}
+}
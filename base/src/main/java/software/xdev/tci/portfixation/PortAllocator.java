@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.portfixation;
+
+import java.util.List;
+import java.util.Map;
+
+import com.github.dockerjava.api.model.InternetProtocol;
+
+
+/**
+ * Allocates free ports on the Docker host.
+ */
+@FunctionalInterface
+public interface PortAllocator
+{
+	/**
+	 * @param protocolAmounts how many ports are required per protocol
+	 * @return the distinct free ports per protocol
+	 */
+	Map<InternetProtocol, List<Integer>> allocate(Map<InternetProtocol, Integer> protocolAmounts);
+}
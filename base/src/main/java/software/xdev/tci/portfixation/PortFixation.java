@@ -18,18 +18,28 @@ package software.xdev.tci.portfixation;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.utility.DockerImageName;
 import org.testcontainers.utility.DockerLoggerFactory;
@@ -39,23 +49,132 @@ import com.github.dockerjava.api.model.InternetProtocol;
 import com.github.dockerjava.api.model.PortBinding;
 import com.github.dockerjava.api.model.Ports;
 
+import software.xdev.tci.factory.prestart.loadbalancing.LocalDockerDaemonDetector;
+
 
 /**
- * Utility class for getting a random port using a dummy Docker container.
+ * Utility class for fixating the exposed ports of containers to random free ports.
+ * <p/>
+ * The free ports are determined by a {@link PortAllocator}:
+ * <ul>
+ *     <li>{@link HostPortAllocator} - when the Docker daemon runs on the same host as the JVM</li>
+ *     <li>{@link #CONTAINER_PORT_ALLOCATOR} - otherwise; uses a dummy Docker container</li>
+ * </ul>
+ * <p/>
+ * Concurrent fixations (e.g. of multiple PreStarting containers) are combined into a single batched allocation.
  * <p/>
  * Created as a workaround for <a href="https://github.com/moby/moby/issues/44137">moby/moby#44137</a>
  */
 public final class PortFixation
 {
+	private static final Logger LOG = LoggerFactory.getLogger(PortFixation.class);
+	
 	private PortFixation()
 	{
 	}
 	
+	/**
+	 * Allocates the ports using a dummy Docker container which works for all (also remote) Docker daemons.
+	 */
+	public static final PortAllocator CONTAINER_PORT_ALLOCATOR = PortFixation::getRandomFreePorts;
+	
+	static final Path DOCKER_ENV_FILE = Path.of("/.dockerenv");
+	
+	private static PortAllocator portAllocator;
+	
+	public static PortAllocator portAllocator()
+	{
+		if(portAllocator == null)
+		{
+			initPortAllocator();
+		}
+		return portAllocator;
+	}
+	
+	private static synchronized void initPortAllocator()
+	{
+		if(portAllocator != null)
+		{
+			return;
+		}
+		// When running inside a container the network namespace is different from the one Docker binds to
+		portAllocator = LocalDockerDaemonDetector.isLocal() && !Files.exists(DOCKER_ENV_FILE)
+			? new HostPortAllocator()
+			: CONTAINER_PORT_ALLOCATOR;
+		LOG.debug("Using {} for allocating ports", portAllocator);
+	}
+	
+	public static void setPortAllocator(final PortAllocator portAllocator)
+	{
+		PortFixation.portAllocator = portAllocator;
+	}
+	
 	static boolean initializedReflectFuncs;
 	static Function<GenericContainer<?>, Set<ExposedPort>> exposedPortAccess;
 	static TriConsumer<GenericContainer<?>, Integer, ExposedPort> addFixedExposedPortFunc;
 	
+	static final ReentrantLock BATCH_LOCK = new ReentrantLock();
+	static final ConcurrentLinkedQueue<PendingFixation> PENDING_FIXATIONS = new ConcurrentLinkedQueue<>();
+	
+	/**
+	 * Fixates the exposed ports of the container.
+	 * <p>
+	 * If other fixations are currently running, the container is fixated together with all other containers that
+	 * are waiting in a single (batched) allocation afterward.
+	 * </p>
+	 */
 	public static void makeExposedPortsFix(final GenericContainer<?> container)
+	{
+		final PendingFixation pending = new PendingFixation(container, new CompletableFuture<>());
+		PENDING_FIXATIONS.add(pending);
+		
+		BATCH_LOCK.lock();
+		try
+		{
+			// Might have already been fixated by the batch of another thread
+			if(!pending.future().isDone())
+			{
+				final List<PendingFixation> batch = new ArrayList<>();
+				PendingFixation next;
+				while((next = PENDING_FIXATIONS.poll()) != null)
+				{
+					batch.add(next);
+				}
+				
+				try
+				{
+					makeExposedPortsFix(batch.stream().<GenericContainer<?>>map(PendingFixation::container).toList());
+					batch.forEach(p -> p.future().complete(null));
+				}
+				catch(final RuntimeException ex)
+				{
+					batch.forEach(p -> p.future().completeExceptionally(ex));
+				}
+			}
+		}
+		finally
+		{
+			BATCH_LOCK.unlock();
+		}
+		
+		try
+		{
+			pending.future().join();
+		}
+		catch(final CompletionException ex)
+		{
+			if(ex.getCause() instanceof final RuntimeException rex)
+			{
+				throw rex;
+			}
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Fixates the exposed ports of all containers using a single (batched) allocation.
+	 */
+	public static void makeExposedPortsFix(final Collection<? extends GenericContainer<?>> containers)
 	{
 		// Cache
 		if(!initializedReflectFuncs)
@@ -63,38 +182,57 @@ public final class PortFixation
 			initReflectFuncs();
 		}
 		
-		final List<ExposedPort> requiredPorts = Stream.concat(
-				exposedPortAccess.apply(container).stream(),
-				Optional.of(container)
-					.filter(AdditionalPortsForFixedExposingContainer.class::isInstance)
-					.map(AdditionalPortsForFixedExposingContainer.class::cast)
-					.map(AdditionalPortsForFixedExposingContainer::getAdditionalPortsForFixedExposing)
-					.stream()
-					.flatMap(Collection::stream))
-			.distinct()
-			.toList();
+		final Map<GenericContainer<?>, Map<InternetProtocol, List<ExposedPort>>> containerProtocolPorts =
+			new LinkedHashMap<>();
+		for(final GenericContainer<?> container : containers)
+		{
+			final List<ExposedPort> requiredPorts = Stream.concat(
+					exposedPortAccess.apply(container).stream(),
+					Optional.of(container)
+						.filter(AdditionalPortsForFixedExposingContainer.class::isInstance)
+						.map(AdditionalPortsForFixedExposingContainer.class::cast)
+						.map(AdditionalPortsForFixedExposingContainer::getAdditionalPortsForFixedExposing)
+						.stream()
+						.flatMap(Collection::stream))
+				.distinct()
+				.toList();
+			
+			if(!requiredPorts.isEmpty())
+			{
+				containerProtocolPorts.put(
+					container,
+					requiredPorts.stream().collect(Collectors.groupingBy(ExposedPort::getProtocol)));
+			}
+		}
 		
-		if(requiredPorts.isEmpty())
+		if(containerProtocolPorts.isEmpty())
 		{
 			return;
 		}
 		
-		final Map<InternetProtocol, List<ExposedPort>> protocolPorts =
-			requiredPorts.stream().collect(Collectors.groupingBy(ExposedPort::getProtocol));
+		final Map<InternetProtocol, Integer> protocolAmounts = containerProtocolPorts.values()
+			.stream()
+			.flatMap(protocolPorts -> protocolPorts.entrySet().stream())
+			.collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().size(), Integer::sum));
 		
-		final Map<InternetProtocol, List<Integer>> randomHostFreePorts =
-			PortFixation.getRandomFreePorts(protocolPorts.entrySet()
-				.stream()
-				.collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().size())));
+		final Map<InternetProtocol, Iterator<Integer>> randomHostFreePorts = portAllocator()
+			.allocate(protocolAmounts)
+			.entrySet()
+			.stream()
+			.collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().iterator()));
 		
-		protocolPorts.forEach((proto, containerPorts) -> {
-			final List<Integer> protoRandomHostFreePort = randomHostFreePorts.get(proto);
-			IntStream.range(0, containerPorts.size())
-				.forEach(i -> addFixedExposedPortFunc.accept(
+		containerProtocolPorts.forEach((container, protocolPorts) ->
+			protocolPorts.forEach((proto, containerPorts) -> {
+				final Iterator<Integer> protoRandomHostFreePorts = randomHostFreePorts.get(proto);
+				containerPorts.forEach(containerPort -> addFixedExposedPortFunc.accept(
 					container,
-					protoRandomHostFreePort.get(i),
-					containerPorts.get(i)));
-		});
+					protoRandomHostFreePorts.next(),
+					containerPort));
+			}));
+	}
+	
+	record PendingFixation(GenericContainer<?> container, CompletableFuture<Void> future)
+	{
 	}
 	
 	@SuppressWarnings({"java:S3011", "unchecked"})
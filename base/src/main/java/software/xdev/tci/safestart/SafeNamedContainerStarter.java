@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,6 +34,11 @@ import org.testcontainers.containers.GenericContainer;
 import com.github.dockerjava.api.exception.NotFoundException;
 
 import software.xdev.tci.envperf.EnvironmentPerformance;
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+import software.xdev.tci.startup.wait.log.SharedLogConsumer;
+import software.xdev.tci.tracing.TCITracer;
+import software.xdev.tci.tracing.TCITracerHolder;
+import software.xdev.tci.tracing.config.TracingConfig;
 
 
 /**
@@ -54,6 +60,7 @@ public class SafeNamedContainerStarter<C extends GenericContainer<?>> implements
 	protected final Consumer<C> starter;
 	
 	protected boolean attachRandomUUID = true;
+	protected volatile StartupPhaseRecorder phaseRecorder;
 	
 	public SafeNamedContainerStarter(
 		final String baseContainerName,
@@ -79,6 +86,8 @@ public class SafeNamedContainerStarter<C extends GenericContainer<?>> implements
 		final AtomicInteger startAttemptCounter = new AtomicInteger(1);
 		this.container.withCreateContainerCmdModifier(cmd ->
 		{
+			Optional.ofNullable(this.phaseRecorder).ifPresent(StartupPhaseRecorder::markCreateRequested);
+			
 			// We are here again -> Prev start (if any) must have failed!
 			// Clear now, otherwise e.g. fixed port bindings will fail again and forever
 			this.tryCleanupContainerAfterStartFail(this.containerNames);
@@ -111,9 +120,13 @@ public class SafeNamedContainerStarter<C extends GenericContainer<?>> implements
 	
 	public void start()
 	{
+		this.phaseRecorder = this.createPhaseRecorder();
 		try
 		{
 			this.starter.accept(this.container);
+			Optional.ofNullable(this.phaseRecorder).ifPresent(r -> r.recordStarted(this.container));
+			// All wait strategies completed -> nothing requires a replay of the log anymore
+			SharedLogConsumer.find(this.container).ifPresent(SharedLogConsumer::stopReplayBuffering);
 			this.tryCleanupContainerAfterStartFail(this.containerNames.stream()
 				.skip(1) // First one is successfully started one
 				.toList());
@@ -125,6 +138,23 @@ public class SafeNamedContainerStarter<C extends GenericContainer<?>> implements
 		}
 	}
 	
+	/**
+	 * @return a recorder for the phases of the start if a factory is currently tracing the start, otherwise
+	 * <code>null</code>
+	 * @see TCITracerHolder
+	 */
+	protected StartupPhaseRecorder createPhaseRecorder()
+	{
+		final TCITracer tracer = TCITracerHolder.get();
+		if(tracer == null)
+		{
+			return null;
+		}
+		return new StartupPhaseRecorder(
+			tracer,
+			TCIServiceLoaderHolder.instance().service(TracingConfig.class).startupPhaseEvents());
+	}
+	
 	@SuppressWarnings({"resource", "checkstyle:MagicNumber"})
 	protected void tryCleanupContainerAfterStartFail(final List<String> containerNames)
 	{
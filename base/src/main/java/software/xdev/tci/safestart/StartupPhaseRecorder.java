@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.safestart;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+
+import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
+import software.xdev.tci.tracing.TCITracer;
+
+
+/**
+ * Records the phases of a container start into a {@link TCITracer}:
+ * <ul>
+ *     <li><code>imagePrepare</code>: Resolving (and pulling) the image and configuring the container</li>
+ *     <li><code>create</code>: Creating the container until the first network was connected</li>
+ *     <li><code>network</code>: Connecting the networks until the container's process was started</li>
+ *     <li><code>readiness</code>: Waiting until the started container is ready (wait strategies + hooks)</li>
+ * </ul>
+ * <p>
+ * Create and network are determined using the timestamps of the Docker events of the container. If they are not
+ * available the timestamps of the container's inspection are used and only <code>createToStart</code> is recorded.
+ * <br/>
+ * As Docker only reports events after they happened, the daemon side phases are recorded asynchronously.
+ * </p>
+ */
+public class StartupPhaseRecorder
+{
+	private static final Logger LOG = LoggerFactory.getLogger(StartupPhaseRecorder.class);
+	
+	public static final String PREFIX = "startPhase.";
+	
+	protected static final long EVENT_QUERY_TIMEOUT_MS = 10_000;
+	protected static final long EVENT_QUERY_UNTIL_OFFSET_NANOS = TimeUnit.SECONDS.toNanos(1);
+	
+	protected final TCITracer tracer;
+	protected final boolean useDockerEvents;
+	protected final long startNanos = System.nanoTime();
+	protected volatile long createRequestedNanos;
+	
+	public StartupPhaseRecorder(final TCITracer tracer, final boolean useDockerEvents)
+	{
+		this.tracer = Objects.requireNonNull(tracer);
+		this.useDockerEvents = useDockerEvents;
+	}
+	
+	/**
+	 * Marks that the container is about to be created. Called for every start attempt.
+	 */
+	public void markCreateRequested()
+	{
+		this.createRequestedNanos = System.nanoTime();
+	}
+	
+	public void recordStarted(final GenericContainer<?> container)
+	{
+		final long endNanos = System.nanoTime();
+		final long createRequested = this.createRequestedNanos;
+		if(createRequested == 0)
+		{
+			return;
+		}
+		
+		this.add("imagePrepare", createRequested - this.startNanos);
+		
+		final long createToReadyNanos = endNanos - createRequested;
+		final InspectContainerResponse containerInfo = container.getContainerInfo();
+		if(containerInfo == null)
+		{
+			this.add("createToReady", createToReadyNanos);
+			return;
+		}
+		
+		TCIExecutorServiceHolder.instance().execute(() -> {
+			try
+			{
+				this.recordDaemonPhases(containerInfo, createToReadyNanos);
+			}
+			catch(final Exception ex)
+			{
+				LOG.debug("Failed to determine startup phases of {}", containerInfo.getId(), ex);
+				this.add("createToReady", createToReadyNanos);
+			}
+		});
+	}
+	
+	protected void recordDaemonPhases(final InspectContainerResponse containerInfo, final long createToReadyNanos)
+	{
+		final long createdNanos = toEpochNanos(containerInfo.getCreated());
+		final long startedNanos = toEpochNanos(containerInfo.getState().getStartedAt());
+		
+		final Optional<DaemonTimes> optEventTimes = this.useDockerEvents
+			? this.determineTimesFromEvents(containerInfo.getId(), createdNanos, startedNanos)
+			: Optional.empty();
+		if(optEventTimes.isPresent())
+		{
+			final DaemonTimes times = optEventTimes.get();
+			this.add("create", times.firstNetworkConnectNanos() - times.createNanos());
+			this.add("network", times.startNanos() - times.firstNetworkConnectNanos());
+			this.add("readiness", createToReadyNanos - (times.startNanos() - times.createNanos()));
+			return;
+		}
+		
+		this.add("createToStart", startedNanos - createdNanos);
+		this.add("readiness", createToReadyNanos - (startedNanos - createdNanos));
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected Optional<DaemonTimes> determineTimesFromEvents(
+		final String containerId,
+		final long createdNanos,
+		final long startedNanos)
+	{
+		final List<Event> events = new CopyOnWriteArrayList<>();
+		final long sinceNanos = createdNanos - TimeUnit.SECONDS.toNanos(1);
+		final long untilNanos = startedNanos + EVENT_QUERY_UNTIL_OFFSET_NANOS;
+		
+		try(final ResultCallback.Adapter<Event> callback = DockerClientFactory.lazyClient()
+			.eventsCmd()
+			.withEventTypeFilter(EventType.CONTAINER, EventType.NETWORK)
+			.withEventFilter("create", "connect", "start")
+			.withSince(toDockerTimestamp(sinceNanos))
+			.withUntil(toDockerTimestamp(untilNanos))
+			.exec(new ResultCallback.Adapter<>()
+			{
+				@Override
+				public void onNext(final Event event)
+				{
+					events.add(event);
+				}
+			}))
+		{
+			if(!callback.awaitCompletion(EVENT_QUERY_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+			{
+				return Optional.empty();
+			}
+		}
+		catch(final InterruptedException ie)
+		{
+			Thread.currentThread().interrupt();
+			return Optional.empty();
+		}
+		catch(final Exception ex)
+		{
+			LOG.debug("Failed to query events of {}", containerId, ex);
+			return Optional.empty();
+		}
+		
+		final Optional<Long> createTime = events.stream()
+			.filter(e -> e.getType() == EventType.CONTAINER && "create".equals(e.getAction()))
+			.filter(e -> e.getActor() != null && containerId.equals(e.getActor().getId()))
+			.map(Event::getTimeNano)
+			.filter(Objects::nonNull)
+			.findFirst();
+		final Optional<Long> startTime = events.stream()
+			.filter(e -> e.getType() == EventType.CONTAINER && "start".equals(e.getAction()))
+			.filter(e -> e.getActor() != null && containerId.equals(e.getActor().getId()))
+			.map(Event::getTimeNano)
+			.filter(Objects::nonNull)
+			.findFirst();
+		if(createTime.isEmpty() || startTime.isEmpty())
+		{
+			return Optional.empty();
+		}
+		
+		final long firstNetworkConnect = events.stream()
+			.filter(e -> e.getType() == EventType.NETWORK && "connect".equals(e.getAction()))
+			.filter(e -> e.getActor() != null && e.getActor().getAttributes() != null
+				&& containerId.equals(e.getActor().getAttributes().get("container")))
+			.map(Event::getTimeNano)
+			.filter(Objects::nonNull)
+			.mapToLong(Long::longValue)
+			.filter(t -> t >= createTime.get() && t <= startTime.get())
+			.min()
+			.orElse(startTime.get());
+		
+		return Optional.of(new DaemonTimes(createTime.get(), firstNetworkConnect, startTime.get()));
+	}
+	
+	protected void add(final String phase, final long nanos)
+	{
+		this.tracer.getTimedOrCreate(PREFIX + phase).addNanos(Math.max(0, nanos));
+	}
+	
+	protected static long toEpochNanos(final String timestamp)
+	{
+		final Instant instant = Instant.parse(timestamp);
+		return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected static String toDockerTimestamp(final long epochNanos)
+	{
+		return TimeUnit.NANOSECONDS.toSeconds(epochNanos) + "." + String.format("%09d", epochNanos % 1_000_000_000L);
+	}
+	
+	protected record DaemonTimes(long createNanos, long firstNetworkConnectNanos, long startNanos)
+	{
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.serviceloading;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Condition that needs to be fulfilled so that a provider can be used by {@link TCIServiceLoaderHolder}.
+ * <p>
+ * If the condition is not fulfilled the provider with the next highest {@link TCIProviderPriority priority} is
+ * used.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TCIProviderCondition
+{
+	/**
+	 * Checks if the provider is available. Requires a public no-args constructor.
+	 */
+	Class<? extends BooleanSupplier> value();
+}
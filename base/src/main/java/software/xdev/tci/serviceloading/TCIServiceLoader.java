@@ -142,13 +142,38 @@ public class TCIServiceLoader
 		return ServiceLoader.load(clazz)
 			.stream()
 			// Get by highest priority
-			.max(Comparator.comparingInt(p ->
-				Optional.ofNullable(p.type().getAnnotation(TCIProviderPriority.class))
-					.map(TCIProviderPriority::value)
-					.orElse(TCIProviderPriority.DEFAULT_PRIORITY)))
+			.sorted(Comparator.comparingInt((ServiceLoader.Provider<T> p) ->
+					Optional.ofNullable(p.type().getAnnotation(TCIProviderPriority.class))
+						.map(TCIProviderPriority::value)
+						.orElse(TCIProviderPriority.DEFAULT_PRIORITY))
+				.reversed())
+			// that is available
+			.filter(this::isProviderAvailable)
+			.findFirst()
 			.map(ServiceLoader.Provider::get);
 	}
 	
+	protected boolean isProviderAvailable(final ServiceLoader.Provider<?> provider)
+	{
+		final TCIProviderCondition condition = provider.type().getAnnotation(TCIProviderCondition.class);
+		if(condition == null)
+		{
+			return true;
+		}
+		
+		try
+		{
+			final boolean available = condition.value().getDeclaredConstructor().newInstance().getAsBoolean();
+			LOG.debug("Provider {} available: {}", provider.type().getName(), available);
+			return available;
+		}
+		catch(final Exception ex)
+		{
+			LOG.warn("Failed to check if provider {} is available", provider.type().getName(), ex);
+			return false;
+		}
+	}
+	
 	public boolean isLoaded(final Class<?> clazz)
 	{
 		final Optional<?> optImpl = this.loadedServices.get(clazz);
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.github.dockerjava.api.model.EventType;
+
+import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
+
+
+/**
+ * A single - process-wide - subscription to the Docker events that informs listeners when their container died.
+ * <p>
+ * This replaces polling the state of every starting container.<br/>
+ * If the subscription is lost it's reestablished and events since the disconnect (or since the first subscription
+ * attempt if no subscription succeeded yet) are replayed.
+ * </p>
+ */
+public class ContainerDeathEventHub
+{
+	private static final Logger LOG = LoggerFactory.getLogger(ContainerDeathEventHub.class);
+	
+	protected static final String ACTION_DIE = "die";
+	protected static final String ACTION_OOM = "oom";
+	protected static final String ACTION_KILL = "kill";
+	protected static final String SIGKILL = "9";
+	
+	protected static final long CONNECT_TIMEOUT_MS = 5_000;
+	protected static final long MAX_RECONNECT_DELAY_MS = 10_000;
+	
+	private static ContainerDeathEventHub instance;
+	
+	public static ContainerDeathEventHub instance()
+	{
+		if(instance == null)
+		{
+			init();
+		}
+		return instance;
+	}
+	
+	private static synchronized void init()
+	{
+		if(instance != null)
+		{
+			return;
+		}
+		instance = new ContainerDeathEventHub();
+		instance.connect();
+	}
+	
+	protected final Map<String, Set<Consumer<Event>>> listeners = new ConcurrentHashMap<>();
+	protected volatile boolean connected;
+	/**
+	 * The callback of the current subscription. Callbacks of abandoned subscriptions must not trigger a reconnect.
+	 */
+	protected volatile EventCallback activeCallback;
+	/**
+	 * Since when events need to be replayed on (re-)connect; <code>0</code> if never tried to connect.
+	 */
+	protected long replaySinceSec;
+	protected long reconnectDelayMs;
+	
+	protected ContainerDeathEventHub()
+	{
+	}
+	
+	/**
+	 * @return <code>true</code> if the events are currently received
+	 */
+	public boolean isConnected()
+	{
+		return this.connected;
+	}
+	
+	/**
+	 * Registers a listener that is called when the container died.
+	 *
+	 * @return the registration which must be closed when the listener is no longer required
+	 */
+	public Registration register(final String containerId, final Consumer<Event> onDeath)
+	{
+		this.listeners.computeIfAbsent(containerId, ignored -> ConcurrentHashMap.newKeySet()).add(onDeath);
+		return () -> this.listeners.computeIfPresent(containerId, (id, set) -> {
+			set.remove(onDeath);
+			return set.isEmpty() ? null : set;
+		});
+	}
+	
+	@SuppressWarnings({"resource", "java:S2095"}) // Callback is closed by docker-java when the stream ends
+	protected synchronized void connect()
+	{
+		final EventCallback callback = new EventCallback();
+		if(this.replaySinceSec == 0)
+		{
+			this.replaySinceSec = currentTimeSec();
+		}
+		final long since = this.replaySinceSec;
+		try
+		{
+			DockerClientFactory.lazyClient()
+				.eventsCmd()
+				.withEventTypeFilter(EventType.CONTAINER)
+				.withEventFilter(ACTION_DIE, ACTION_OOM, ACTION_KILL)
+				// Replay events that were missed while reconnecting
+				.withSince(String.valueOf(since))
+				.exec(callback);
+			
+			if(callback.awaitStarted(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+			{
+				this.activeCallback = callback;
+				this.connected = true;
+				this.reconnectDelayMs = 0;
+				LOG.debug("Subscribed to container events");
+				return;
+			}
+			callback.close();
+		}
+		catch(final InterruptedException ie)
+		{
+			Thread.currentThread().interrupt();
+			return;
+		}
+		catch(final Exception ex)
+		{
+			LOG.warn("Failed to subscribe to container events", ex);
+		}
+		this.scheduleReconnect();
+	}
+	
+	protected void onDisconnected(final EventCallback callback)
+	{
+		synchronized(this)
+		{
+			if(this.activeCallback != callback)
+			{
+				// Subscription was abandoned (e.g. connect timed out) -> a reconnect is already scheduled
+				return;
+			}
+			this.activeCallback = null;
+			this.replaySinceSec = currentTimeSec();
+		}
+		this.scheduleReconnect();
+	}
+	
+	protected static long currentTimeSec()
+	{
+		return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+	}
+	
+	protected void scheduleReconnect()
+	{
+		this.connected = false;
+		final long delayMs;
+		synchronized(this)
+		{
+			this.reconnectDelayMs = Math.min(Math.max(this.reconnectDelayMs * 2, 100), MAX_RECONNECT_DELAY_MS);
+			delayMs = this.reconnectDelayMs;
+		}
+		
+		TCIExecutorServiceHolder.instance().execute(() -> {
+			try
+			{
+				Thread.sleep(delayMs);
+			}
+			catch(final InterruptedException ie)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+			this.connect();
+		});
+	}
+	
+	protected void handleEvent(final Event event)
+	{
+		final String containerId = Optional.ofNullable(event.getActor())
+			.map(EventActor::getId)
+			.orElseGet(event::getId);
+		if(containerId == null || !this.isDeathEvent(event))
+		{
+			return;
+		}
+		
+		final Set<Consumer<Event>> containerListeners = this.listeners.get(containerId);
+		if(containerListeners != null)
+		{
+			containerListeners.forEach(l -> l.accept(event));
+		}
+	}
+	
+	protected boolean isDeathEvent(final Event event)
+	{
+		final String action = Optional.ofNullable(event.getAction()).orElseGet(event::getStatus);
+		if(ACTION_KILL.equals(action))
+		{
+			// Other signals might be handled by the container
+			return Optional.ofNullable(event.getActor())
+				.map(EventActor::getAttributes)
+				.map(attributes -> SIGKILL.equals(attributes.get("signal")))
+				.orElse(false);
+		}
+		return ACTION_DIE.equals(action) || ACTION_OOM.equals(action);
+	}
+	
+	protected class EventCallback extends ResultCallback.Adapter<Event>
+	{
+		@Override
+		public void onNext(final Event event)
+		{
+			try
+			{
+				ContainerDeathEventHub.this.handleEvent(event);
+			}
+			catch(final Exception ex)
+			{
+				LOG.warn("Failed to handle event {}", event, ex);
+			}
+		}
+		
+		@Override
+		public void onError(final Throwable throwable)
+		{
+			LOG.debug("Container event stream failed", throwable);
+			super.onError(throwable);
+			ContainerDeathEventHub.this.onDisconnected(this);
+		}
+		
+		@Override
+		public void onComplete()
+		{
+			super.onComplete();
+			ContainerDeathEventHub.this.onDisconnected(this);
+		}
+	}
+	
+	
+	@FunctionalInterface
+	public interface Registration extends Closeable
+	{
+		@Override
+		void close();
+	}
+}
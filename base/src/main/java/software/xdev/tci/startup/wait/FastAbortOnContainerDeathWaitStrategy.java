@@ -34,6 +34,7 @@ import software.xdev.tci.startup.wait.holder.AbortableStrategyValues;
 import software.xdev.tci.startup.wait.holder.AbortableStrategyValuesHolder;
 import software.xdev.tci.startup.wait.strategy.AbstractWaitAbortableStrategy;
 import software.xdev.tci.startup.wait.strategy.WaitAllAbortableStrategy;
+import software.xdev.tci.tracing.TCITracerHolder;
 
 
 /**
@@ -42,6 +43,10 @@ import software.xdev.tci.startup.wait.strategy.WaitAllAbortableStrategy;
  * This is helpful when the container dies during the startup phase as the default wait-strategies
  * would wait for the timeout to expire which can take up to a few minutes.
  * </p>
+ * <p>
+ * Container deaths are detected using the process-wide {@link ContainerDeathEventHub}.<br/>
+ * If the hub is not connected the state of the container is polled instead.
+ * </p>
  */
 public class FastAbortOnContainerDeathWaitStrategy extends AbstractWaitStrategy
 {
@@ -87,10 +92,17 @@ public class FastAbortOnContainerDeathWaitStrategy extends AbstractWaitStrategy
 		final CompletableFuture<Void> cfWaitStrategy = CompletableFuture.runAsync(
 			() -> AbortableStrategyValuesHolder.executeWith(
 				() -> this.waitStrategy.waitUntilReady(this.waitStrategyTarget),
-				new AbortableStrategyValues(abortMonitor, this.executor)),
+				new AbortableStrategyValues(abortMonitor, this.executor, TCITracerHolder.get())),
 			this.executor
 		);
 		
+		final ContainerDeathEventHub eventHub = this.containerDeathEventHub();
+		if(eventHub != null && eventHub.isConnected())
+		{
+			this.waitUntilReadyOrDeathEvent(eventHub, abortMonitor, cfWaitStrategy);
+			return;
+		}
+		
 		final CompletableFuture<Void> cfContainerDeathWatchDog = CompletableFuture.runAsync(
 			() -> this.runCheckIfContainerIsDead(abortMonitor, cfWaitStrategy),
 			this.executor
@@ -106,6 +118,54 @@ public class FastAbortOnContainerDeathWaitStrategy extends AbstractWaitStrategy
 		}
 	}
 	
+	/**
+	 * @return the hub that is used for detecting container deaths or <code>null</code> if polling should be used
+	 */
+	protected ContainerDeathEventHub containerDeathEventHub()
+	{
+		return ContainerDeathEventHub.instance();
+	}
+	
+	@SuppressWarnings("try") // The registration is only held while waiting
+	protected void waitUntilReadyOrDeathEvent(
+		final ContainerDeathEventHub eventHub,
+		final AbortMonitor abortMonitor,
+		final CompletableFuture<Void> cfWaitStrategy)
+	{
+		final CompletableFuture<Void> cfContainerDeath = new CompletableFuture<>();
+		try(final ContainerDeathEventHub.Registration registration = eventHub.register(
+			this.waitStrategyTarget.getContainerId(),
+			ev -> this.abortBecauseContainerIsDead(abortMonitor, cfContainerDeath)))
+		{
+			// The container might have died before the registration was completed
+			if(!this.isContainerAlive())
+			{
+				this.abortBecauseContainerIsDead(abortMonitor, cfContainerDeath);
+			}
+			
+			CompletableFuture.anyOf(cfWaitStrategy, cfContainerDeath).join();
+		}
+		finally
+		{
+			abortMonitor.trigger(new CancellationException("Completed"));
+		}
+	}
+	
+	protected void abortBecauseContainerIsDead(
+		final AbortMonitor abortMonitor,
+		final CompletableFuture<?> cfContainerDeath)
+	{
+		final IllegalStateException abortEx = this.createContainerDeadException();
+		abortMonitor.trigger(abortEx);
+		cfContainerDeath.completeExceptionally(abortEx);
+	}
+	
+	protected IllegalStateException createContainerDeadException()
+	{
+		return new IllegalStateException(
+			"Container " + this.waitStrategyTarget.getContainerId() + " is dead - Aborting");
+	}
+	
 	@SuppressWarnings("java:S5411") // Irrelevant here!
 	protected void runCheckIfContainerIsDead(
 		final AbortMonitor abortMonitor,
@@ -115,8 +175,7 @@ public class FastAbortOnContainerDeathWaitStrategy extends AbstractWaitStrategy
 		{
 			if(!this.rateLimiterWhenReadyExceptionless(this::isContainerAlive))
 			{
-				final IllegalStateException abortEx = new IllegalStateException(
-					"Container " + this.waitStrategyTarget.getContainerId() + " is dead - Aborting");
+				final IllegalStateException abortEx = this.createContainerDeadException();
 				abortMonitor.trigger(abortEx);
 				throw abortEx;
 			}
@@ -18,11 +18,20 @@ package software.xdev.tci.startup.wait.holder;
 import java.util.concurrent.ExecutorService;
 
 import software.xdev.tci.startup.wait.AbortMonitor;
+import software.xdev.tci.tracing.TCITracer;
 
 
+/**
+ * @param tracer the tracer of the starting factory; might be <code>null</code>
+ */
 public record AbortableStrategyValues(
 	AbortMonitor abortMonitor,
-	ExecutorService executor
+	ExecutorService executor,
+	TCITracer tracer
 )
 {
+	public AbortableStrategyValues(final AbortMonitor abortMonitor, final ExecutorService executor)
+	{
+		this(abortMonitor, executor, null);
+	}
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.log;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.output.OutputFrame;
+
+import software.xdev.tci.startup.wait.log.config.SharedLogConfig;
+
+
+/**
+ * A log consumer that is shared by everything that is interested in the log of a container.
+ * <p>
+ * The log stream of the container is only followed once and split into lines (also across frame boundaries).<br/>
+ * The lines are passed to the delegate (e.g. a {@link org.testcontainers.containers.output.Slf4jLogConsumer}) and
+ * to all registered {@link LineListener}s.<br/>
+ * A bounded amount of lines (see {@link SharedLogConfig#maxReplayLines()}) is buffered so that listeners that are
+ * registered later (e.g. wait strategies) also receive lines that were logged before.<br/>
+ * Buffering is stopped once the container was started (see {@link #stopReplayBuffering()}).
+ * </p>
+ */
+public class SharedLogConsumer implements Consumer<OutputFrame>
+{
+	protected final Consumer<OutputFrame> delegate;
+	protected final int maxReplayLines;
+	
+	protected final ReentrantLock lock = new ReentrantLock();
+	protected final Map<OutputFrame.OutputType, ByteArrayOutputStream> partialLines =
+		new EnumMap<>(OutputFrame.OutputType.class);
+	protected final List<LineListener> listeners = new CopyOnWriteArrayList<>();
+	protected ArrayDeque<Line> replayBuffer = new ArrayDeque<>();
+	protected boolean replayBuffering;
+	protected boolean ended;
+	
+	public SharedLogConsumer(final Consumer<OutputFrame> delegate)
+	{
+		this(delegate, SharedLogConfig.instance().maxReplayLines());
+	}
+	
+	public SharedLogConsumer(final Consumer<OutputFrame> delegate, final int maxReplayLines)
+	{
+		this.delegate = delegate;
+		this.maxReplayLines = maxReplayLines;
+		this.replayBuffering = maxReplayLines > 0;
+	}
+	
+	@Override
+	public void accept(final OutputFrame outputFrame)
+	{
+		if(this.delegate != null)
+		{
+			this.delegate.accept(outputFrame);
+		}
+		
+		this.lock.lock();
+		try
+		{
+			if(outputFrame == null || outputFrame.getType() == OutputFrame.OutputType.END)
+			{
+				this.partialLines.forEach((type, partial) -> this.flushPartialLine(type));
+				this.ended = true;
+				this.listeners.forEach(LineListener::onEnd);
+				return;
+			}
+			
+			this.splitIntoLines(outputFrame.getType(), outputFrame.getBytes());
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+	
+	protected void splitIntoLines(final OutputFrame.OutputType type, final byte[] bytes)
+	{
+		if(bytes == null)
+		{
+			return;
+		}
+		
+		final ByteArrayOutputStream partial =
+			this.partialLines.computeIfAbsent(type, ignored -> new ByteArrayOutputStream());
+		int lineStart = 0;
+		for(int i = 0; i < bytes.length; i++)
+		{
+			// A line feed can never be part of a multibyte UTF-8 sequence
+			if(bytes[i] == '\n')
+			{
+				partial.write(bytes, lineStart, i + 1 - lineStart);
+				lineStart = i + 1;
+				this.flushPartialLine(type);
+			}
+		}
+		partial.write(bytes, lineStart, bytes.length - lineStart);
+	}
+	
+	protected void flushPartialLine(final OutputFrame.OutputType type)
+	{
+		final ByteArrayOutputStream partial = this.partialLines.get(type);
+		if(partial == null || partial.size() == 0)
+		{
+			return;
+		}
+		
+		final Line line = new Line(type, partial.toString(StandardCharsets.UTF_8));
+		partial.reset();
+		
+		if(this.replayBuffering)
+		{
+			if(this.replayBuffer.size() >= this.maxReplayLines)
+			{
+				this.replayBuffer.removeFirst();
+			}
+			this.replayBuffer.addLast(line);
+		}
+		this.listeners.forEach(l -> l.onLine(line));
+	}
+	
+	/**
+	 * Registers a listener.
+	 * <p>
+	 * The buffered lines are replayed to the listener before it receives new lines.
+	 * </p>
+	 *
+	 * @return the registration which must be closed when the listener is no longer required
+	 */
+	public Registration register(final LineListener listener)
+	{
+		this.lock.lock();
+		try
+		{
+			this.replayBuffer.forEach(listener::onLine);
+			if(this.ended)
+			{
+				listener.onEnd();
+			}
+			this.listeners.add(listener);
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+		return () -> this.listeners.remove(listener);
+	}
+	
+	/**
+	 * Stops buffering lines for replay and releases the buffered ones.
+	 * <p>
+	 * Should be called once no more listeners that require a replay are registered, e.g. after the container was
+	 * started and all wait strategies completed.
+	 * </p>
+	 */
+	public void stopReplayBuffering()
+	{
+		this.lock.lock();
+		try
+		{
+			this.replayBuffering = false;
+			// Don't just clear as this keeps the (possibly large) backing array
+			this.replayBuffer = new ArrayDeque<>(0);
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Finds the {@link SharedLogConsumer} that is attached to the container (if present).
+	 */
+	public static Optional<SharedLogConsumer> find(final Object container)
+	{
+		if(!(container instanceof final GenericContainer<?> c) || c.getLogConsumers() == null)
+		{
+			return Optional.empty();
+		}
+		return c.getLogConsumers()
+			.stream()
+			.filter(SharedLogConsumer.class::isInstance)
+			.map(SharedLogConsumer.class::cast)
+			.findFirst();
+	}
+	
+	/**
+	 * A line of the log. The line terminator is included if present.
+	 */
+	public record Line(OutputFrame.OutputType type, String text)
+	{
+	}
+	
+	
+	@FunctionalInterface
+	public interface LineListener
+	{
+		void onLine(Line line);
+		
+		default void onEnd()
+		{
+			// NOOP
+		}
+	}
+	
+	
+	@FunctionalInterface
+	public interface Registration extends AutoCloseable
+	{
+		@Override
+		void close();
+	}
+}
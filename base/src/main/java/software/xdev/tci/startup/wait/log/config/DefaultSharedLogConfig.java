@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.log.config;
+
+import software.xdev.tci.config.DefaultConfig;
+
+
+/**
+ * Default implementation of {@link SharedLogConfig} using {@link System#getProperties() System Properties}.
+ */
+public class DefaultSharedLogConfig extends DefaultConfig implements SharedLogConfig
+{
+	protected final int maxReplayLines;
+	
+	public DefaultSharedLogConfig()
+	{
+		this.maxReplayLines = Math.max(0, this.resolveInt("max-replay-lines", DEFAULT_MAX_REPLAY_LINES));
+	}
+	
+	@Override
+	protected String propertyNamePrefix()
+	{
+		return "tci.shared-log";
+	}
+	
+	@Override
+	public int maxReplayLines()
+	{
+		return this.maxReplayLines;
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.log.config;
+
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+
+
+public interface SharedLogConfig
+{
+	int DEFAULT_MAX_REPLAY_LINES = 1_000;
+	
+	/**
+	 * Maximum amount of lines that are buffered (per container) for listeners that are registered later (e.g. wait
+	 * strategies).
+	 * <p>
+	 * The buffer is only kept until the container was started.
+	 * </p>
+	 */
+	default int maxReplayLines()
+	{
+		return DEFAULT_MAX_REPLAY_LINES;
+	}
+	
+	static SharedLogConfig instance()
+	{
+		return TCIServiceLoaderHolder.instance().service(SharedLogConfig.class);
+	}
+}
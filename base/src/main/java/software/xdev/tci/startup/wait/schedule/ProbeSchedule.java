@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.schedule;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import software.xdev.tci.startup.wait.AbortMonitor;
+import software.xdev.tci.startup.wait.schedule.config.ProbeScheduleConfig;
+
+
+/**
+ * Schedule for the readiness probes of a wait strategy.
+ * <p>
+ * If enough times until ready were previously recorded, the first probe is delayed until shortly before the
+ * expected ready time. After that probes are executed densely with a jittered exponential backoff.
+ * </p>
+ * <p>
+ * If nothing is known the schedule is {@link #isLearned() not learned} and the strategy should use its default
+ * polling.
+ * </p>
+ */
+public class ProbeSchedule
+{
+	protected static final double BACKOFF_MULTIPLIER = 1.5;
+	protected static final double JITTER = 0.2;
+	protected static final long SLEEP_CHUNK_MS = 100;
+	
+	protected final ProbeScheduleHistory history;
+	protected final String key;
+	protected final long initialDelayMs;
+	protected final long minIntervalMs;
+	protected final long maxIntervalMs;
+	protected final long startNanos = System.nanoTime();
+	
+	protected long currentIntervalMs;
+	
+	public ProbeSchedule(
+		final ProbeScheduleHistory history,
+		final String key,
+		final long initialDelayMs,
+		final long minIntervalMs,
+		final long maxIntervalMs)
+	{
+		this.history = history;
+		this.key = key;
+		this.initialDelayMs = initialDelayMs;
+		this.minIntervalMs = minIntervalMs;
+		this.maxIntervalMs = maxIntervalMs;
+		this.currentIntervalMs = minIntervalMs;
+	}
+	
+	/**
+	 * Creates a schedule using the recorded times or a not learned schedule if the feature is disabled.
+	 *
+	 * @param key               identifies what is waited for, e.g. image and strategy
+	 * @param maxInitialDelayMs upper bound for the initial delay, e.g. derived from the startup timeout
+	 */
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public static ProbeSchedule create(final String key, final long maxInitialDelayMs)
+	{
+		final ProbeScheduleConfig config = ProbeScheduleConfig.instance();
+		if(!config.enabled() || key == null)
+		{
+			return new ProbeSchedule(null, key, -1, config.minIntervalMs(), config.maxIntervalMs());
+		}
+		
+		final ProbeScheduleHistory history = ProbeScheduleHistory.instance();
+		final List<Long> samples = history.samples(key);
+		final long initialDelayMs = samples.size() >= config.minSamples()
+			? Math.min(
+			samples.stream().mapToLong(Long::longValue).min().orElse(0) * (100 - config.leadPercent()) / 100,
+			maxInitialDelayMs)
+			: -1;
+		return new ProbeSchedule(history, key, initialDelayMs, config.minIntervalMs(), config.maxIntervalMs());
+	}
+	
+	/**
+	 * @return <code>true</code> if the schedule is based on recorded times
+	 */
+	public boolean isLearned()
+	{
+		return this.initialDelayMs >= 0;
+	}
+	
+	public long initialDelayMs()
+	{
+		return Math.max(0, this.initialDelayMs);
+	}
+	
+	/**
+	 * @return the jittered delay until the next probe; grows with each call
+	 */
+	public synchronized long nextIntervalMs()
+	{
+		final long interval = this.currentIntervalMs;
+		this.currentIntervalMs = Math.min((long)Math.ceil(interval * BACKOFF_MULTIPLIER), this.maxIntervalMs);
+		
+		final double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+		return Math.max(1, Math.round(interval * jitter));
+	}
+	
+	/**
+	 * Sleeps for the initial delay.
+	 *
+	 * @return <code>false</code> if aborted or interrupted
+	 */
+	public boolean sleepInitialDelay(final AbortMonitor abortMonitor)
+	{
+		return sleep(this.initialDelayMs(), abortMonitor);
+	}
+	
+	/**
+	 * Sleeps until the next probe.
+	 *
+	 * @return <code>false</code> if aborted or interrupted
+	 */
+	public boolean sleepUntilNextProbe(final AbortMonitor abortMonitor)
+	{
+		return sleep(this.nextIntervalMs(), abortMonitor);
+	}
+	
+	/**
+	 * Records the time since the creation of this schedule as time until ready.
+	 */
+	public void markReady()
+	{
+		if(this.history != null)
+		{
+			this.history.record(this.key, (System.nanoTime() - this.startNanos) / 1_000_000);
+		}
+	}
+	
+	protected static boolean sleep(final long ms, final AbortMonitor abortMonitor)
+	{
+		final long deadline = System.currentTimeMillis() + ms;
+		long remaining = ms;
+		while(remaining > 0)
+		{
+			if(abortMonitor != null && abortMonitor.shouldAbort())
+			{
+				return false;
+			}
+			try
+			{
+				Thread.sleep(Math.min(remaining, SLEEP_CHUNK_MS));
+			}
+			catch(final InterruptedException iex)
+			{
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			remaining = deadline - System.currentTimeMillis();
+		}
+		return abortMonitor == null || !abortMonitor.shouldAbort();
+	}
+}
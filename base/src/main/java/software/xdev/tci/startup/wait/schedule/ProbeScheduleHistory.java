@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.schedule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.startup.wait.schedule.config.ProbeScheduleConfig;
+
+
+/**
+ * Records the time until a container is ready - per image and wait strategy - and persists it.
+ * <p>
+ * The recorded times are written when the JVM shuts down.
+ * </p>
+ */
+public class ProbeScheduleHistory
+{
+	private static final Logger LOG = LoggerFactory.getLogger(ProbeScheduleHistory.class);
+	
+	private static ProbeScheduleHistory instance;
+	
+	public static ProbeScheduleHistory instance()
+	{
+		if(instance == null)
+		{
+			init();
+		}
+		return instance;
+	}
+	
+	private static synchronized void init()
+	{
+		if(instance != null)
+		{
+			return;
+		}
+		instance = new ProbeScheduleHistory(
+			Path.of(ProbeScheduleConfig.instance().historyFile()),
+			ProbeScheduleConfig.instance().maxSamples());
+		instance.read();
+	}
+	
+	public static void setInstance(final ProbeScheduleHistory instance)
+	{
+		ProbeScheduleHistory.instance = instance;
+	}
+	
+	protected final Path file;
+	protected final int maxSamples;
+	protected final Map<String, Deque<Long>> samples = new TreeMap<>();
+	protected final AtomicBoolean shutdownHookRegistered = new AtomicBoolean();
+	
+	public ProbeScheduleHistory(final Path file, final int maxSamples)
+	{
+		this.file = file;
+		this.maxSamples = maxSamples;
+	}
+	
+	public synchronized void record(final String key, final long timeToReadyMs)
+	{
+		final Deque<Long> keySamples = this.samples.computeIfAbsent(key, k -> new ArrayDeque<>());
+		keySamples.addLast(timeToReadyMs);
+		while(keySamples.size() > this.maxSamples)
+		{
+			keySamples.removeFirst();
+		}
+		
+		if(this.file != null && this.shutdownHookRegistered.compareAndSet(false, true))
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(this::write, "TCI-ProbeScheduleHistory-Write"));
+		}
+	}
+	
+	public synchronized List<Long> samples(final String key)
+	{
+		final Deque<Long> keySamples = this.samples.get(key);
+		return keySamples != null ? List.copyOf(keySamples) : List.of();
+	}
+	
+	protected synchronized void read()
+	{
+		if(this.file == null || !Files.exists(this.file))
+		{
+			return;
+		}
+		
+		try(final Stream<String> lines = Files.lines(this.file, StandardCharsets.UTF_8))
+		{
+			lines.filter(line -> !line.isBlank() && !line.startsWith("#"))
+				.map(line -> line.split("=", 2))
+				.filter(parts -> parts.length == 2)
+				.forEach(parts -> {
+					for(final String value : parts[1].split(","))
+					{
+						try
+						{
+							this.samples.computeIfAbsent(parts[0].trim(), k -> new ArrayDeque<>())
+								.addLast(Long.parseLong(value.trim()));
+						}
+						catch(final NumberFormatException ignored)
+						{
+							// Skip invalid value
+						}
+					}
+				});
+		}
+		catch(final IOException | RuntimeException ex)
+		{
+			LOG.warn("Failed to read probe schedule history from {}", this.file, ex);
+		}
+	}
+	
+	protected synchronized void write()
+	{
+		final List<String> lines = new ArrayList<>();
+		lines.add("# Recorded time until ready (ms) per image and wait strategy - used for scheduling probes");
+		this.samples.forEach((key, values) -> lines.add(key + "=" + values.stream()
+			.map(String::valueOf)
+			.collect(Collectors.joining(","))));
+		
+		try
+		{
+			final Path parent = this.file.toAbsolutePath().getParent();
+			if(parent != null)
+			{
+				Files.createDirectories(parent);
+			}
+			// Write atomically as multiple JVMs might use the same file
+			final Path tempFile = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+			Files.write(tempFile, lines, StandardCharsets.UTF_8);
+			Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(final IOException | RuntimeException ex)
+		{
+			LOG.warn("Failed to write probe schedule history into {}", this.file, ex);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.schedule.config;
+
+import software.xdev.tci.config.DefaultConfig;
+
+
+/**
+ * Default implementation of {@link ProbeScheduleConfig} using {@link System#getProperties() System Properties}.
+ */
+public class DefaultProbeScheduleConfig extends DefaultConfig implements ProbeScheduleConfig
+{
+	protected final boolean enabled;
+	protected final String historyFile;
+	protected final int minSamples;
+	protected final int maxSamples;
+	protected final int leadPercent;
+	protected final long minIntervalMs;
+	protected final long maxIntervalMs;
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public DefaultProbeScheduleConfig()
+	{
+		this.enabled = this.resolveBool("enabled", DEFAULT_ENABLED);
+		this.historyFile = this.resolve("history-file").orElse(DEFAULT_HISTORY_FILE);
+		this.minSamples = Math.max(1, this.resolveInt("min-samples", DEFAULT_MIN_SAMPLES));
+		this.maxSamples = Math.max(this.minSamples, this.resolveInt("max-samples", DEFAULT_MAX_SAMPLES));
+		this.leadPercent = Math.min(Math.max(0, this.resolveInt("lead-percent", DEFAULT_LEAD_PERCENT)), 100);
+		this.minIntervalMs = Math.max(1, this.resolveLong("min-interval-ms", () -> DEFAULT_MIN_INTERVAL_MS));
+		this.maxIntervalMs = Math.max(
+			this.minIntervalMs,
+			this.resolveLong("max-interval-ms", () -> DEFAULT_MAX_INTERVAL_MS));
+	}
+	
+	@Override
+	protected String propertyNamePrefix()
+	{
+		return "tci.probe-schedule";
+	}
+	
+	@Override
+	public boolean enabled()
+	{
+		return this.enabled;
+	}
+	
+	@Override
+	public String historyFile()
+	{
+		return this.historyFile;
+	}
+	
+	@Override
+	public int minSamples()
+	{
+		return this.minSamples;
+	}
+	
+	@Override
+	public int maxSamples()
+	{
+		return this.maxSamples;
+	}
+	
+	@Override
+	public int leadPercent()
+	{
+		return this.leadPercent;
+	}
+	
+	@Override
+	public long minIntervalMs()
+	{
+		return this.minIntervalMs;
+	}
+	
+	@Override
+	public long maxIntervalMs()
+	{
+		return this.maxIntervalMs;
+	}
+}
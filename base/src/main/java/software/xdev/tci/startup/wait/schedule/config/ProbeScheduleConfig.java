@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.schedule.config;
+
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+
+
+public interface ProbeScheduleConfig
+{
+	boolean DEFAULT_ENABLED = false;
+	String DEFAULT_HISTORY_FILE = "target/tci-probe-schedule.properties";
+	int DEFAULT_MIN_SAMPLES = 3;
+	int DEFAULT_MAX_SAMPLES = 10;
+	int DEFAULT_LEAD_PERCENT = 20;
+	long DEFAULT_MIN_INTERVAL_MS = 10;
+	long DEFAULT_MAX_INTERVAL_MS = 500;
+	
+	/**
+	 * Should the time until a container is ready be recorded and used to schedule readiness probes?
+	 */
+	default boolean enabled()
+	{
+		return DEFAULT_ENABLED;
+	}
+	
+	/**
+	 * File in which the recorded times are persisted
+	 */
+	default String historyFile()
+	{
+		return DEFAULT_HISTORY_FILE;
+	}
+	
+	/**
+	 * Minimum amount of recorded times before they are used
+	 */
+	default int minSamples()
+	{
+		return DEFAULT_MIN_SAMPLES;
+	}
+	
+	/**
+	 * Maximum amount of recorded times (per image and strategy); older ones are discarded
+	 */
+	default int maxSamples()
+	{
+		return DEFAULT_MAX_SAMPLES;
+	}
+	
+	/**
+	 * How many percent before the fastest recorded time the first probe is executed
+	 */
+	default int leadPercent()
+	{
+		return DEFAULT_LEAD_PERCENT;
+	}
+	
+	/**
+	 * Interval between the first probes
+	 */
+	default long minIntervalMs()
+	{
+		return DEFAULT_MIN_INTERVAL_MS;
+	}
+	
+	/**
+	 * Maximum interval between probes (reached by backing off)
+	 */
+	default long maxIntervalMs()
+	{
+		return DEFAULT_MAX_INTERVAL_MS;
+	}
+	
+	static ProbeScheduleConfig instance()
+	{
+		return TCIServiceLoaderHolder.instance().service(ProbeScheduleConfig.class);
+	}
+}
@@ -15,15 +15,22 @@
  */
 package software.xdev.tci.startup.wait.strategy;
 
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.rnorth.ducttape.unreliables.Unreliables;
 import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
 
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.ContainerConfig;
+
 import software.xdev.tci.startup.wait.AbortMonitor;
 import software.xdev.tci.startup.wait.holder.AbortableStrategyValuesHolder;
+import software.xdev.tci.startup.wait.schedule.ProbeSchedule;
+import software.xdev.tci.tracing.jfr.WaitStrategyEvent;
 
 
 public abstract class AbstractWaitAbortableStrategy<S extends AbstractWaitAbortableStrategy<S>>
@@ -42,19 +49,78 @@ public abstract class AbstractWaitAbortableStrategy<S extends AbstractWaitAborta
 		final AbortMonitor abortMonitor,
 		final Runnable runnable)
 	{
-		this.startupRetryUntilSuccess(() -> {
-			if(!abortMonitor.shouldAbort())
-			{
-				this.getRateLimiter().doWhenReady(runnable);
-			}
-			return true;
-		});
+		final ProbeSchedule probeSchedule = this.createProbeSchedule();
+		if(!probeSchedule.isLearned())
+		{
+			this.startupRetryUntilSuccess(() -> {
+				if(!abortMonitor.shouldAbort())
+				{
+					this.getRateLimiter().doWhenReady(runnable);
+				}
+				return true;
+			});
+		}
+		else
+		{
+			final AtomicBoolean firstProbe = new AtomicBoolean(true);
+			this.startupRetryUntilSuccess(() -> {
+				final boolean shouldProbe = firstProbe.getAndSet(false)
+					? probeSchedule.sleepInitialDelay(abortMonitor)
+					: probeSchedule.sleepUntilNextProbe(abortMonitor);
+				if(shouldProbe)
+				{
+					this.getRateLimiter().doWhenReady(runnable);
+				}
+				return true;
+			});
+		}
+		
+		if(!abortMonitor.shouldAbort())
+		{
+			probeSchedule.markReady();
+		}
+	}
+	
+	/**
+	 * Creates the schedule for the readiness probes based on the previously recorded times until ready.
+	 */
+	protected ProbeSchedule createProbeSchedule()
+	{
+		return ProbeSchedule.create(this.probeScheduleKey(), this.startupTimeout.toMillis() / 2);
+	}
+	
+	/**
+	 * @return the key under which the times until ready are recorded or <code>null</code> if they should not be
+	 * recorded
+	 */
+	protected String probeScheduleKey()
+	{
+		return Optional.ofNullable(this.waitStrategyTarget.getContainerInfo())
+			.map(InspectContainerResponse::getConfig)
+			.map(ContainerConfig::getImage)
+			.map(image -> image + "@" + this.getClass().getName())
+			.orElse(null);
 	}
 	
 	@Override
 	protected void waitUntilReady()
 	{
-		this.waitUntilReady(AbortableStrategyValuesHolder.get().abortMonitor());
+		final WaitStrategyEvent event = new WaitStrategyEvent();
+		event.begin();
+		boolean success = false;
+		try
+		{
+			this.waitUntilReady(AbortableStrategyValuesHolder.get().abortMonitor());
+			success = true;
+		}
+		finally
+		{
+			event.complete(
+				null,
+				() -> this.waitStrategyTarget.getContainerId(),
+				success,
+				() -> event.strategy = this.getClass().getSimpleName());
+		}
 	}
 	
 	protected void waitUntilReady(final AbortMonitor abortMonitor)
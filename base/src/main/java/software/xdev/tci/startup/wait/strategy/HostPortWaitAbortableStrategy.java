@@ -33,8 +33,10 @@ import org.testcontainers.containers.ContainerLaunchException;
 import org.testcontainers.containers.wait.internal.ExternalPortListeningCheck;
 import org.testcontainers.containers.wait.internal.InternalCommandPortListeningCheck;
 import org.testcontainers.shaded.org.awaitility.Awaitility;
+import org.testcontainers.shaded.org.awaitility.pollinterval.FixedPollInterval;
 
 import software.xdev.tci.startup.wait.AbortMonitor;
+import software.xdev.tci.startup.wait.schedule.ProbeSchedule;
 
 
 /**
@@ -70,6 +72,7 @@ public class HostPortWaitAbortableStrategy extends AbstractWaitAbortableStrategy
 		
 		final Callable<Boolean> internalCheck = this.createInternalCheck(internalPorts);
 		final Callable<Boolean> externalCheck = this.createExternalCheck(externalLivenessCheckPorts);
+		final ProbeSchedule probeSchedule = this.createProbeSchedule();
 		
 		try
 		{
@@ -92,8 +95,10 @@ public class HostPortWaitAbortableStrategy extends AbstractWaitAbortableStrategy
 						final long startMs = System.currentTimeMillis();
 						Awaitility.await()
 							.pollInSameThread()
-							.pollInterval(Duration.ofMillis(100))
-							.pollDelay(Duration.ZERO)
+							.pollInterval(probeSchedule.isLearned()
+								? (pollCount, previous) -> Duration.ofMillis(probeSchedule.nextIntervalMs())
+								: new FixedPollInterval(Duration.ofMillis(100)))
+							.pollDelay(Duration.ofMillis(probeSchedule.initialDelayMs()))
 							.failFast(
 								"container is no longer running",
 								() -> !this.waitStrategyTarget.isRunning() || abortMonitor.shouldAbort())
@@ -118,6 +123,8 @@ public class HostPortWaitAbortableStrategy extends AbstractWaitAbortableStrategy
 			{
 				future.get(0, TimeUnit.SECONDS);
 			}
+			
+			probeSchedule.markReady();
 		}
 		catch(final InterruptedException iex)
 		{
@@ -15,32 +15,24 @@
  */
 package software.xdev.tci.startup.wait.strategy;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
-import java.net.Socket;
 import java.net.URI;
-import java.net.URL;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
-
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.KeyManager;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLEngine;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509ExtendedTrustManager;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.rnorth.ducttape.TimeoutException;
 import org.slf4j.Logger;
@@ -48,11 +40,17 @@ import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.ContainerLaunchException;
 import org.testcontainers.shaded.com.google.common.io.BaseEncoding;
 
+import com.github.dockerjava.api.model.ContainerNetwork;
+import com.github.dockerjava.api.model.NetworkSettings;
+
 import software.xdev.tci.startup.wait.AbortMonitor;
 
 
 /**
  * Based on {@link org.testcontainers.containers.wait.strategy.HttpWaitStrategy}
+ * <p>
+ * Uses a shared, connection-reusing {@link HttpClient} (see {@link HttpWaitClients}) by default.
+ * </p>
  */
 @SuppressWarnings("PMD.GodClass")
 public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<HttpWaitAbortableStrategy>
@@ -93,6 +91,10 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 	
 	protected boolean allowInsecure;
 	
+	protected HttpClient httpClient;
+	
+	protected ProbeTarget probeTarget = ProbeTarget.MAPPED_PORT;
+	
 	// region Configure
 	
 	/**
@@ -195,15 +197,21 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 	
 	/**
 	 * Add a custom HTTP Header to the call.
+	 * <p>
+	 * Note that headers which are restricted by the {@link HttpClient} (e.g. <code>Host</code>,
+	 * <code>Connection</code> or <code>Content-Length</code>) can't be set.
+	 * </p>
 	 *
 	 * @param name  The HTTP Header name
 	 * @param value The HTTP Header value
 	 * @return this
+	 * @throws IllegalArgumentException if the header is restricted or invalid
 	 */
 	public HttpWaitAbortableStrategy withHeader(
 		final String name,
 		final String value)
 	{
+		validateHeader(name, value);
 		this.headers.put(name, value);
 		return this.self();
 	}
@@ -213,13 +221,34 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 	 *
 	 * @param headers Headers map of name/value
 	 * @return this
+	 * @throws IllegalArgumentException if a header is restricted or invalid
+	 * @see #withHeader(String, String)
 	 */
 	public HttpWaitAbortableStrategy withHeaders(final Map<String, String> headers)
 	{
+		headers.forEach(HttpWaitAbortableStrategy::validateHeader);
 		this.headers.putAll(headers);
 		return this.self();
 	}
 	
+	/**
+	 * Validates the header once during configuration - otherwise it would fail on every probe until the startup
+	 * timeout is reached.
+	 */
+	protected static void validateHeader(final String name, final String value)
+	{
+		try
+		{
+			HttpRequest.newBuilder().header(name, value);
+		}
+		catch(final IllegalArgumentException iae)
+		{
+			throw new IllegalArgumentException(
+				"Header '" + name + "' can't be used for waiting: " + iae.getMessage(),
+				iae);
+		}
+	}
+	
 	/**
 	 * Set the HTTP connections read timeout.
 	 *
@@ -236,6 +265,31 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		return this.self();
 	}
 	
+	/**
+	 * Use the given client instead of the shared one.
+	 *
+	 * @param httpClient the client
+	 * @return this
+	 */
+	public HttpWaitAbortableStrategy withHttpClient(final HttpClient httpClient)
+	{
+		this.httpClient = httpClient;
+		return this.self();
+	}
+	
+	/**
+	 * Where the container should be probed.
+	 *
+	 * @param probeTarget the target
+	 * @return this
+	 * @see ProbeTarget
+	 */
+	public HttpWaitAbortableStrategy withProbeTarget(final ProbeTarget probeTarget)
+	{
+		this.probeTarget = Objects.requireNonNull(probeTarget);
+		return this.self();
+	}
+	
 	/**
 	 * Waits for the response to pass the given predicate
 	 *
@@ -255,17 +309,14 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 	{
 		final String containerName = this.waitStrategyTarget.getContainerInfo().getName();
 		
-		final Integer livenessCheckPort = this.livenessPort
-			.map(this.waitStrategyTarget::getMappedPort)
-			.orElseGet(() -> {
-				final Set<Integer> livenessCheckPorts = this.getLivenessCheckPorts();
-				if(livenessCheckPorts == null || livenessCheckPorts.isEmpty())
-				{
-					LOG.warn("{}: No exposed ports or mapped ports - cannot wait for status", containerName);
+		final Integer livenessCheckPort = this.probeTarget == ProbeTarget.MAPPED_PORT
+			? this.determineMappedLivenessCheckPort(containerName)
+			: this.livenessPort
+				.or(() -> this.waitStrategyTarget.getExposedPorts().stream().findFirst())
+				.orElseGet(() -> {
+					LOG.warn("{}: No exposed ports - cannot wait for status", containerName);
 					return -1;
-				}
-				return livenessCheckPorts.iterator().next();
-			});
+				});
 		
 		abortMonitor.throwIfRequired();
 		
@@ -273,31 +324,20 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		{
 			return;
 		}
-		final URI rawUri = this.buildLivenessUri(livenessCheckPort);
+		final URI rawUri = this.buildLivenessUri(this.determineProbeHost(), livenessCheckPort);
 		final String uri = rawUri.toString();
 		
-		try
+		if(this.probeTarget == ProbeTarget.MAPPED_PORT)
+		{
+			this.logWaitingForMappedPort(containerName, rawUri);
+		}
+		else
 		{
-			// Un-map the port for logging
-			final int originalPort = this.waitStrategyTarget
-				.getExposedPorts()
-				.stream()
-				.filter(exposedPort -> rawUri.getPort() == this.waitStrategyTarget.getMappedPort(exposedPort))
-				.findFirst()
-				.orElseThrow(() -> new IllegalStateException("Target port " + rawUri.getPort() + " is not exposed"));
 			LOG.info(
-				"{}: Waiting for {} seconds for URL: {} (where port {} maps to container port {})",
+				"{}: Waiting for {} seconds for URL: {}",
 				containerName,
 				this.startupTimeout.getSeconds(),
-				uri,
-				rawUri.getPort(),
-				originalPort
-			);
-		}
-		catch(final RuntimeException e)
-		{
-			// do not allow a failure in logging to prevent progress, but log for diagnosis
-			LOG.warn("Unexpected error occurred - will proceed to try to wait anyway", e);
+				uri);
 		}
 		
 		abortMonitor.throwIfRequired();
@@ -323,39 +363,85 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		}
 	}
 	
+	protected Integer determineMappedLivenessCheckPort(final String containerName)
+	{
+		return this.livenessPort
+			.map(this.waitStrategyTarget::getMappedPort)
+			.orElseGet(() -> {
+				final Set<Integer> livenessCheckPorts = this.getLivenessCheckPorts();
+				if(livenessCheckPorts == null || livenessCheckPorts.isEmpty())
+				{
+					LOG.warn("{}: No exposed ports or mapped ports - cannot wait for status", containerName);
+					return -1;
+				}
+				return livenessCheckPorts.iterator().next();
+			});
+	}
+	
+	protected void logWaitingForMappedPort(final String containerName, final URI rawUri)
+	{
+		try
+		{
+			// Un-map the port for logging
+			final int originalPort = this.waitStrategyTarget
+				.getExposedPorts()
+				.stream()
+				.filter(exposedPort -> rawUri.getPort() == this.waitStrategyTarget.getMappedPort(exposedPort))
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException("Target port " + rawUri.getPort() + " is not exposed"));
+			LOG.info(
+				"{}: Waiting for {} seconds for URL: {} (where port {} maps to container port {})",
+				containerName,
+				this.startupTimeout.getSeconds(),
+				rawUri,
+				rawUri.getPort(),
+				originalPort
+			);
+		}
+		catch(final RuntimeException e)
+		{
+			// do not allow a failure in logging to prevent progress, but log for diagnosis
+			LOG.warn("Unexpected error occurred - will proceed to try to wait anyway", e);
+		}
+	}
+	
 	protected void connectAndCheck(final String uri)
 	{
+		final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(uri))
+			.timeout(this.readTimeout)
+			.method(this.method, HttpRequest.BodyPublishers.noBody());
+		
+		// authenticate
+		if(this.username != null && !this.username.isEmpty())
+		{
+			requestBuilder.header(HEADER_AUTHORIZATION, this.buildAuthString(this.username, this.password));
+		}
+		
+		// Add user configured headers
+		this.headers.forEach(requestBuilder::header);
+		
 		try
 		{
-			final HttpURLConnection connection = this.openConnection(uri);
-			connection.setReadTimeout(Math.toIntExact(this.readTimeout.toMillis()));
-			
-			// authenticate
-			if(this.username != null && !this.username.isEmpty())
-			{
-				connection.setRequestProperty(
-					HEADER_AUTHORIZATION,
-					this.buildAuthString(this.username, this.password)
-				);
-				connection.setUseCaches(false);
-			}
-			
-			// Add user configured headers
-			this.headers.forEach(connection::setRequestProperty);
-			connection.setRequestMethod(this.method);
-			connection.connect();
+			final HttpResponse<String> response = this.httpClient().send(
+				requestBuilder.build(),
+				this.responsePredicate != null
+					? HttpResponse.BodyHandlers.ofString()
+					: HttpResponse.BodyHandlers.replacing(null));
 			
-			LOG.trace("Get response code {}", connection.getResponseCode());
+			LOG.trace("Get response code {}", response.statusCode());
 			
 			// Choose the statusCodePredicate strategy depending on what we defined.
-			if(!this.determineStatusCodePredicate().test(connection.getResponseCode()))
+			if(!this.determineStatusCodePredicate().test(response.statusCode()))
 			{
-				throw new IllegalStateException("HTTP response code was: " + connection.getResponseCode());
+				throw new IllegalStateException("HTTP response code was: " + response.statusCode());
 			}
 			
 			if(this.responsePredicate != null)
 			{
-				final String responseBody = this.getResponseBody(connection);
+				// Line terminators are removed (same behavior as HttpWaitStrategy)
+				final String responseBody = Optional.ofNullable(response.body())
+					.map(body -> body.lines().collect(Collectors.joining()))
+					.orElse("");
 				
 				LOG.trace("Got response {}", responseBody);
 				
@@ -369,6 +455,20 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		{
 			throw new UncheckedIOException(e);
 		}
+		catch(final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Got interrupted", e);
+		}
+	}
+	
+	protected HttpClient httpClient()
+	{
+		if(this.httpClient != null)
+		{
+			return this.httpClient;
+		}
+		return this.tlsEnabled && this.allowInsecure ? HttpWaitClients.insecure() : HttpWaitClients.secure();
 	}
 	
 	private Predicate<Integer> determineStatusCodePredicate()
@@ -393,98 +493,28 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		return this.statusCodePredicate.or(this.statusCodes::contains);
 	}
 	
-	protected HttpURLConnection openConnection(final String uri) throws IOException
+	/**
+	 * Build the URI on which to check if the container is ready.
+	 *
+	 * @param livenessCheckPort the liveness port
+	 * @return the liveness URI
+	 */
+	protected URI buildLivenessUri(final int livenessCheckPort)
 	{
-		if(!this.tlsEnabled)
-		{
-			return (HttpURLConnection)new URL(uri).openConnection();
-		}
-		
-		final HttpsURLConnection connection = (HttpsURLConnection)new URL(uri).openConnection();
-		if(this.allowInsecure)
-		{
-			// Create a trust manager that does not validate certificate chains
-			// and trust all certificates
-			final TrustManager[] trustAllCerts = new TrustManager[]{
-				new X509ExtendedTrustManager()
-				{
-					@Override
-					public X509Certificate[] getAcceptedIssuers()
-					{
-						return new X509Certificate[0];
-					}
-					
-					@Override
-					public void checkClientTrusted(final X509Certificate[] certs, final String authType)
-					{
-					}
-					
-					@Override
-					public void checkServerTrusted(final X509Certificate[] certs, final String authType)
-					{
-					}
-					
-					@Override
-					public void checkClientTrusted(
-						final X509Certificate[] chain,
-						final String authType,
-						final Socket socket)
-					{
-					}
-					
-					@Override
-					public void checkServerTrusted(
-						final X509Certificate[] chain,
-						final String authType,
-						final Socket socket)
-					{
-					}
-					
-					@Override
-					public void checkClientTrusted(
-						final X509Certificate[] chain,
-						final String authType,
-						final SSLEngine engine)
-					{
-					}
-					
-					@Override
-					public void checkServerTrusted(
-						final X509Certificate[] chain,
-						final String authType,
-						final SSLEngine engine)
-					{
-					}
-				},
-			};
-			
-			try
-			{
-				// Create custom SSL context and set the "trust all certificates" trust manager
-				final SSLContext sc = SSLContext.getInstance("SSL");
-				sc.init(new KeyManager[0], trustAllCerts, new SecureRandom());
-				connection.setSSLSocketFactory(sc.getSocketFactory());
-			}
-			catch(final NoSuchAlgorithmException | KeyManagementException ex)
-			{
-				throw new IOException("Unable to create custom SSL factory instance", ex);
-			}
-		}
-		
-		return connection;
+		return this.buildLivenessUri(this.waitStrategyTarget.getHost(), livenessCheckPort);
 	}
 	
 	/**
 	 * Build the URI on which to check if the container is ready.
 	 *
+	 * @param host              the host
 	 * @param livenessCheckPort the liveness port
 	 * @return the liveness URI
 	 */
 	@SuppressWarnings("checkstyle:MagicNumber")
-	protected URI buildLivenessUri(final int livenessCheckPort)
+	protected URI buildLivenessUri(final String host, final int livenessCheckPort)
 	{
 		final String scheme = (this.tlsEnabled ? "https" : "http") + "://";
-		final String host = this.waitStrategyTarget.getHost();
 		
 		final String portSuffix =
 			this.tlsEnabled && livenessCheckPort == 443
@@ -495,6 +525,35 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		return URI.create(scheme + host + portSuffix + this.path);
 	}
 	
+	/**
+	 * @return the host that is used for probing depending on the {@link ProbeTarget}
+	 */
+	protected String determineProbeHost()
+	{
+		if(this.probeTarget == ProbeTarget.MAPPED_PORT)
+		{
+			return this.waitStrategyTarget.getHost();
+		}
+		
+		final Collection<ContainerNetwork> networks = Optional.ofNullable(
+				this.waitStrategyTarget.getContainerInfo().getNetworkSettings())
+			.map(NetworkSettings::getNetworks)
+			.map(Map::values)
+			.orElseGet(Set::of);
+		final Stream<String> candidates = this.probeTarget == ProbeTarget.NETWORK_ALIAS
+			? networks.stream()
+				.map(ContainerNetwork::getAliases)
+				.filter(Objects::nonNull)
+				.flatMap(Collection::stream)
+			: networks.stream()
+				.map(ContainerNetwork::getIpAddress);
+		return candidates
+			.filter(h -> h != null && !h.isBlank())
+			.findFirst()
+			.orElseThrow(() -> new IllegalStateException(
+				"Unable to determine host for probe target " + this.probeTarget));
+	}
+	
 	/**
 	 * @param username the username
 	 * @param password the password
@@ -505,20 +564,28 @@ public class HttpWaitAbortableStrategy extends AbstractWaitAbortableStrategy<Htt
 		return AUTH_BASIC + BaseEncoding.base64().encode((username + ":" + password).getBytes());
 	}
 	
-	@SuppressWarnings({"PMD.AvoidStringBuilderOrBuffer", "checkstyle:MagicNumber"})
-	protected String getResponseBody(final HttpURLConnection connection) throws IOException
+	/**
+	 * Where the container is probed
+	 */
+	public enum ProbeTarget
 	{
-		final BufferedReader reader = new BufferedReader(new InputStreamReader(
-			connection.getResponseCode() >= 200 && connection.getResponseCode() < 300
-				? connection.getInputStream()
-				: connection.getErrorStream()));
-		
-		final StringBuilder builder = new StringBuilder();
-		String line;
-		while((line = reader.readLine()) != null)
-		{
-			builder.append(line);
-		}
-		return builder.toString();
+		/**
+		 * Through the port that is mapped on the Docker host (default)
+		 */
+		MAPPED_PORT,
+		/**
+		 * Directly using the IP address of the container.
+		 * <p>
+		 * Only works if the container's IP is reachable, e.g. when the Docker daemon runs on the same Linux host.
+		 * </p>
+		 */
+		CONTAINER_IP,
+		/**
+		 * Using the network alias of the container.
+		 * <p>
+		 * Only works if the probing JVM runs inside the same Docker network.
+		 * </p>
+		 */
+		NETWORK_ALIAS
 	}
 }
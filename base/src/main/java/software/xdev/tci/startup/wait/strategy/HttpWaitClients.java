@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.strategy;
+
+import java.net.Socket;
+import java.net.http.HttpClient;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import software.xdev.tci.concurrent.TCIExecutorServiceHolder;
+
+
+/**
+ * {@link HttpClient}s that are shared by all {@link HttpWaitAbortableStrategy HttpWaitAbortableStrategies}.
+ * <p>
+ * Connections are kept alive and reused per target, which avoids socket churn when a lot of containers are started
+ * simultaneously.
+ * </p>
+ */
+public final class HttpWaitClients
+{
+	private static HttpClient secure;
+	private static HttpClient insecure;
+	
+	public static HttpClient secure()
+	{
+		if(secure == null)
+		{
+			initSecure();
+		}
+		return secure;
+	}
+	
+	private static synchronized void initSecure()
+	{
+		if(secure != null)
+		{
+			return;
+		}
+		secure = builder().build();
+	}
+	
+	/**
+	 * @return a client that also accepts untrusted (e.g. self-signed) certificate chains
+	 */
+	public static HttpClient insecure()
+	{
+		if(insecure == null)
+		{
+			initInsecure();
+		}
+		return insecure;
+	}
+	
+	private static synchronized void initInsecure()
+	{
+		if(insecure != null)
+		{
+			return;
+		}
+		try
+		{
+			// Create custom SSL context and set the "trust all certificates" trust manager
+			final SSLContext sc = SSLContext.getInstance("TLS");
+			sc.init(new KeyManager[0], new TrustManager[]{new TrustAllTrustManager()}, new SecureRandom());
+			insecure = builder().sslContext(sc).build();
+		}
+		catch(final NoSuchAlgorithmException | KeyManagementException ex)
+		{
+			throw new IllegalStateException("Unable to create custom SSL context", ex);
+		}
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	private static HttpClient.Builder builder()
+	{
+		return HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.followRedirects(HttpClient.Redirect.NEVER)
+			.executor(TCIExecutorServiceHolder.instance());
+	}
+	
+	/**
+	 * Trust manager that does not validate certificate chains and trusts all certificates
+	 */
+	@SuppressWarnings("java:S4830")
+	static class TrustAllTrustManager extends X509ExtendedTrustManager
+	{
+		@Override
+		public X509Certificate[] getAcceptedIssuers()
+		{
+			return new X509Certificate[0];
+		}
+		
+		@Override
+		public void checkClientTrusted(final X509Certificate[] certs, final String authType)
+		{
+		}
+		
+		@Override
+		public void checkServerTrusted(final X509Certificate[] certs, final String authType)
+		{
+		}
+		
+		@Override
+		public void checkClientTrusted(
+			final X509Certificate[] chain,
+			final String authType,
+			final Socket socket)
+		{
+		}
+		
+		@Override
+		public void checkServerTrusted(
+			final X509Certificate[] chain,
+			final String authType,
+			final Socket socket)
+		{
+		}
+		
+		@Override
+		public void checkClientTrusted(
+			final X509Certificate[] chain,
+			final String authType,
+			final SSLEngine engine)
+		{
+		}
+		
+		@Override
+		public void checkServerTrusted(
+			final X509Certificate[] chain,
+			final String authType,
+			final SSLEngine engine)
+		{
+		}
+	}
+	
+	private HttpWaitClients()
+	{
+	}
+}
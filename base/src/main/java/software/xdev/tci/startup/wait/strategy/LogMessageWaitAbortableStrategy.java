@@ -17,32 +17,51 @@ package software.xdev.tci.startup.wait.strategy;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import org.testcontainers.containers.ContainerLaunchException;
 import org.testcontainers.containers.output.FrameConsumerResultCallback;
 import org.testcontainers.containers.output.OutputFrame;
-import org.testcontainers.containers.output.WaitingConsumer;
 
 import com.github.dockerjava.api.command.LogContainerCmd;
 
 import software.xdev.tci.startup.wait.AbortMonitor;
+import software.xdev.tci.startup.wait.log.SharedLogConsumer;
 
 
 /**
  * Based on {@link org.testcontainers.containers.wait.strategy.LogMessageWaitStrategy}
+ * <p>
+ * The regex is compiled once and matched against each line of the log.<br/>
+ * If a {@link SharedLogConsumer} is attached to the container, its log stream is used. Otherwise a dedicated log
+ * stream is opened.
+ * </p>
  */
 public class LogMessageWaitAbortableStrategy extends AbstractWaitAbortableStrategy<LogMessageWaitAbortableStrategy>
 {
+	protected static final long ABORT_CHECK_INTERVAL_MS = 100;
+	
 	protected String regEx;
+	protected Pattern pattern;
 	
 	protected int times = 1;
 	
 	@Override
 	protected void waitUntilReady(final AbortMonitor abortMonitor)
 	{
+		final Optional<SharedLogConsumer> optSharedLogConsumer = SharedLogConsumer.find(this.waitStrategyTarget);
+		if(optSharedLogConsumer.isPresent())
+		{
+			this.waitUntilReady(abortMonitor, optSharedLogConsumer.get());
+			return;
+		}
+		
 		try(final LogContainerCmd cmd = this.waitStrategyTarget
 			.getDockerClient()
 			.logContainerCmd(this.waitStrategyTarget.getContainerId())
@@ -51,45 +70,112 @@ public class LogMessageWaitAbortableStrategy extends AbstractWaitAbortableStrate
 			.withStdOut(true)
 			.withStdErr(true))
 		{
+			final SharedLogConsumer dedicatedLogConsumer = new SharedLogConsumer(null, 0);
 			try(final FrameConsumerResultCallback callback = new FrameConsumerResultCallback())
 			{
-				final WaitingConsumer waitingConsumer = new WaitingConsumer();
-				callback.addConsumer(OutputFrame.OutputType.STDOUT, waitingConsumer);
-				callback.addConsumer(OutputFrame.OutputType.STDERR, waitingConsumer);
+				callback.addConsumer(OutputFrame.OutputType.STDOUT, dedicatedLogConsumer);
+				callback.addConsumer(OutputFrame.OutputType.STDERR, dedicatedLogConsumer);
 				
 				cmd.exec(callback);
 				
-				final Predicate<OutputFrame> waitPredicate = outputFrame -> {
-					abortMonitor.throwIfRequired();
-					
-					// (?s) enables line terminator matching (equivalent to Pattern.DOTALL)
-					return outputFrame.getUtf8String().matches("(?s)" + this.regEx);
-				};
-				try
+				this.waitUntilReady(abortMonitor, dedicatedLogConsumer);
+			}
+			catch(final IOException ioe)
+			{
+				throw new UncheckedIOException(ioe);
+			}
+		}
+	}
+	
+	@SuppressWarnings("try") // The registration is only held while waiting
+	protected void waitUntilReady(final AbortMonitor abortMonitor, final SharedLogConsumer logConsumer)
+	{
+		final Pattern compiledPattern = this.pattern();
+		final AtomicInteger remaining = new AtomicInteger(this.times);
+		final CompletableFuture<Void> cfMatched = new CompletableFuture<>();
+		
+		try(final SharedLogConsumer.Registration registration = logConsumer.register(
+			new SharedLogConsumer.LineListener()
+			{
+				@Override
+				public void onLine(final SharedLogConsumer.Line line)
 				{
-					waitingConsumer.waitUntil(
-						waitPredicate,
-						this.startupTimeout.getSeconds(),
-						TimeUnit.SECONDS,
-						this.times);
+					if(!cfMatched.isDone()
+						&& compiledPattern.matcher(line.text()).matches()
+						&& remaining.decrementAndGet() <= 0)
+					{
+						cfMatched.complete(null);
+					}
 				}
-				catch(final TimeoutException e)
+				
+				@Override
+				public void onEnd()
 				{
-					throw new ContainerLaunchException(
-						"Timed out waiting for log output matching '" + this.regEx + "'",
-						e);
+					cfMatched.completeExceptionally(new ContainerLaunchException(
+						"Log output ended before a line matching '" + LogMessageWaitAbortableStrategy.this.regEx
+							+ "' was found"));
 				}
+			}))
+		{
+			this.awaitMatched(abortMonitor, cfMatched);
+		}
+	}
+	
+	@SuppressWarnings("PMD.PreserveStackTrace")
+	protected void awaitMatched(final AbortMonitor abortMonitor, final CompletableFuture<Void> cfMatched)
+	{
+		final long deadline = System.nanoTime() + this.startupTimeout.toNanos();
+		while(true)
+		{
+			abortMonitor.throwIfRequired();
+			
+			final long remainingNanos = deadline - System.nanoTime();
+			if(remainingNanos <= 0)
+			{
+				throw new ContainerLaunchException(
+					"Timed out waiting for log output matching '" + this.regEx + "'");
 			}
-			catch(final IOException ioe)
+			try
 			{
-				throw new UncheckedIOException(ioe);
+				cfMatched.get(
+					Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(ABORT_CHECK_INTERVAL_MS)),
+					TimeUnit.NANOSECONDS);
+				return;
+			}
+			catch(final TimeoutException ignored)
+			{
+				// Check again
+			}
+			catch(final InterruptedException iex)
+			{
+				Thread.currentThread().interrupt();
+				throw new ContainerLaunchException("Interrupted while waiting for log output", iex);
 			}
+			catch(final ExecutionException eex)
+			{
+				if(eex.getCause() instanceof final RuntimeException rex)
+				{
+					throw rex;
+				}
+				throw new ContainerLaunchException("Failed to wait for log output", eex.getCause());
+			}
+		}
+	}
+	
+	protected Pattern pattern()
+	{
+		if(this.pattern == null)
+		{
+			// DOTALL enables line terminator matching
+			this.pattern = Pattern.compile(this.regEx, Pattern.DOTALL);
 		}
+		return this.pattern;
 	}
 	
 	public LogMessageWaitAbortableStrategy withRegEx(final String regEx)
 	{
 		this.regEx = regEx;
+		this.pattern = null;
 		return this.self();
 	}
 	
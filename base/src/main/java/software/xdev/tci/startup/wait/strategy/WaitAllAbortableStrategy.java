@@ -18,8 +18,14 @@ package software.xdev.tci.startup.wait.strategy;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import org.rnorth.ducttape.TimeoutException;
 import org.rnorth.ducttape.timeouts.Timeouts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,10 +35,16 @@ import org.testcontainers.containers.wait.strategy.WaitStrategy;
 import software.xdev.tci.startup.wait.AbortMonitor;
 import software.xdev.tci.startup.wait.holder.AbortableStrategyValues;
 import software.xdev.tci.startup.wait.holder.AbortableStrategyValuesHolder;
+import software.xdev.tci.tracing.TCITracer;
 
 
 /**
  * Based on {@link WaitAllStrategy}
+ * <p>
+ * The nested strategies are executed one after another or - if {@link #withConcurrent(boolean) concurrent} -
+ * simultaneously.<br/>
+ * The duration of each nested strategy is reported to the tracer of the factory (if present).
+ * </p>
  */
 public class WaitAllAbortableStrategy extends AbstractWaitAbortableStrategy<WaitAllAbortableStrategy>
 {
@@ -42,6 +54,8 @@ public class WaitAllAbortableStrategy extends AbstractWaitAbortableStrategy<Wait
 	
 	protected final List<WaitStrategy> strategies = new ArrayList<>();
 	
+	protected boolean concurrent;
+	
 	public WaitAllAbortableStrategy()
 	{
 		this(WaitAllStrategy.Mode.WITH_OUTER_TIMEOUT);
@@ -62,29 +76,133 @@ public class WaitAllAbortableStrategy extends AbstractWaitAbortableStrategy<Wait
 		else
 		{
 			final AbortableStrategyValues valuesToPropagate = AbortableStrategyValuesHolder.get();
-			Timeouts.doWithTimeout(
-				(int)this.startupTimeout.toMillis(),
-				TimeUnit.MILLISECONDS,
-				() -> AbortableStrategyValuesHolder.executeWith(
-					() -> this.waitUntilNestedStrategiesAreReady(abortMonitor),
-					valuesToPropagate)
-			);
+			try
+			{
+				Timeouts.doWithTimeout(
+					(int)this.startupTimeout.toMillis(),
+					TimeUnit.MILLISECONDS,
+					() -> AbortableStrategyValuesHolder.executeWith(
+						() -> this.waitUntilNestedStrategiesAreReady(abortMonitor),
+						valuesToPropagate)
+				);
+			}
+			catch(final TimeoutException tex)
+			{
+				// The body is neither cancelled nor interrupted
+				// -> Abort the nested strategies so that they don't continue to run in the background
+				abortMonitor.trigger(tex);
+				throw tex;
+			}
 		}
 	}
 	
 	private void waitUntilNestedStrategiesAreReady(final AbortMonitor abortMonitor)
 	{
+		if(this.concurrent && this.strategies.size() > 1)
+		{
+			this.waitUntilNestedStrategiesAreReadyConcurrently(abortMonitor);
+			return;
+		}
+		
 		for(final WaitStrategy strategy : this.strategies)
 		{
 			abortMonitor.throwIfRequired();
 			
-			final long startMs = System.currentTimeMillis();
-			LOG.debug("Waiting for {}", strategy);
-			
-			strategy.waitUntilReady(this.waitStrategyTarget);
-			
-			LOG.debug("Finished waiting for {}, took {}ms", strategy, System.currentTimeMillis() - startMs);
+			this.waitUntilNestedStrategyIsReady(strategy);
+		}
+	}
+	
+	@SuppressWarnings("PMD.PreserveStackTrace")
+	private void waitUntilNestedStrategiesAreReadyConcurrently(final AbortMonitor abortMonitor)
+	{
+		final AbortableStrategyValues values = AbortableStrategyValuesHolder.get();
+		
+		// Completes exceptionally when the first strategy failed
+		final CompletableFuture<Void> cfFirstFailure = new CompletableFuture<>();
+		final CompletableFuture<?>[] cfStrategies = this.strategies.stream()
+			.map(strategy -> CompletableFuture.runAsync(
+					() -> AbortableStrategyValuesHolder.executeWith(
+						() -> {
+							abortMonitor.throwIfRequired();
+							this.waitUntilNestedStrategyIsReady(strategy);
+						},
+						values),
+					values.executor())
+				.whenComplete((v, ex) -> {
+					if(ex != null)
+					{
+						final Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+						// Fail fast: Abort all other strategies
+						abortMonitor.trigger(cause instanceof final RuntimeException rex
+							? rex
+							: new IllegalStateException(cause));
+						cfFirstFailure.completeExceptionally(cause);
+					}
+				}))
+			.toArray(CompletableFuture<?>[]::new);
+		
+		try
+		{
+			// get is used as join ignores interrupts - which are used by the outer timeout
+			CompletableFuture.anyOf(CompletableFuture.allOf(cfStrategies), cfFirstFailure).get();
+		}
+		catch(final InterruptedException iex)
+		{
+			// Abort the nested strategies immediately - otherwise they continue to run until their own timeout
+			final IllegalStateException ex = new IllegalStateException("Got interrupted", iex);
+			abortMonitor.trigger(ex);
+			Thread.currentThread().interrupt();
+			throw ex;
+		}
+		catch(final ExecutionException eex)
+		{
+			if(eex.getCause() instanceof final RuntimeException rex)
+			{
+				throw rex;
+			}
+			throw new IllegalStateException(eex.getCause());
 		}
+		finally
+		{
+			// e.g. when timed out
+			if(!CompletableFuture.allOf(cfStrategies).isDone())
+			{
+				abortMonitor.trigger(new CancellationException("WaitAll completed"));
+			}
+		}
+	}
+	
+	private void waitUntilNestedStrategyIsReady(final WaitStrategy strategy)
+	{
+		final long startMs = System.currentTimeMillis();
+		LOG.debug("Waiting for {}", strategy);
+		
+		strategy.waitUntilReady(this.waitStrategyTarget);
+		
+		final long ms = System.currentTimeMillis() - startMs;
+		LOG.debug("Finished waiting for {}, took {}ms", strategy, ms);
+		
+		Optional.ofNullable(AbortableStrategyValuesHolder.get())
+			.map(AbortableStrategyValues::tracer)
+			.ifPresent(tracer -> this.trace(tracer, strategy, ms));
+	}
+	
+	protected void trace(final TCITracer tracer, final WaitStrategy strategy, final long ms)
+	{
+		tracer.timedAdd("waitStrategy." + strategy.getClass().getSimpleName(), ms);
+	}
+	
+	/**
+	 * Executes all nested strategies simultaneously.
+	 * <p>
+	 * This should only be used when the strategies are independent of each other.<br/>
+	 * If a strategy fails all others are aborted.
+	 * </p>
+	 */
+	public WaitAllAbortableStrategy withConcurrent(final boolean concurrent)
+	{
+		this.concurrent = concurrent;
+		return this.self();
 	}
 	
 	public WaitAllAbortableStrategy withStrategy(final AbstractWaitAbortableStrategy<?> strategy)
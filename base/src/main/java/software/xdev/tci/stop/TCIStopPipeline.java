@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.stop;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.xdev.tci.concurrent.ExecutorServiceCreatorHolder;
+import software.xdev.tci.stop.config.StopPipelineConfig;
+
+
+/**
+ * Stops infrastructure asynchronously so that teardown time is not added to the test that returned it.
+ * <p>
+ * The amount of concurrent stops is bounded (see {@link StopPipelineConfig#maxConcurrent()}) so that the Docker
+ * daemon is not flooded with requests when a lot of infrastructure is returned at once.
+ * </p>
+ *
+ * @see software.xdev.tci.TCI#stopAsync()
+ */
+public class TCIStopPipeline
+{
+	private static final Logger LOG = LoggerFactory.getLogger(TCIStopPipeline.class);
+	
+	private static TCIStopPipeline instance;
+	
+	public static TCIStopPipeline instance()
+	{
+		if(instance == null)
+		{
+			init();
+		}
+		return instance;
+	}
+	
+	private static synchronized void init()
+	{
+		if(instance != null)
+		{
+			return;
+		}
+		instance = new TCIStopPipeline(StopPipelineConfig.instance());
+	}
+	
+	/**
+	 * @return the pipeline if it was already created, otherwise <code>null</code>
+	 */
+	public static TCIStopPipeline instanceIfCreated()
+	{
+		return instance;
+	}
+	
+	public static void setInstance(final TCIStopPipeline instance)
+	{
+		TCIStopPipeline.instance = instance;
+	}
+	
+	protected final StopPipelineConfig config;
+	protected final ExecutorService executor;
+	protected final Set<CompletableFuture<Void>> pending = ConcurrentHashMap.newKeySet();
+	
+	public TCIStopPipeline(final StopPipelineConfig config)
+	{
+		this(config, ExecutorServiceCreatorHolder.instance().createFixed("TCI-stop", config.maxConcurrent()));
+	}
+	
+	public TCIStopPipeline(final StopPipelineConfig config, final ExecutorService executor)
+	{
+		this.config = config;
+		this.executor = executor;
+	}
+	
+	/**
+	 * Submits the stop action into the pipeline.
+	 *
+	 * @return future that is completed once the action finished
+	 */
+	public CompletableFuture<Void> submit(final Runnable stopAction)
+	{
+		final CompletableFuture<Void> cf = new CompletableFuture<>();
+		this.pending.add(cf);
+		CompletableFuture.runAsync(stopAction, this.executor)
+			.whenComplete((v, ex) -> {
+				// Remove before completing so that nothing is pending once the future is completed
+				this.pending.remove(cf);
+				if(ex != null)
+				{
+					LOG.warn("Failed to stop", ex);
+					cf.completeExceptionally(ex);
+					return;
+				}
+				cf.complete(null);
+			});
+		return cf;
+	}
+	
+	public int pendingCount()
+	{
+		return this.pending.size();
+	}
+	
+	/**
+	 * Waits until all submitted stops are finished.
+	 *
+	 * @return <code>true</code> if nothing is pending anymore
+	 */
+	public boolean awaitAll(final Duration timeout)
+	{
+		final CompletableFuture<?>[] cfs = this.pending.toArray(CompletableFuture[]::new);
+		if(cfs.length == 0)
+		{
+			return true;
+		}
+		
+		try
+		{
+			CompletableFuture.allOf(cfs)
+				.handle((v, ex) -> null)
+				.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+			return true;
+		}
+		catch(final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch(final ExecutionException | TimeoutException e)
+		{
+			LOG.warn("Pending stops did not finish within {}", timeout, e);
+		}
+		return false;
+	}
+	
+	public StopPipelineConfig config()
+	{
+		return this.config;
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.stop.config;
+
+import software.xdev.tci.config.DefaultConfig;
+
+
+/**
+ * Default implementation of {@link StopPipelineConfig} using {@link System#getProperties() System Properties}.
+ */
+public class DefaultStopPipelineConfig extends DefaultConfig implements StopPipelineConfig
+{
+	protected final int maxConcurrent;
+	protected final int gracePeriodSeconds;
+	
+	public DefaultStopPipelineConfig()
+	{
+		this.maxConcurrent = Math.max(1, this.resolveInt("max-concurrent", DEFAULT_MAX_CONCURRENT));
+		this.gracePeriodSeconds = Math.max(0, this.resolveInt("grace-period-seconds", DEFAULT_GRACE_PERIOD_SECONDS));
+	}
+	
+	@Override
+	protected String propertyNamePrefix()
+	{
+		return "tci.stop-pipeline";
+	}
+	
+	@Override
+	public int maxConcurrent()
+	{
+		return this.maxConcurrent;
+	}
+	
+	@Override
+	public int gracePeriodSeconds()
+	{
+		return this.gracePeriodSeconds;
+	}
+}
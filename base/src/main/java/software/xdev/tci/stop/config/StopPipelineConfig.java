@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.stop.config;
+
+import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
+
+
+public interface StopPipelineConfig
+{
+	int DEFAULT_MAX_CONCURRENT = Math.max(2, Runtime.getRuntime().availableProcessors());
+	int DEFAULT_GRACE_PERIOD_SECONDS = 0;
+	
+	/**
+	 * Maximum amount of infrastructure that is stopped concurrently by the pipeline
+	 */
+	default int maxConcurrent()
+	{
+		return DEFAULT_MAX_CONCURRENT;
+	}
+	
+	/**
+	 * Time a container is given to shut down gracefully before it's forcefully removed.
+	 * <p>
+	 * Containers of TCI are ephemeral, so there is usually no reason to wait for a graceful shutdown.
+	 * </p>
+	 */
+	default int gracePeriodSeconds()
+	{
+		return DEFAULT_GRACE_PERIOD_SECONDS;
+	}
+	
+	static StopPipelineConfig instance()
+	{
+		return TCIServiceLoaderHolder.instance().service(StopPipelineConfig.class);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Lock-free histogram for latencies with nanosecond resolution.
+ * <p>
+ * Values are recorded into logarithmic buckets: Every power of two is divided into {@value #SUB_BUCKET_COUNT}
+ * linear sub-buckets, so that the relative error of a percentile is at most ~3%.<br/>
+ * Recording only consists of a few atomic increments and is therefore suitable for concurrent hot paths.
+ * </p>
+ */
+public class LatencyHistogram
+{
+	protected static final int SUB_BUCKET_BITS = 5;
+	protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	protected static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+	protected static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+	
+	public void recordNanos(final long nanos)
+	{
+		final long value = Math.max(0, nanos);
+		this.buckets.incrementAndGet(bucketIndex(value));
+		this.count.increment();
+		this.totalNanos.add(value);
+		this.maxNanos.accumulateAndGet(value, Math::max);
+		this.minNanos.accumulateAndGet(value, Math::min);
+	}
+	
+	public long getCount()
+	{
+		return this.count.sum();
+	}
+	
+	public long getTotalNanos()
+	{
+		return this.totalNanos.sum();
+	}
+	
+	public long getMaxNanos()
+	{
+		return this.maxNanos.get();
+	}
+	
+	public long getMinNanos()
+	{
+		final long min = this.minNanos.get();
+		return min == Long.MAX_VALUE ? 0 : min;
+	}
+	
+	/**
+	 * @param percentile e.g. <code>99.0</code> for p99
+	 * @return the (approximated) value at the given percentile or <code>0</code> if nothing was recorded
+	 */
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public long getPercentileNanos(final double percentile)
+	{
+		if(percentile < 0 || percentile > 100)
+		{
+			throw new IllegalArgumentException("percentile must be between 0 and 100");
+		}
+		
+		final long[] snapshot = new long[BUCKET_COUNT];
+		long total = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++)
+		{
+			snapshot[i] = this.buckets.get(i);
+			total += snapshot[i];
+		}
+		if(total == 0)
+		{
+			return 0;
+		}
+		
+		final long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * total));
+		if(rank >= total)
+		{
+			return this.getMaxNanos();
+		}
+		long seen = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++)
+		{
+			seen += snapshot[i];
+			if(seen >= rank)
+			{
+				return Math.min(Math.max(bucketMidpoint(i), this.getMinNanos()), this.getMaxNanos());
+			}
+		}
+		return this.getMaxNanos();
+	}
+	
+	protected static int bucketIndex(final long value)
+	{
+		if(value < SUB_BUCKET_COUNT)
+		{
+			return (int)value;
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int)((value >>> shift) & SUB_BUCKET_MASK);
+	}
+	
+	protected static long bucketMidpoint(final int index)
+	{
+		if(index < SUB_BUCKET_COUNT)
+		{
+			return index;
+		}
+		final int shift = index / SUB_BUCKET_COUNT - 1;
+		final long lower = (long)(SUB_BUCKET_COUNT | (index & SUB_BUCKET_MASK)) << shift;
+		return lower + ((1L << shift) >>> 1);
+	}
+}
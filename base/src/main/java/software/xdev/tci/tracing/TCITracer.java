@@ -18,12 +18,16 @@ package software.xdev.tci.tracing;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import software.xdev.tci.tracing.timeline.TraceTimeline;
+
 
 public class TCITracer
 {
 	private final Map<String, Timed> timers = new ConcurrentHashMap<>();
+	private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
 	
 	public Timed getTimedOrCreate(final String name)
 	{
@@ -33,6 +37,13 @@ public class TCITracer
 	public void timedAdd(final String name, final long ms)
 	{
 		this.getTimedOrCreate(name).addMs(ms);
+		TraceTimeline.instance().spanEndingNow(this, name, TimeUnit.MILLISECONDS.toNanos(ms));
+	}
+	
+	public void timedAddNanos(final String name, final long nanos)
+	{
+		this.getTimedOrCreate(name).addNanos(nanos);
+		TraceTimeline.instance().spanEndingNow(this, name, nanos);
 	}
 	
 	public Map<String, Timed> getTimers()
@@ -40,36 +51,115 @@ public class TCITracer
 		return this.timers;
 	}
 	
+	public Gauge getGaugeOrCreate(final String name)
+	{
+		return this.gauges.computeIfAbsent(name, x -> new Gauge());
+	}
+	
+	public void gaugeSet(final String name, final long value)
+	{
+		this.getGaugeOrCreate(name).set(value);
+		TraceTimeline.instance().counter(this, name, value);
+	}
+	
+	public Map<String, Gauge> getGauges()
+	{
+		return this.gauges;
+	}
+	
+	/**
+	 * A value that changes over time, e.g. a pool size.
+	 */
+	public static class Gauge
+	{
+		private boolean set;
+		private long current;
+		private long min;
+		private long max;
+		
+		public synchronized void set(final long value)
+		{
+			if(!this.set)
+			{
+				this.min = value;
+				this.max = value;
+				this.set = true;
+			}
+			this.current = value;
+			this.min = Math.min(this.min, value);
+			this.max = Math.max(this.max, value);
+		}
+		
+		public synchronized long getCurrent()
+		{
+			return this.current;
+		}
+		
+		public synchronized long getMin()
+		{
+			return this.min;
+		}
+		
+		public synchronized long getMax()
+		{
+			return this.max;
+		}
+		
+		@Override
+		public synchronized String toString()
+		{
+			return this.current + " (min=" + this.min + ", max=" + this.max + ")";
+		}
+	}
+	
+	
+	/**
+	 * A duration that is recorded multiple times.
+	 * <p>
+	 * Backed by a lock-free {@link LatencyHistogram}, so that besides the average also percentiles and the maximum are
+	 * available.
+	 * </p>
+	 */
 	public static class Timed
 	{
 		protected static final Pattern PRETTY_PRINT_DURATION = Pattern.compile("(\\d[HMS])(?!$)");
+		protected static final long NANOS_PER_MS = 1_000_000L;
 		
-		private long countCalled;
-		private long totalMs;
+		private final LatencyHistogram histogram = new LatencyHistogram();
 		
-		public synchronized void addMs(final long ms)
+		public void addMs(final long ms)
 		{
-			this.countCalled++;
-			this.totalMs += ms;
+			this.addNanos(ms * NANOS_PER_MS);
+		}
+		
+		public void addNanos(final long nanos)
+		{
+			this.histogram.recordNanos(nanos);
+		}
+		
+		public LatencyHistogram getHistogram()
+		{
+			return this.histogram;
 		}
 		
 		public long getCountCalled()
 		{
-			return this.countCalled;
+			return this.histogram.getCount();
 		}
 		
 		public long getTotalMs()
 		{
-			return this.totalMs;
+			return this.histogram.getTotalNanos() / NANOS_PER_MS;
 		}
 		
 		public double getAverageMs()
 		{
-			if(this.countCalled == 0)
+			final long countCalled = this.getCountCalled();
+			if(countCalled == 0)
 			{
 				return 0;
 			}
-			return this.totalMs / (double)this.countCalled;
+			return this.histogram.getTotalNanos() / (double)NANOS_PER_MS / countCalled;
 		}
 		
 		public long getAverageMsRounded()
@@ -77,19 +167,38 @@ public class TCITracer
 			return Math.round(this.getAverageMs());
 		}
 		
+		/**
+		 * @param percentile e.g. <code>95.0</code> for p95
+		 */
+		public long getPercentileMs(final double percentile)
+		{
+			return Math.round(this.histogram.getPercentileNanos(percentile) / (double)NANOS_PER_MS);
+		}
+		
+		public long getMaxMs()
+		{
+			return Math.round(this.histogram.getMaxNanos() / (double)NANOS_PER_MS);
+		}
+		
 		@Override
 		public String toString()
 		{
 			return formatTimed(this);
 		}
 		
+		@SuppressWarnings("checkstyle:MagicNumber")
 		public static String formatTimed(final Timed timed)
 		{
 			return prettyPrintMS(timed.getAverageMsRounded())
 				+ " / "
 				+ timed.getCountCalled()
 				+ " / "
-				+ prettyPrintMS(timed.getTotalMs());
+				+ prettyPrintMS(timed.getTotalMs())
+				+ " (p50=" + prettyPrintMS(timed.getPercentileMs(50))
+				+ ", p95=" + prettyPrintMS(timed.getPercentileMs(95))
+				+ ", p99=" + prettyPrintMS(timed.getPercentileMs(99))
+				+ ", max=" + prettyPrintMS(timed.getMaxMs())
+				+ ")";
 		}
 		
 		public static String prettyPrintMS(final long ms)
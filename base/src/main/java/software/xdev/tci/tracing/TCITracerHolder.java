@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing;
+
+/**
+ * Holds the {@link TCITracer} of the factory that is currently starting infrastructure on this thread.
+ * <p>
+ * This allows e.g. wait strategies to report to the tracer of the factory.
+ * </p>
+ */
+public final class TCITracerHolder
+{
+	private static final ThreadLocal<TCITracer> TL = new ThreadLocal<>();
+	
+	public static void executeWith(final Runnable runnable, final TCITracer tracer)
+	{
+		final TCITracer previous = TL.get();
+		TL.set(tracer);
+		try
+		{
+			runnable.run();
+		}
+		finally
+		{
+			if(previous != null)
+			{
+				TL.set(previous);
+			}
+			else
+			{
+				TL.remove();
+			}
+		}
+	}
+	
+	/**
+	 * @return the current tracer or <code>null</code>
+	 */
+	public static TCITracer get()
+	{
+		return TL.get();
+	}
+	
+	private TCITracerHolder()
+	{
+	}
+}
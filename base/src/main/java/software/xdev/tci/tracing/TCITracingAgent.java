@@ -15,11 +15,17 @@
  */
 package software.xdev.tci.tracing;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.TestExecutionResult;
@@ -31,12 +37,15 @@ import org.slf4j.LoggerFactory;
 
 import software.xdev.tci.factory.TCIFactory;
 import software.xdev.tci.factory.registry.TCIFactoryRegistry;
+import software.xdev.tci.network.LazyNetworkPool;
 import software.xdev.tci.serviceloading.TCIServiceLoaderHolder;
 import software.xdev.tci.tracing.config.TracingConfig;
+import software.xdev.tci.tracing.history.PerformanceHistory;
+import software.xdev.tci.tracing.timeline.TraceTimeline;
 
 
 /**
- * Traces various TCI metrics including, average duration, amount and total duration of
+ * Traces various TCI metrics including, average duration, amount, total duration and percentiles of
  * <ul>
  *     <li>tests</li>
  *     <li>containers</li>
@@ -44,6 +53,10 @@ import software.xdev.tci.tracing.config.TracingConfig;
  *     <li>...</li>
  * </ul>
  * <p>
+ * Additionally a timeline of the test run is written (see {@link TraceTimeline}) and the timers are appended to a
+ * {@link PerformanceHistory} to detect regressions compared to previous runs.
+ * </p>
+ * <p>
  * Active by default due to service loading.
  * </p>
  */
@@ -67,6 +80,16 @@ public class TCITracingAgent implements TestExecutionListener
 		}
 		
 		this.startTime = System.currentTimeMillis();
+		
+		if(this.isTimelineEnabled())
+		{
+			TraceTimeline.instance().start(this.config.timelineMaxEvents());
+		}
+	}
+	
+	protected boolean isTimelineEnabled()
+	{
+		return this.config.timelineFile() != null && !this.config.timelineFile().isBlank();
 	}
 	
 	@Override
@@ -79,7 +102,7 @@ public class TCITracingAgent implements TestExecutionListener
 		
 		if(testIdentifier.getType() != TestDescriptor.Type.CONTAINER)
 		{
-			this.testStartTime.put(testIdentifier, System.currentTimeMillis());
+			this.testStartTime.put(testIdentifier, System.nanoTime());
 		}
 	}
 	
@@ -94,7 +117,11 @@ public class TCITracingAgent implements TestExecutionListener
 		if(testIdentifier.getType() != TestDescriptor.Type.CONTAINER)
 		{
 			Optional.ofNullable(this.testStartTime.remove(testIdentifier))
-				.ifPresent(s -> this.testsTimed.addMs(System.currentTimeMillis() - s));
+				.ifPresent(s -> {
+					final long durationNanos = System.nanoTime() - s;
+					this.testsTimed.addNanos(durationNanos);
+					TraceTimeline.instance().span("test", testIdentifier.getDisplayName(), s, durationNanos);
+				});
 		}
 	}
 	
@@ -110,19 +137,118 @@ public class TCITracingAgent implements TestExecutionListener
 		final String message = "=== Test Tracing Info ===\n"
 			+ "Duration: " + TCITracer.Timed.prettyPrintMS(allTestsExecutionMs) + "\n"
 			+ "Tests: " + this.testsTimed + "\n"
-			+ TCIFactoryRegistry.instance().getFactories()
-			.stream()
-			.sorted(Comparator.comparing(TCIFactory::getFactoryName))
-			.map(f -> f.getFactoryName()
-				+ ":\n"
-				+ Optional.ofNullable(f.getTracer())
-				.map(t -> t.getTimers().entrySet()
+			+ Stream.concat(
+				TCIFactoryRegistry.instance().getFactories()
 					.stream()
-					.sorted(Map.Entry.comparingByKey())
-					.map(e -> "\t" + e.getKey() + " - " + e.getValue())
-					.collect(Collectors.joining("\n")))
-				.orElse("-"))
+					.sorted(Comparator.comparing(TCIFactory::getFactoryName))
+					.map(f -> f.getFactoryName() + ":\n" + formatTracer(f.getTracer())),
+				LazyNetworkPool.getPools()
+					.stream()
+					.sorted(Comparator.comparing(LazyNetworkPool::getName))
+					.map(p -> p.getName() + ":\n" + formatTracer(p.getTracer())))
 			.collect(Collectors.joining("\n"));
 		LOG.info(message);
+		
+		if(this.isTimelineEnabled())
+		{
+			this.writeTimeline(Path.of(this.config.timelineFile()));
+		}
+		
+		if(this.config.historyFile() != null && !this.config.historyFile().isBlank())
+		{
+			this.recordHistory(new PerformanceHistory(Path.of(this.config.historyFile())));
+		}
+	}
+	
+	/**
+	 * Appends the timers of this run to the history and reports timers that regressed compared to previous runs.
+	 */
+	protected void recordHistory(final PerformanceHistory history)
+	{
+		final long runEpochMs = System.currentTimeMillis();
+		final List<PerformanceHistory.Entry> current = Stream.concat(
+				Stream.of(this.toHistoryEntry(runEpochMs, "tests", "test", this.testsTimed)),
+				TCIFactoryRegistry.instance().getFactories()
+					.stream()
+					.filter(f -> f.getTracer() != null)
+					.flatMap(f -> f.getTracer().getTimers().entrySet()
+						.stream()
+						.map(e -> this.toHistoryEntry(runEpochMs, f.getFactoryName(), e.getKey(), e.getValue()))))
+			.filter(e -> e.count() > 0)
+			.toList();
+		
+		final List<PerformanceHistory.Regression> regressions = PerformanceHistory.detectRegressions(
+			history.read(),
+			current,
+			Pattern.compile(this.config.historyRegressionMetrics()),
+			this.config.historyBaselineRuns(),
+			this.config.historyMinBaselineRuns(),
+			this.config.historyRegressionThresholdPercent(),
+			this.config.historyRegressionMinMs());
+		history.append(current);
+		
+		if(!regressions.isEmpty())
+		{
+			LOG.warn(
+				"Detected {}x performance regressions compared to the previous runs:\n{}",
+				regressions.size(),
+				regressions.stream()
+					.map(r -> "\t" + r)
+					.collect(Collectors.joining("\n")));
+		}
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected PerformanceHistory.Entry toHistoryEntry(
+		final long runEpochMs,
+		final String scope,
+		final String metric,
+		final TCITracer.Timed timed)
+	{
+		return new PerformanceHistory.Entry(
+			runEpochMs,
+			scope,
+			metric,
+			timed.getCountCalled(),
+			timed.getAverageMs(),
+			timed.getPercentileMs(95));
+	}
+	
+	protected void writeTimeline(final Path file)
+	{
+		final TraceTimeline timeline = TraceTimeline.instance();
+		timeline.stop();
+		
+		final Map<Object, String> categories = new IdentityHashMap<>();
+		TCIFactoryRegistry.instance().getFactories()
+			.forEach(f -> categories.put(f.getTracer(), f.getFactoryName()));
+		LazyNetworkPool.getPools()
+			.forEach(p -> categories.put(p.getTracer(), p.getName()));
+		
+		try
+		{
+			timeline.writeTo(file, categories::get);
+			LOG.info("Wrote timeline to {}", file.toAbsolutePath());
+		}
+		catch(final IOException ioe)
+		{
+			LOG.warn("Failed to write timeline to {}", file, ioe);
+		}
+	}
+	
+	protected static String formatTracer(final TCITracer tracer)
+	{
+		return Optional.ofNullable(tracer)
+			.map(t -> Stream.concat(
+					t.getTimers().entrySet()
+						.stream()
+						.sorted(Map.Entry.comparingByKey())
+						.map(e -> "\t" + e.getKey() + " - " + e.getValue()),
+					t.getGauges().entrySet()
+						.stream()
+						.sorted(Map.Entry.comparingByKey())
+						.map(e -> "\t" + e.getKey() + " = " + e.getValue()))
+				.collect(Collectors.joining("\n")))
+			.orElse("-");
 	}
 }
@@ -15,11 +15,104 @@
  */
 package software.xdev.tci.tracing.config;
 
-public class DefaultTracingConfig implements TracingConfig
+import software.xdev.tci.config.DefaultConfig;
+
+
+public class DefaultTracingConfig extends DefaultConfig implements TracingConfig
 {
+	protected final String timelineFile;
+	protected final int timelineMaxEvents;
+	protected final boolean startupPhaseEvents;
+	protected final String historyFile;
+	protected final int historyBaselineRuns;
+	protected final int historyMinBaselineRuns;
+	protected final String historyRegressionMetrics;
+	protected final int historyRegressionThresholdPercent;
+	protected final long historyRegressionMinMs;
+	
+	public DefaultTracingConfig()
+	{
+		this.timelineFile = this.resolve("timeline-file").orElse(DEFAULT_TIMELINE_FILE);
+		this.timelineMaxEvents = Math.max(0, this.resolveInt("timeline-max-events", DEFAULT_TIMELINE_MAX_EVENTS));
+		this.startupPhaseEvents = this.resolveBool("startup-phase-events", DEFAULT_STARTUP_PHASE_EVENTS);
+		this.historyFile = this.resolve("history.file").orElse(DEFAULT_HISTORY_FILE);
+		this.historyBaselineRuns = Math.max(1, this.resolveInt("history.baseline-runs", DEFAULT_HISTORY_BASELINE_RUNS));
+		this.historyMinBaselineRuns = Math.max(
+			1,
+			this.resolveInt("history.min-baseline-runs", DEFAULT_HISTORY_MIN_BASELINE_RUNS));
+		this.historyRegressionMetrics = this.resolve("history.regression.metrics")
+			.orElse(DEFAULT_HISTORY_REGRESSION_METRICS);
+		this.historyRegressionThresholdPercent = Math.max(
+			0,
+			this.resolveInt("history.regression.threshold-percent", DEFAULT_HISTORY_REGRESSION_THRESHOLD_PERCENT));
+		this.historyRegressionMinMs = Math.max(
+			0,
+			this.resolveLong("history.regression.min-ms", () -> DEFAULT_HISTORY_REGRESSION_MIN_MS));
+	}
+	
+	@Override
+	protected String propertyNamePrefix()
+	{
+		return "tci.tracing";
+	}
+	
 	@Override
 	public boolean enabled()
 	{
 		return true;
 	}
+	
+	@Override
+	public String timelineFile()
+	{
+		return this.timelineFile;
+	}
+	
+	@Override
+	public int timelineMaxEvents()
+	{
+		return this.timelineMaxEvents;
+	}
+	
+	@Override
+	public boolean startupPhaseEvents()
+	{
+		return this.startupPhaseEvents;
+	}
+	
+	@Override
+	public String historyFile()
+	{
+		return this.historyFile;
+	}
+	
+	@Override
+	public int historyBaselineRuns()
+	{
+		return this.historyBaselineRuns;
+	}
+	
+	@Override
+	public int historyMinBaselineRuns()
+	{
+		return this.historyMinBaselineRuns;
+	}
+	
+	@Override
+	public String historyRegressionMetrics()
+	{
+		return this.historyRegressionMetrics;
+	}
+	
+	@Override
+	public int historyRegressionThresholdPercent()
+	{
+		return this.historyRegressionThresholdPercent;
+	}
+	
+	@Override
+	public long historyRegressionMinMs()
+	{
+		return this.historyRegressionMinMs;
+	}
 }
@@ -17,5 +17,97 @@ package software.xdev.tci.tracing.config;
 
 public interface TracingConfig
 {
+	String DEFAULT_TIMELINE_FILE = "target/tci-trace.json";
+	int DEFAULT_TIMELINE_MAX_EVENTS = 500_000;
+	boolean DEFAULT_STARTUP_PHASE_EVENTS = true;
+	String DEFAULT_HISTORY_FILE = "target/tci-performance-history.tsv";
+	int DEFAULT_HISTORY_BASELINE_RUNS = 10;
+	int DEFAULT_HISTORY_MIN_BASELINE_RUNS = 3;
+	String DEFAULT_HISTORY_REGRESSION_METRICS =
+		"getNew|bootNew|infraStart\\(async\\)|acquireWait\\(.*\\)|startPhase\\..*";
+	int DEFAULT_HISTORY_REGRESSION_THRESHOLD_PERCENT = 25;
+	long DEFAULT_HISTORY_REGRESSION_MIN_MS = 100;
+	
 	boolean enabled();
+	
+	/**
+	 * File into which the timeline (Trace Event JSON) of the test run is written.
+	 * <p>
+	 * <code>null</code> or empty = disabled
+	 * </p>
+	 */
+	default String timelineFile()
+	{
+		return DEFAULT_TIMELINE_FILE;
+	}
+	
+	/**
+	 * Maximum amount of events that are recorded for the timeline
+	 */
+	default int timelineMaxEvents()
+	{
+		return DEFAULT_TIMELINE_MAX_EVENTS;
+	}
+	
+	/**
+	 * Should the Docker events of a container be used to determine the phases of its startup?
+	 * <p>
+	 * Requires an additional (asynchronous) request to the Docker daemon per started container.
+	 * </p>
+	 */
+	default boolean startupPhaseEvents()
+	{
+		return DEFAULT_STARTUP_PHASE_EVENTS;
+	}
+	
+	/**
+	 * File to which the timers of every run are appended and against which the current run is compared.
+	 * <p>
+	 * <code>null</code> or empty = disabled
+	 * </p>
+	 */
+	default String historyFile()
+	{
+		return DEFAULT_HISTORY_FILE;
+	}
+	
+	/**
+	 * How many of the latest previous runs form the baseline
+	 */
+	default int historyBaselineRuns()
+	{
+		return DEFAULT_HISTORY_BASELINE_RUNS;
+	}
+	
+	/**
+	 * Minimum amount of previous runs that are required before a timer is compared
+	 */
+	default int historyMinBaselineRuns()
+	{
+		return DEFAULT_HISTORY_MIN_BASELINE_RUNS;
+	}
+	
+	/**
+	 * Regex of the timers that are checked for regressions
+	 */
+	default String historyRegressionMetrics()
+	{
+		return DEFAULT_HISTORY_REGRESSION_METRICS;
+	}
+	
+	/**
+	 * How many percent the average of the current run must be above the baseline to be reported as regression
+	 */
+	default int historyRegressionThresholdPercent()
+	{
+		return DEFAULT_HISTORY_REGRESSION_THRESHOLD_PERCENT;
+	}
+	
+	/**
+	 * How many milliseconds the average of the current run must be above the baseline to be reported as regression
+	 */
+	default long historyRegressionMinMs()
+	{
+		return DEFAULT_HISTORY_REGRESSION_MIN_MS;
+	}
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing.history;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Append-only store of the timers of previous test runs.
+ * <p>
+ * Every line describes one timer of one run:<br/>
+ * <code>&lt;run-epoch-ms&gt;\t&lt;scope&gt;\t&lt;metric&gt;\t&lt;count&gt;\t&lt;avg-ms&gt;\t&lt;p95-ms&gt;</code>
+ * </p>
+ * <p>
+ * The current run can be compared against a rolling baseline (the median of the averages of the previous runs) to
+ * detect regressions.
+ * </p>
+ */
+public class PerformanceHistory
+{
+	private static final Logger LOG = LoggerFactory.getLogger(PerformanceHistory.class);
+	
+	protected static final String SEPARATOR = "\t";
+	protected static final Pattern INVALID_NAME_CHARS = Pattern.compile("[\\t\\r\\n]");
+	
+	protected final Path file;
+	
+	public PerformanceHistory(final Path file)
+	{
+		this.file = Objects.requireNonNull(file);
+	}
+	
+	public List<Entry> read()
+	{
+		if(!Files.exists(this.file))
+		{
+			return List.of();
+		}
+		
+		try(final Stream<String> lines = Files.lines(this.file, StandardCharsets.UTF_8))
+		{
+			return lines.filter(line -> !line.isBlank() && !line.startsWith("#"))
+				.map(Entry::parse)
+				.flatMap(Optional::stream)
+				.toList();
+		}
+		catch(final IOException | RuntimeException ex)
+		{
+			LOG.warn("Failed to read performance history from {}", this.file, ex);
+			return List.of();
+		}
+	}
+	
+	public void append(final List<Entry> entries)
+	{
+		if(entries.isEmpty())
+		{
+			return;
+		}
+		
+		try
+		{
+			final Path parent = this.file.toAbsolutePath().getParent();
+			if(parent != null)
+			{
+				Files.createDirectories(parent);
+			}
+			// Written at once so that concurrently running JVMs don't interleave their lines
+			Files.writeString(
+				this.file,
+				entries.stream()
+					.map(Entry::format)
+					.collect(Collectors.joining("\n", "", "\n")),
+				StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND);
+		}
+		catch(final IOException ex)
+		{
+			LOG.warn("Failed to write performance history to {}", this.file, ex);
+		}
+	}
+	
+	/**
+	 * Compares the current run against the previous runs.
+	 *
+	 * @param previous          all previously recorded entries
+	 * @param current           the entries of the current run
+	 * @param metricFilter      only metrics matching this filter are compared
+	 * @param baselineRuns      how many of the latest previous runs form the baseline
+	 * @param minBaselineRuns   minimum amount of previous runs of a metric that are required for a comparison
+	 * @param thresholdPercent  how many percent the current run must be slower than the baseline
+	 * @param minDifferenceMs   how many milliseconds the current run must be slower than the baseline
+	 */
+	@SuppressWarnings({"checkstyle:MagicNumber", "java:S107"})
+	public static List<Regression> detectRegressions(
+		final List<Entry> previous,
+		final List<Entry> current,
+		final Pattern metricFilter,
+		final int baselineRuns,
+		final int minBaselineRuns,
+		final int thresholdPercent,
+		final long minDifferenceMs)
+	{
+		final List<Long> latestRuns = previous.stream()
+			.map(Entry::runEpochMs)
+			.distinct()
+			.sorted(Comparator.reverseOrder())
+			.limit(baselineRuns)
+			.toList();
+		
+		final Map<String, List<Double>> baselineSamples = new LinkedHashMap<>();
+		previous.stream()
+			.filter(e -> latestRuns.contains(e.runEpochMs()))
+			.forEach(e -> baselineSamples.computeIfAbsent(e.key(), k -> new ArrayList<>()).add(e.avgMs()));
+		
+		final List<Regression> regressions = new ArrayList<>();
+		for(final Entry entry : current)
+		{
+			if(!metricFilter.matcher(entry.metric()).matches())
+			{
+				continue;
+			}
+			
+			final List<Double> samples = baselineSamples.get(entry.key());
+			if(samples == null || samples.size() < minBaselineRuns)
+			{
+				continue;
+			}
+			
+			final double baselineMs = median(samples);
+			final double differenceMs = entry.avgMs() - baselineMs;
+			if(differenceMs >= minDifferenceMs && entry.avgMs() > baselineMs * (100 + thresholdPercent) / 100.0)
+			{
+				regressions.add(new Regression(
+					entry.scope(),
+					entry.metric(),
+					baselineMs,
+					entry.avgMs(),
+					baselineMs > 0 ? differenceMs * 100 / baselineMs : 100));
+			}
+		}
+		return regressions;
+	}
+	
+	protected static double median(final List<Double> values)
+	{
+		final List<Double> sorted = values.stream().sorted().toList();
+		final int mid = sorted.size() / 2;
+		return sorted.size() % 2 == 1
+			? sorted.get(mid)
+			: (sorted.get(mid - 1) + sorted.get(mid)) / 2;
+	}
+	
+	public record Entry(long runEpochMs, String scope, String metric, long count, double avgMs, long p95Ms)
+	{
+		public Entry
+		{
+			scope = INVALID_NAME_CHARS.matcher(scope).replaceAll(" ");
+			metric = INVALID_NAME_CHARS.matcher(metric).replaceAll(" ");
+		}
+		
+		public String key()
+		{
+			return this.scope + SEPARATOR + this.metric;
+		}
+		
+		public String format()
+		{
+			return String.join(
+				SEPARATOR,
+				String.valueOf(this.runEpochMs),
+				this.scope,
+				this.metric,
+				String.valueOf(this.count),
+				String.valueOf(Math.round(this.avgMs)),
+				String.valueOf(this.p95Ms));
+		}
+		
+		@SuppressWarnings("checkstyle:MagicNumber")
+		public static Optional<Entry> parse(final String line)
+		{
+			final String[] parts = line.split(SEPARATOR);
+			if(parts.length != 6)
+			{
+				return Optional.empty();
+			}
+			try
+			{
+				return Optional.of(new Entry(
+					Long.parseLong(parts[0]),
+					parts[1],
+					parts[2],
+					Long.parseLong(parts[3]),
+					Double.parseDouble(parts[4]),
+					Long.parseLong(parts[5])));
+			}
+			catch(final NumberFormatException ignored)
+			{
+				return Optional.empty();
+			}
+		}
+	}
+	
+	
+	public record Regression(String scope, String metric, double baselineMs, double currentMs, double percent)
+	{
+		@Override
+		public String toString()
+		{
+			return String.format(
+				"%s %s: %.0fms -> %.0fms (+%.0f%%)",
+				this.scope,
+				this.metric,
+				this.baselineMs,
+				this.currentMs,
+				this.percent);
+		}
+	}
+}
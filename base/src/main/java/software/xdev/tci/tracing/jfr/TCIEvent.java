@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing.jfr;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Base for all TCI related Java Flight Recorder events.
+ * <p>
+ * Usage:
+ * <pre>
+ * final BootNewEvent event = new BootNewEvent();
+ * event.begin();
+ * // ...
+ * event.complete(factoryName, container::getContainerId, success, () -&gt; event.level = level);
+ * </pre>
+ * Values (including the event specific ones) are only determined and assigned when the event is actually recorded,
+ * so there is nearly no overhead when no recording is active.
+ * </p>
+ */
+@Category("TCI")
+@StackTrace(false)
+public abstract class TCIEvent extends Event
+{
+	public static final String OUTCOME_SUCCESS = "success";
+	public static final String OUTCOME_FAILURE = "failure";
+	
+	@Label("Factory")
+	protected String factory;
+	
+	@Label("Container Id")
+	protected String containerId;
+	
+	@Label("Outcome")
+	protected String outcome;
+	
+	/**
+	 * @see #complete(String, Supplier, boolean, Runnable)
+	 */
+	public void complete(final String factory, final Supplier<String> containerId, final boolean success)
+	{
+		this.complete(factory, containerId, success, null);
+	}
+	
+	/**
+	 * Ends the event and commits it - if it should be recorded - with the given values.
+	 *
+	 * @param containerId   supplies the container id; only called if the event is recorded
+	 * @param assignDetails assigns the event specific fields; only called if the event is recorded
+	 */
+	public void complete(
+		final String factory,
+		final Supplier<String> containerId,
+		final boolean success,
+		final Runnable assignDetails)
+	{
+		this.end();
+		if(this.shouldCommit())
+		{
+			this.factory = factory;
+			this.containerId = containerId != null ? containerId.get() : null;
+			this.outcome = success ? OUTCOME_SUCCESS : OUTCOME_FAILURE;
+			if(assignDetails != null)
+			{
+				assignDetails.run();
+			}
+			this.commit();
+		}
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing.timeline;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+/**
+ * Records spans and counters of a test run so that they can be exported as
+ * <a href="https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU">Trace Event JSON</a>,
+ * which can be opened in timeline viewers like <code>chrome://tracing</code> or
+ * <a href="https://ui.perfetto.dev">Perfetto</a>.
+ * <p>
+ * Spans are recorded on the thread that executed them, so e.g. acquiring infrastructure is shown nested inside the
+ * test that requested it while PreStarts are shown on their own threads.
+ * </p>
+ * <p>
+ * Recording is disabled until {@link #start(int)} is called.
+ * </p>
+ */
+public class TraceTimeline
+{
+	private static TraceTimeline instance;
+	
+	public static TraceTimeline instance()
+	{
+		if(instance == null)
+		{
+			init();
+		}
+		return instance;
+	}
+	
+	private static synchronized void init()
+	{
+		if(instance != null)
+		{
+			return;
+		}
+		instance = new TraceTimeline();
+	}
+	
+	public static void setInstance(final TraceTimeline instance)
+	{
+		TraceTimeline.instance = instance;
+	}
+	
+	protected final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+	protected final Queue<Counter> counters = new ConcurrentLinkedQueue<>();
+	protected final AtomicInteger recordedEvents = new AtomicInteger();
+	protected volatile boolean enabled;
+	protected int maxEvents;
+	protected long startNanos;
+	
+	/**
+	 * Starts recording.
+	 *
+	 * @param maxEvents maximum amount of recorded events; further events are dropped to limit memory usage
+	 */
+	public synchronized void start(final int maxEvents)
+	{
+		this.spans.clear();
+		this.counters.clear();
+		this.recordedEvents.set(0);
+		this.maxEvents = maxEvents;
+		this.startNanos = System.nanoTime();
+		this.enabled = true;
+	}
+	
+	public synchronized void stop()
+	{
+		this.enabled = false;
+	}
+	
+	public boolean isEnabled()
+	{
+		return this.enabled;
+	}
+	
+	/**
+	 * Records a span that ended just now on the current thread.
+	 *
+	 * @param source a {@link String} (used as category) or an object - like a
+	 *               {@link software.xdev.tci.tracing.TCITracer} - that is resolved to a category during export
+	 */
+	public void spanEndingNow(final Object source, final String name, final long durationNanos)
+	{
+		if(!this.enabled)
+		{
+			return;
+		}
+		final long endNanos = System.nanoTime();
+		this.span(source, name, endNanos - durationNanos, durationNanos);
+	}
+	
+	/**
+	 * Records a span on the current thread.
+	 *
+	 * @param startNanos start as returned by {@link System#nanoTime()}
+	 */
+	public void span(final Object source, final String name, final long startNanos, final long durationNanos)
+	{
+		if(!this.enabled || !this.tryReserve())
+		{
+			return;
+		}
+		final Thread thread = Thread.currentThread();
+		this.spans.add(new Span(
+			source,
+			name,
+			startNanos,
+			Math.max(0, durationNanos),
+			thread.threadId(),
+			thread.getName()));
+	}
+	
+	public void counter(final Object source, final String name, final long value)
+	{
+		if(!this.enabled || !this.tryReserve())
+		{
+			return;
+		}
+		this.counters.add(new Counter(source, name, System.nanoTime(), value));
+	}
+	
+	protected boolean tryReserve()
+	{
+		return this.recordedEvents.incrementAndGet() <= this.maxEvents;
+	}
+	
+	/**
+	 * Writes all recorded events as Trace Event JSON.
+	 *
+	 * @param categoryResolver resolves the category of non-{@link String} sources; may return <code>null</code>
+	 */
+	public void writeTo(final Path file, final Function<Object, String> categoryResolver) throws IOException
+	{
+		final Path parent = file.toAbsolutePath().getParent();
+		if(parent != null)
+		{
+			Files.createDirectories(parent);
+		}
+		
+		try(final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			this.write(writer, categoryResolver);
+		}
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected void write(final Writer writer, final Function<Object, String> categoryResolver) throws IOException
+	{
+		final Map<Long, String> threadNames = new HashMap<>();
+		
+		writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+		boolean first = true;
+		for(final Span span : this.spans)
+		{
+			threadNames.putIfAbsent(span.threadId(), span.threadName());
+			first = writeSeparator(writer, first);
+			writer.write("{\"ph\":\"X\",\"pid\":1,\"tid\":" + span.threadId()
+				+ ",\"ts\":" + this.toMicros(span.startNanos())
+				+ ",\"dur\":" + TimeUnit.NANOSECONDS.toMicros(span.durationNanos())
+				+ ",\"cat\":" + quote(this.category(span.source(), categoryResolver))
+				+ ",\"name\":" + quote(span.name())
+				+ "}");
+		}
+		for(final Counter counter : this.counters)
+		{
+			final String category = this.category(counter.source(), categoryResolver);
+			first = writeSeparator(writer, first);
+			writer.write("{\"ph\":\"C\",\"pid\":1"
+				+ ",\"ts\":" + this.toMicros(counter.timeNanos())
+				+ ",\"cat\":" + quote(category)
+				+ ",\"name\":" + quote(category + "." + counter.name())
+				+ ",\"args\":{\"value\":" + counter.value() + "}}");
+		}
+		for(final Map.Entry<Long, String> e : threadNames.entrySet())
+		{
+			first = writeSeparator(writer, first);
+			writer.write("{\"ph\":\"M\",\"pid\":1,\"tid\":" + e.getKey()
+				+ ",\"name\":\"thread_name\",\"args\":{\"name\":" + quote(e.getValue()) + "}}");
+		}
+		writer.write("]}");
+	}
+	
+	protected long toMicros(final long nanos)
+	{
+		return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos - this.startNanos));
+	}
+	
+	protected String category(final Object source, final Function<Object, String> categoryResolver)
+	{
+		if(source instanceof final String s)
+		{
+			return s;
+		}
+		final String resolved = categoryResolver.apply(source);
+		return resolved != null ? resolved : "tci";
+	}
+	
+	protected static boolean writeSeparator(final Writer writer, final boolean first) throws IOException
+	{
+		if(!first)
+		{
+			writer.write(",\n");
+		}
+		return false;
+	}
+	
+	@SuppressWarnings("checkstyle:MagicNumber")
+	protected static String quote(final String s)
+	{
+		if(s == null)
+		{
+			return "null";
+		}
+		final StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+		for(final char c : s.toCharArray())
+		{
+			switch(c)
+			{
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				case '\r' -> sb.append("\\r");
+				case '\t' -> sb.append("\\t");
+				default ->
+				{
+					if(c < 0x20)
+					{
+						sb.append(String.format("\\u%04x", (int)c));
+					}
+					else
+					{
+						sb.append(c);
+					}
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+	
+	protected record Span(
+		Object source,
+		String name,
+		long startNanos,
+		long durationNanos,
+		long threadId,
+		String threadName)
+	{
+	}
+	
+	
+	protected record Counter(Object source, String name, long timeNanos, long value)
+	{
+	}
+}
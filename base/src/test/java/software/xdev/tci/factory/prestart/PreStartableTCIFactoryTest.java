@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import software.xdev.tci.TCI;
+import software.xdev.tci.factory.prestart.config.PreStartConfig;
+
+
+class PreStartableTCIFactoryTest
+{
+	private TestFactory factory;
+	
+	@AfterEach
+	void tearDown()
+	{
+		if(this.factory != null)
+		{
+			this.factory.closed = true;
+			this.factory.executorService.shutdownNow();
+			this.factory.unregister();
+		}
+	}
+	
+	@Test
+	void bootsNewInfraWhenPreStartHangs()
+	{
+		this.factory = new TestFactory();
+		// Expected start time
+		this.factory.getTracer().timedAdd("infraStart(async)", 100);
+		
+		final PreStartableTCIFactory.StartingInfra<FakeTCI> hanging =
+			new PreStartableTCIFactory.StartingInfra<>(new FakeTCI(), new CompletableFuture<>(), true);
+		this.factory.preStartQueue.add(hanging);
+		this.factory.nextStartFuture = CompletableFuture.completedFuture(null);
+		
+		final long startMs = System.currentTimeMillis();
+		final PreStartableTCIFactory.StartingInfra<FakeTCI> acquired = this.factory.acquireNew(null);
+		
+		assertTrue(System.currentTimeMillis() - startMs < 10_000);
+		assertEquals(1, this.factory.booted.size());
+		assertSame(this.factory.booted.get(0), acquired);
+		// Still starting - might be used later
+		assertTrue(this.factory.preStartQueue.contains(hanging));
+		assertEquals(1, this.factory.getPreStartMisses());
+	}
+	
+	@Test
+	void usesPreStartedWhenReadyBeforeNewInfra()
+	{
+		this.factory = new TestFactory();
+		this.factory.getTracer().timedAdd("infraStart(async)", 100);
+		
+		final CompletableFuture<Void> preStartFuture = new CompletableFuture<>();
+		final PreStartableTCIFactory.StartingInfra<FakeTCI> slow =
+			new PreStartableTCIFactory.StartingInfra<>(new FakeTCI(), preStartFuture, true);
+		this.factory.preStartQueue.add(slow);
+		// New infra never gets ready; PreStarted infra gets ready shortly after new infra was booted
+		this.factory.nextStartFuture = new CompletableFuture<>();
+		this.factory.onBoot = () -> CompletableFuture.runAsync(
+			() -> preStartFuture.complete(null),
+			CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+		
+		final PreStartableTCIFactory.StartingInfra<FakeTCI> acquired = this.factory.acquireNew(null);
+		
+		assertSame(slow, acquired);
+		assertEquals(1, this.factory.booted.size());
+		// Not required anymore -> used as PreStarted infra
+		assertTrue(this.factory.preStartQueue.contains(this.factory.booted.get(0)));
+		assertEquals(0, this.factory.getPreStartMisses());
+	}
+	
+	static class TestFactory extends PreStartableTCIFactory<FakeContainer, FakeTCI>
+	{
+		final List<StartingInfra<FakeTCI>> booted = new CopyOnWriteArrayList<>();
+		volatile CompletableFuture<Void> nextStartFuture;
+		volatile Runnable onBoot = () -> { };
+		
+		TestFactory()
+		{
+			super(
+				(c, alias) -> new FakeTCI(c),
+				FakeContainer::new,
+				"test",
+				"test",
+				"test",
+				new PreStartConfig()
+				{
+					@Override
+					public int keepReady(final String preStartName)
+					{
+						return 2;
+					}
+					
+					@Override
+					public int maxStartSimultan(final String preStartName)
+					{
+						return 1;
+					}
+				},
+				new Timeouts().withAcquireTimeout(Duration.ofSeconds(30)));
+		}
+		
+		@Override
+		protected void registerToPreStartCoordinator()
+		{
+			// Not required
+		}
+		
+		@Override
+		protected StartingInfra<FakeTCI> bootNew(
+			final DirectNetworkAttachInfo directAttachNetwork,
+			final boolean preStarted,
+			final String level)
+		{
+			final StartingInfra<FakeTCI> startingInfra =
+				new StartingInfra<>(new FakeTCI(), this.nextStartFuture, directAttachNetwork == null);
+			this.booted.add(startingInfra);
+			this.onBoot.run();
+			return startingInfra;
+		}
+	}
+	
+	
+	static class FakeContainer extends GenericContainer<FakeContainer>
+	{
+		FakeContainer()
+		{
+			super(DockerImageName.parse("alpine:3"));
+		}
+		
+		@Override
+		public boolean isRunning()
+		{
+			return true;
+		}
+	}
+	
+	
+	static class FakeTCI extends TCI<FakeContainer>
+	{
+		FakeTCI()
+		{
+			this(new FakeContainer());
+		}
+		
+		FakeTCI(final FakeContainer container)
+		{
+			super(container, null);
+		}
+		
+		@Override
+		public void stop()
+		{
+			// Nothing to stop
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.forecast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class DefaultPreStartForecastTest
+{
+	@Test
+	void acquisitionsOnOtherThreadsAreAttributedWhenPropagated(@TempDir final Path tempDir) throws Exception
+	{
+		final DefaultPreStartForecast forecast = new DefaultPreStartForecast(tempDir.resolve("forecast"));
+		forecast.active = true;
+		
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			forecast.enterTestClass("a.Test");
+			executor.submit(forecast.propagateTestContext(() -> forecast.recordAcquire("DB"))).get();
+			// Not propagated -> can't be attributed
+			executor.submit(() -> forecast.recordAcquire("OIDC")).get();
+			forecast.leaveTestClass();
+			
+			// The pooled thread does not keep the class
+			executor.submit(() -> assertNull(forecast.currentTestClasses.get().peek())).get();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		
+		assertNull(forecast.currentTestClasses.get().peek());
+		assertEquals(1, forecast.acquiredInRun.get("a.Test").get("DB").get());
+		assertEquals(1, forecast.acquiredInRun.get("a.Test").size());
+	}
+	
+	@Test
+	void classesWithoutAttributedAcquisitionsStayUnknown(@TempDir final Path tempDir)
+	{
+		final Path recordFile = tempDir.resolve("forecast");
+		final DefaultPreStartForecast forecast = new DefaultPreStartForecast(recordFile);
+		forecast.active = true;
+		
+		forecast.executedTestClasses.add("a.Test");
+		forecast.executedTestClasses.add("b.Test");
+		forecast.enterTestClass("a.Test");
+		CompletableFuture.runAsync(forecast.propagateTestContext(() -> forecast.recordAcquire("DB"))).join();
+		forecast.leaveTestClass();
+		forecast.writeRecorded();
+		
+		final DefaultPreStartForecast nextRun = new DefaultPreStartForecast(recordFile);
+		nextRun.readRecorded();
+		assertEquals(Map.of("a.Test", Map.of("DB", 1)), nextRun.recorded);
+		assertTrue(Files.exists(recordFile));
+	}
+}
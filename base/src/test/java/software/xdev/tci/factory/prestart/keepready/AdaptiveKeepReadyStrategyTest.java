@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.keepready;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+
+class AdaptiveKeepReadyStrategyTest
+{
+	@Test
+	void growsWhenStarved()
+	{
+		final AtomicLong clock = new AtomicLong();
+		final AdaptiveKeepReadyStrategy strategy = new AdaptiveKeepReadyStrategy(1, 5, 1, 60_000, clock::get);
+		
+		clock.addAndGet(1_000);
+		strategy.recordAcquire(false, 10_000);
+		strategy.recalculate(10_000);
+		
+		assertEquals(2, strategy.currentTarget());
+	}
+	
+	@Test
+	void growsOnlyOncePerStarvation()
+	{
+		final AtomicLong clock = new AtomicLong();
+		final AdaptiveKeepReadyStrategy strategy = new AdaptiveKeepReadyStrategy(1, 10, 1, 60_000, clock::get);
+		
+		clock.addAndGet(1_000);
+		strategy.recordAcquire(false, 10_000);
+		for(int i = 0; i < 20; i++)
+		{
+			clock.addAndGet(100);
+			strategy.recalculate(1_000);
+		}
+		assertEquals(2, strategy.currentTarget());
+		
+		strategy.recordAcquire(true, 1_000);
+		strategy.recalculate(1_000);
+		assertEquals(3, strategy.currentTarget());
+	}
+	
+	@Test
+	void growsWithAcquireRate()
+	{
+		final AtomicLong clock = new AtomicLong();
+		final AdaptiveKeepReadyStrategy strategy = new AdaptiveKeepReadyStrategy(1, 10, 1, 60_000, clock::get);
+		
+		// 1 acquire per second and 4s start duration -> 4 need to be in-flight
+		for(int i = 0; i < 60; i++)
+		{
+			clock.addAndGet(1_000);
+			strategy.recordAcquire(true, 0);
+		}
+		strategy.recalculate(4_000);
+		
+		assertEquals(4, strategy.currentTarget());
+	}
+	
+	@Test
+	void shrinksSlowlyAndRespectsBounds()
+	{
+		final AtomicLong clock = new AtomicLong();
+		final AdaptiveKeepReadyStrategy strategy = new AdaptiveKeepReadyStrategy(2, 5, 8, 60_000, clock::get);
+		assertEquals(5, strategy.currentTarget());
+		
+		// No demand
+		clock.addAndGet(15_000);
+		strategy.recalculate(1_000);
+		assertEquals(4, strategy.currentTarget());
+		
+		// Only one step per cooldown
+		strategy.recalculate(1_000);
+		assertEquals(4, strategy.currentTarget());
+		
+		for(int i = 0; i < 10; i++)
+		{
+			clock.addAndGet(15_000);
+			strategy.recalculate(1_000);
+		}
+		assertEquals(2, strategy.currentTarget());
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.factory.prestart.loadbalancing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class ProcFsLoadMonitorTest
+{
+	@Test
+	void parsesProcFiles(@TempDir final Path dir) throws IOException
+	{
+		final Path stat = dir.resolve("stat");
+		final Path meminfo = dir.resolve("meminfo");
+		final Path memoryPressure = dir.resolve("memory");
+		Files.writeString(stat, """
+			cpu  100 0 100 800 0 0 0 0 0 0
+			cpu0 50 0 50 400 0 0 0 0 0 0
+			intr 1 2 3
+			""");
+		Files.writeString(meminfo, """
+			MemTotal:       32768000 kB
+			MemFree:         1000000 kB
+			MemAvailable:    2000000 kB
+			""");
+		Files.writeString(memoryPressure, """
+			some avg10=0.00 avg60=0.00 avg300=0.00 total=1000
+			full avg10=0.00 avg60=0.00 avg300=0.00 total=500
+			""");
+		
+		try(final ProcFsLoadMonitor monitor = new ProcFsLoadMonitor(
+			stat,
+			meminfo,
+			memoryPressure,
+			dir.resolve("does-not-exist"),
+			false))
+		{
+			// Rates require 2 scrapes
+			assertFalse(monitor.getCurrentIdlePercent().isPresent());
+			assertEquals(2_000_000L * 1024, monitor.getAvailableMemoryBytes().orElseThrow());
+			
+			// 1000 ticks passed, 250 of them idle
+			Files.writeString(stat, """
+				cpu  500 0 450 1050 0 0 0 0 0 0
+				""");
+			Files.writeString(memoryPressure, """
+				some avg10=0.00 avg60=0.00 avg300=0.00 total=1000
+				""");
+			monitor.scrape();
+			
+			assertEquals(25.0, monitor.getCurrentIdlePercent().orElseThrow(), 0.001);
+			assertEquals(0.0, monitor.getMemoryPressurePercent().orElseThrow(), 0.001);
+			assertTrue(monitor.getIOPressurePercent().isEmpty());
+		}
+	}
+	
+	@Test
+	void readsShortFileAfterLongerOne(@TempDir final Path dir) throws IOException
+	{
+		final Path stat = dir.resolve("stat");
+		final Path shortFile = dir.resolve("short");
+		Files.writeString(stat, "cpu  100 0 100 800 0 0 0 0 0 0\n" + "cpu0 50 0 50 400 0 0 0 0 0 0\n".repeat(100));
+		Files.writeString(shortFile, "some total=\n");
+		
+		try(final ProcFsLoadMonitor monitor = new ProcFsLoadMonitor(
+			stat,
+			dir.resolve("does-not-exist"),
+			dir.resolve("does-not-exist"),
+			dir.resolve("does-not-exist"),
+			false);
+			final FileChannel shortChannel = FileChannel.open(shortFile, StandardOpenOption.READ))
+		{
+			assertTrue(monitor.read(monitor.statChannel));
+			assertEquals(Files.size(stat), monitor.bufferLength);
+			
+			assertTrue(monitor.read(shortChannel));
+			assertEquals(12, monitor.bufferLength);
+			// Nothing of the previously read file must be visible
+			assertFalse(monitor.seekLine(ProcFsLoadMonitor.CPU_PREFIX));
+		}
+	}
+}
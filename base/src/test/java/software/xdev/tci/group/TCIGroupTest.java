@@ -0,0 +1,201 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.group;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import software.xdev.tci.TCI;
+import software.xdev.tci.factory.PendingInfra;
+
+
+class TCIGroupTest
+{
+	private ExecutorService executor;
+	private final List<String> events = new CopyOnWriteArrayList<>();
+	
+	@BeforeEach
+	void setUp()
+	{
+		this.executor = Executors.newCachedThreadPool();
+	}
+	
+	@AfterEach
+	void tearDown()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	void connectsAllMembersToTheNetworkBeforePostProcessing()
+	{
+		// Only passed if all members connect concurrently
+		final CountDownLatch allConnecting = new CountDownLatch(3);
+		final TCIGroup group = new TCIGroup(this.executor);
+		final TCIGroup.Member<FakeTCI> a = group.addPending(() -> this.pending("a", allConnecting, false));
+		final TCIGroup.Member<FakeTCI> b = group.addPending(() -> this.pending("b", allConnecting, false));
+		final TCIGroup.Member<FakeTCI> c = group.addPending(() -> this.pending("c", allConnecting, false));
+		
+		group.acquire();
+		
+		assertEquals(9, this.events.size(), this.events::toString);
+		assertTrue(this.events.subList(0, 3).stream().allMatch(e -> e.startsWith("acquire")), this.events::toString);
+		assertTrue(this.events.subList(3, 6).stream().allMatch(e -> e.startsWith("connect")), this.events::toString);
+		assertTrue(this.events.subList(6, 9).stream().allMatch(e -> e.startsWith("complete")), this.events::toString);
+		List.of(a, b, c).forEach(m -> assertEquals(0, m.get().stopped.get()));
+	}
+	
+	@Test
+	void stopsOtherMembersWhenOneFails()
+	{
+		final TCIGroup group = new TCIGroup(this.executor);
+		final FakeTCI plain = new FakeTCI("plain");
+		final TCIGroup.Member<FakeTCI> plainMember = group.add(() -> plain);
+		final List<FakeTCI> acquired = new CopyOnWriteArrayList<>();
+		group.addPending(() -> {
+			final PendingInfra<FakeTCI> pending = this.pending("ok", null, false);
+			acquired.add(pending.infra());
+			return pending;
+		});
+		group.addPending(() -> {
+			final PendingInfra<FakeTCI> pending = this.pending("failing", null, true);
+			acquired.add(pending.infra());
+			return pending;
+		});
+		
+		final IllegalStateException ex = assertThrows(IllegalStateException.class, group::acquire);
+		
+		assertEquals("connect failing failed", ex.getMessage());
+		assertEquals(1, plain.stopped.get());
+		assertEquals(2, acquired.size());
+		acquired.forEach(i -> assertEquals(1, i.stopped.get(), i.name));
+		assertTrue(this.events.stream().noneMatch(e -> e.startsWith("complete")), this.events::toString);
+		assertThrows(IllegalStateException.class, plainMember::get);
+	}
+	
+	@Test
+	void stopStopsAllMembers()
+	{
+		final TCIGroup group = new TCIGroup(this.executor);
+		final FakeTCI plain = new FakeTCI("plain");
+		final TCIGroup.Member<FakeTCI> plainMember = group.add(() -> plain);
+		final TCIGroup.Member<FakeTCI> pendingMember = group.addPending(() -> this.pending("pending", null, false));
+		
+		group.acquire();
+		assertSame(plain, plainMember.get());
+		final FakeTCI pending = pendingMember.get();
+		
+		group.stop();
+		
+		assertEquals(1, plain.stopped.get());
+		assertEquals(1, pending.stopped.get());
+		assertThrows(IllegalStateException.class, plainMember::get);
+		assertThrows(IllegalStateException.class, pendingMember::get);
+		
+		// Stopping again does nothing
+		group.stop();
+		assertEquals(1, plain.stopped.get());
+	}
+	
+	private PendingInfra<FakeTCI> pending(
+		final String name,
+		final CountDownLatch allConnecting,
+		final boolean failConnect)
+	{
+		this.events.add("acquire " + name);
+		final FakeTCI infra = new FakeTCI(name);
+		return new PendingInfra<>()
+		{
+			@Override
+			public FakeTCI infra()
+			{
+				return infra;
+			}
+			
+			@Override
+			public void connectToNetwork()
+			{
+				if(allConnecting != null)
+				{
+					allConnecting.countDown();
+					try
+					{
+						assertTrue(allConnecting.await(10, TimeUnit.SECONDS));
+					}
+					catch(final InterruptedException iex)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+				TCIGroupTest.this.events.add("connect " + name);
+				if(failConnect)
+				{
+					throw new IllegalStateException("connect " + name + " failed");
+				}
+			}
+			
+			@Override
+			public FakeTCI complete()
+			{
+				TCIGroupTest.this.events.add("complete " + name);
+				return infra;
+			}
+		};
+	}
+	
+	static class FakeContainer extends GenericContainer<FakeContainer>
+	{
+		FakeContainer()
+		{
+			super(DockerImageName.parse("alpine:3"));
+		}
+	}
+	
+	
+	static class FakeTCI extends TCI<FakeContainer>
+	{
+		final String name;
+		final AtomicInteger stopped = new AtomicInteger();
+		
+		FakeTCI(final String name)
+		{
+			super(new FakeContainer(), name);
+			this.name = name;
+		}
+		
+		@Override
+		public void stop()
+		{
+			this.stopped.incrementAndGet();
+		}
+	}
+}
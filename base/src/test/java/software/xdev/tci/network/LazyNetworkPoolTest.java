@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+
+class LazyNetworkPoolTest
+{
+	private TestPool pool;
+	
+	@AfterEach
+	void shutdown()
+	{
+		if(this.pool != null)
+		{
+			this.pool.shutdown(false);
+		}
+	}
+	
+	@Test
+	void closedNetworkIsRecycled() throws Exception
+	{
+		this.pool = new TestPool(5, Duration.ofMinutes(1));
+		
+		final LazyNetworkLease lease = assertInstanceOf(LazyNetworkLease.class, this.pool.getNew());
+		final FakeNetwork network = (FakeNetwork)lease.getNetwork();
+		lease.close();
+		this.pool.awaitExecutor();
+		
+		assertTrue(this.pool.queue.contains(network));
+		assertFalse(network.deleted);
+		assertEquals(1, network.getUseCount());
+	}
+	
+	@Test
+	void networkExceedingMaxUsesIsDeleted() throws Exception
+	{
+		this.pool = new TestPool(1, Duration.ofMinutes(1));
+		
+		final LazyNetworkLease lease = (LazyNetworkLease)this.pool.getNew();
+		lease.close();
+		this.pool.awaitExecutor();
+		
+		assertFalse(this.pool.queue.contains(lease.getNetwork()));
+		assertTrue(((FakeNetwork)lease.getNetwork()).deleted);
+	}
+	
+	@Test
+	void networkExceedingMaxAgeIsDeleted() throws Exception
+	{
+		this.pool = new TestPool(5, Duration.ZERO);
+		
+		final LazyNetworkLease lease = (LazyNetworkLease)this.pool.getNew();
+		lease.close();
+		this.pool.awaitExecutor();
+		
+		assertFalse(this.pool.queue.contains(lease.getNetwork()));
+		assertTrue(((FakeNetwork)lease.getNetwork()).deleted);
+	}
+	
+	@Test
+	void closingTwiceReturnsOnlyOnce() throws Exception
+	{
+		this.pool = new TestPool(5, Duration.ofMinutes(1));
+		
+		final LazyNetworkLease lease = (LazyNetworkLease)this.pool.getNew();
+		lease.close();
+		lease.close();
+		this.pool.awaitExecutor();
+		
+		assertEquals(1, this.pool.returned);
+		assertTrue(this.pool.queue.contains(lease.getNetwork()));
+		assertFalse(((FakeNetwork)lease.getNetwork()).deleted);
+	}
+	
+	@Test
+	void staleCloseDoesNotReturnNetworkOfNewHolder() throws Exception
+	{
+		this.pool = new TestPool(5, Duration.ofMinutes(1));
+		
+		final LazyNetworkLease staleLease = (LazyNetworkLease)this.pool.getNew();
+		final LazyNetwork network = staleLease.getNetwork();
+		staleLease.close();
+		this.pool.awaitExecutor();
+		
+		// Hand out the recycled network again
+		assertTrue(this.pool.queue.remove(network));
+		final LazyNetworkLease currentLease = network.handOut(this.pool::returnNetworkAsync);
+		
+		staleLease.close();
+		this.pool.awaitExecutor();
+		
+		assertEquals(1, this.pool.returned);
+		assertFalse(this.pool.queue.contains(network));
+		assertFalse(((FakeNetwork)network).deleted);
+		
+		currentLease.close();
+		this.pool.awaitExecutor();
+		
+		assertEquals(2, this.pool.returned);
+		assertTrue(this.pool.queue.contains(network));
+	}
+	
+	static class TestPool extends LazyNetworkPool
+	{
+		volatile int returned;
+		
+		TestPool(final int maxUses, final Duration maxAge)
+		{
+			super(1, Executors.newSingleThreadExecutor(), "test");
+			this.withNetworkSupplier(FakeNetwork::new);
+			this.withRecycling(maxUses, maxAge);
+		}
+		
+		@Override
+		protected void recycleOrDelete(final LazyNetwork network)
+		{
+			this.returned++;
+			super.recycleOrDelete(network);
+		}
+		
+		@Override
+		protected boolean awaitAllEndpointsDisconnected(final LazyNetwork network)
+		{
+			return true;
+		}
+		
+		void awaitExecutor() throws Exception
+		{
+			// Single threaded -> all previously submitted tasks are done afterwards
+			this.executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+		}
+	}
+	
+	
+	static class FakeNetwork extends LazyNetwork
+	{
+		volatile boolean deleted;
+		
+		@Override
+		protected synchronized void startInternal()
+		{
+			this.name = "fake-" + UUID.randomUUID();
+			this.id = this.name;
+			this.createdAtMs = System.currentTimeMillis();
+			this.startCF = null;
+		}
+		
+		@Override
+		protected synchronized void closeInternal()
+		{
+			this.deleted = true;
+			this.id = null;
+		}
+	}
+}
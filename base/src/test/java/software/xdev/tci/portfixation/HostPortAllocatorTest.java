@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.portfixation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.dockerjava.api.model.InternetProtocol;
+
+
+class HostPortAllocatorTest
+{
+	@Test
+	void allocatesDistinctPortsAcrossBatches()
+	{
+		final HostPortAllocator allocator = new HostPortAllocator();
+		
+		final Map<InternetProtocol, List<Integer>> first = allocator.allocate(Map.of(
+			InternetProtocol.TCP, 5,
+			InternetProtocol.UDP, 2));
+		final Map<InternetProtocol, List<Integer>> second = allocator.allocate(Map.of(InternetProtocol.TCP, 5));
+		
+		assertEquals(2, first.get(InternetProtocol.UDP).size());
+		
+		final Set<Integer> tcpPorts = new HashSet<>(first.get(InternetProtocol.TCP));
+		tcpPorts.addAll(second.get(InternetProtocol.TCP));
+		assertEquals(10, tcpPorts.size());
+		assertTrue(tcpPorts.stream().allMatch(p -> p > 0));
+	}
+}
@@ -15,15 +15,101 @@
  */
 package software.xdev.tci.portfixation;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
 
 
 class PortFixationTest
 {
+	@AfterEach
+	void resetPortAllocator()
+	{
+		PortFixation.setPortAllocator(null);
+	}
+	
 	@Test
 	void checkInitWorks()
 	{
 		Assertions.assertDoesNotThrow(PortFixation::initReflectFuncs);
 	}
+	
+	@Test
+	void concurrentFixationsAreBatched() throws Exception
+	{
+		final CountDownLatch firstAllocationStarted = new CountDownLatch(1);
+		final CountDownLatch releaseFirstAllocation = new CountDownLatch(1);
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		final AtomicInteger nextPort = new AtomicInteger(20_000);
+		PortFixation.setPortAllocator(protocolAmounts -> {
+			final int amount = protocolAmounts.values().stream().mapToInt(Integer::intValue).sum();
+			batchSizes.add(amount);
+			if(batchSizes.size() == 1)
+			{
+				firstAllocationStarted.countDown();
+				await(releaseFirstAllocation);
+			}
+			return protocolAmounts.entrySet()
+				.stream()
+				.collect(Collectors.toMap(
+					Map.Entry::getKey,
+					e -> IntStream.range(0, e.getValue()).mapToObj(i -> nextPort.getAndIncrement()).toList()));
+		});
+		
+		final List<GenericContainer<?>> containers = IntStream.range(0, 3)
+			.<GenericContainer<?>>mapToObj(i -> new GenericContainer<>(DockerImageName.parse("alpine:3"))
+				.withExposedPorts(80))
+			.toList();
+		
+		final CompletableFuture<Void> first =
+			CompletableFuture.runAsync(() -> PortFixation.makeExposedPortsFix(containers.get(0)));
+		assertTrue(firstAllocationStarted.await(10, TimeUnit.SECONDS));
+		
+		final List<CompletableFuture<Void>> others = containers.subList(1, 3)
+			.stream()
+			.map(c -> CompletableFuture.runAsync(() -> PortFixation.makeExposedPortsFix(c)))
+			.toList();
+		// Wait until both are waiting for the running allocation
+		while(PortFixation.PENDING_FIXATIONS.size() < 2)
+		{
+			Thread.sleep(10);
+		}
+		releaseFirstAllocation.countDown();
+		
+		first.get(10, TimeUnit.SECONDS);
+		for(final CompletableFuture<Void> other : others)
+		{
+			other.get(10, TimeUnit.SECONDS);
+		}
+		
+		assertEquals(List.of(1, 2), batchSizes);
+		containers.forEach(c -> assertEquals(1, c.getPortBindings().size()));
+	}
+	
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch(final InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
 }
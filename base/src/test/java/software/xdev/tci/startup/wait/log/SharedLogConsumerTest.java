@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.OutputFrame;
+
+
+class SharedLogConsumerTest
+{
+	@Test
+	void splitsLinesAcrossFramesAndReplays()
+	{
+		final List<OutputFrame> delegated = new ArrayList<>();
+		final SharedLogConsumer consumer = new SharedLogConsumer(delegated::add);
+		
+		consumer.accept(frame("Sta"));
+		consumer.accept(frame("rted\nRea"));
+		
+		final List<String> lines = new ArrayList<>();
+		final AtomicBoolean ended = new AtomicBoolean();
+		try(final SharedLogConsumer.Registration ignored = consumer.register(new SharedLogConsumer.LineListener()
+		{
+			@Override
+			public void onLine(final SharedLogConsumer.Line line)
+			{
+				lines.add(line.text());
+			}
+			
+			@Override
+			public void onEnd()
+			{
+				ended.set(true);
+			}
+		}))
+		{
+			consumer.accept(frame("dy\n"));
+			consumer.accept(frame("Done"));
+			consumer.accept(OutputFrame.END);
+		}
+		
+		assertEquals(List.of("Started\n", "Ready\n", "Done"), lines);
+		assertTrue(ended.get());
+		assertEquals(5, delegated.size());
+	}
+	
+	@Test
+	void replayIsBoundedAndStopsWhenRequested()
+	{
+		final SharedLogConsumer consumer = new SharedLogConsumer(null, 2);
+		consumer.accept(frame("1\n2\n3\n"));
+		
+		final List<String> replayed = new ArrayList<>();
+		consumer.register(line -> replayed.add(line.text())).close();
+		assertEquals(List.of("2\n", "3\n"), replayed);
+		
+		consumer.stopReplayBuffering();
+		consumer.accept(frame("4\n"));
+		
+		final List<String> lines = new ArrayList<>();
+		try(final SharedLogConsumer.Registration ignored = consumer.register(line -> lines.add(line.text())))
+		{
+			consumer.accept(frame("5\n"));
+		}
+		assertEquals(List.of("5\n"), lines);
+	}
+	
+	private static OutputFrame frame(final String text)
+	{
+		return new OutputFrame(OutputFrame.OutputType.STDOUT, text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class ProbeScheduleTest
+{
+	@Test
+	void historyIsPersistedAndBounded(@TempDir final Path dir)
+	{
+		final Path file = dir.resolve("history.properties");
+		final ProbeScheduleHistory history = new ProbeScheduleHistory(file, 2);
+		history.record("image@strategy", 100);
+		history.record("image@strategy", 200);
+		history.record("image@strategy", 300);
+		history.write();
+		
+		final ProbeScheduleHistory readHistory = new ProbeScheduleHistory(file, 2);
+		readHistory.read();
+		assertEquals(List.of(200L, 300L), readHistory.samples("image@strategy"));
+	}
+	
+	@Test
+	void intervalBacksOffUntilMax()
+	{
+		final ProbeSchedule schedule = new ProbeSchedule(null, "key", 1000, 10, 100);
+		assertTrue(schedule.isLearned());
+		
+		long last = 0;
+		for(int i = 0; i < 20; i++)
+		{
+			last = schedule.nextIntervalMs();
+		}
+		// Max + jitter
+		assertTrue(last >= 80 && last <= 120, "Unexpected interval " + last);
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.startup.wait.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.wait.strategy.WaitAllStrategy;
+import org.testcontainers.containers.wait.strategy.WaitStrategyTarget;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+
+import software.xdev.tci.startup.wait.AbortMonitor;
+import software.xdev.tci.startup.wait.holder.AbortableStrategyValues;
+import software.xdev.tci.startup.wait.holder.AbortableStrategyValuesHolder;
+import software.xdev.tci.tracing.TCITracer;
+
+
+class WaitAllAbortableStrategyTest
+{
+	private static final WaitStrategyTarget TARGET = new WaitStrategyTarget()
+	{
+		@Override
+		public List<Integer> getExposedPorts()
+		{
+			return List.of();
+		}
+		
+		@Override
+		public InspectContainerResponse getContainerInfo()
+		{
+			return null;
+		}
+	};
+	
+	private ExecutorService executor;
+	private final TCITracer tracer = new TCITracer();
+	
+	@BeforeEach
+	void setUp()
+	{
+		this.executor = Executors.newCachedThreadPool();
+	}
+	
+	@AfterEach
+	void tearDown()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	void tracesEveryNestedStrategy()
+	{
+		this.waitUntilReady(new WaitAllAbortableStrategy()
+			.withConcurrent(true)
+			.withStrategy(new ReadyStrategy())
+			.withStrategy(new UntilAbortedStrategy(new CountDownLatch(1), new CountDownLatch(0))));
+		
+		assertEquals(
+			Set.of("waitStrategy.ReadyStrategy", "waitStrategy.UntilAbortedStrategy"),
+			this.tracer.getTimers().keySet());
+	}
+	
+	@Test
+	void failsFastAndAbortsOtherStrategies()
+	{
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch aborted = new CountDownLatch(1);
+		final long startMs = System.currentTimeMillis();
+		
+		final IllegalStateException ex = assertThrows(
+			IllegalStateException.class,
+			() -> this.waitUntilReady(new WaitAllAbortableStrategy(WaitAllStrategy.Mode.WITH_INDIVIDUAL_TIMEOUTS_ONLY)
+				.withConcurrent(true)
+				.withStrategy(new UntilAbortedStrategy(started, aborted))
+				.withStrategy(new FailingStrategy(started))));
+		
+		assertEquals("failed", ex.getMessage());
+		assertTrue(System.currentTimeMillis() - startMs < 5_000);
+		assertTrue(awaitQuietly(aborted));
+	}
+	
+	@Test
+	void outerTimeoutAbortsNestedStrategies()
+	{
+		final CountDownLatch aborted = new CountDownLatch(2);
+		
+		assertThrows(
+			RuntimeException.class,
+			() -> this.waitUntilReady(new WaitAllAbortableStrategy()
+				.withConcurrent(true)
+				.withStrategy(new UntilAbortedStrategy(new CountDownLatch(1), aborted))
+				.withStrategy(new UntilAbortedStrategy(new CountDownLatch(1), aborted))
+				.withStartupTimeout(Duration.ofMillis(200))));
+		
+		// Nested strategies must not continue to run after the outer timeout
+		assertTrue(awaitQuietly(aborted));
+	}
+	
+	private void waitUntilReady(final WaitAllAbortableStrategy strategy)
+	{
+		AbortableStrategyValuesHolder.executeWith(
+			() -> strategy.waitUntilReady(TARGET),
+			new AbortableStrategyValues(new AbortMonitor(), this.executor, this.tracer));
+	}
+	
+	private static boolean awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			return latch.await(5, TimeUnit.SECONDS);
+		}
+		catch(final InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	static class ReadyStrategy extends AbstractWaitAbortableStrategy<ReadyStrategy>
+	{
+	}
+	
+	
+	static class FailingStrategy extends AbstractWaitAbortableStrategy<FailingStrategy>
+	{
+		private final CountDownLatch othersStarted;
+		
+		FailingStrategy(final CountDownLatch othersStarted)
+		{
+			this.othersStarted = othersStarted;
+		}
+		
+		@Override
+		protected void waitUntilReady(final AbortMonitor abortMonitor)
+		{
+			// Otherwise the others might not even start
+			awaitQuietly(this.othersStarted);
+			throw new IllegalStateException("failed");
+		}
+	}
+	
+	
+	/**
+	 * Only gets ready when aborted (or the latch was already counted down)
+	 */
+	static class UntilAbortedStrategy extends AbstractWaitAbortableStrategy<UntilAbortedStrategy>
+	{
+		private final CountDownLatch started;
+		private final CountDownLatch aborted;
+		
+		UntilAbortedStrategy(final CountDownLatch started, final CountDownLatch aborted)
+		{
+			this.started = started;
+			this.aborted = aborted;
+		}
+		
+		@Override
+		protected void waitUntilReady(final AbortMonitor abortMonitor)
+		{
+			this.started.countDown();
+			final long deadline = System.currentTimeMillis() + 30_000;
+			while(this.aborted.getCount() > 0 && System.currentTimeMillis() < deadline)
+			{
+				if(abortMonitor.shouldAbort())
+				{
+					this.aborted.countDown();
+					return;
+				}
+				try
+				{
+					Thread.sleep(10);
+				}
+				catch(final InterruptedException iex)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.stop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import software.xdev.tci.TCI;
+import software.xdev.tci.stop.config.StopPipelineConfig;
+
+
+class TCIStopPipelineTest
+{
+	private TCIStopPipeline pipeline;
+	
+	@AfterEach
+	void tearDown()
+	{
+		TCIStopPipeline.setInstance(null);
+		if(this.pipeline != null)
+		{
+			this.pipeline.executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	void concurrencyIsBounded()
+	{
+		this.pipeline = new TCIStopPipeline(maxConcurrent(2));
+		
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final List<CompletableFuture<Void>> cfs = IntStream.range(0, 6)
+			.mapToObj(i -> this.pipeline.submit(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleepQuietly(50);
+				running.decrementAndGet();
+			}))
+			.toList();
+		
+		assertTrue(this.pipeline.awaitAll(Duration.ofSeconds(10)));
+		assertTrue(cfs.stream().allMatch(CompletableFuture::isDone));
+		assertEquals(2, maxRunning.get());
+		assertEquals(0, this.pipeline.pendingCount());
+	}
+	
+	@Test
+	void awaitAllTimesOutWhileStopsArePending()
+	{
+		this.pipeline = new TCIStopPipeline(maxConcurrent(1));
+		
+		final CountDownLatch release = new CountDownLatch(1);
+		this.pipeline.submit(() -> awaitQuietly(release));
+		this.pipeline.submit(() -> {
+			throw new IllegalStateException("Failures are only logged");
+		});
+		
+		assertFalse(this.pipeline.awaitAll(Duration.ofMillis(50)));
+		assertEquals(2, this.pipeline.pendingCount());
+		
+		release.countDown();
+		assertTrue(this.pipeline.awaitAll(Duration.ofSeconds(10)));
+		assertEquals(0, this.pipeline.pendingCount());
+	}
+	
+	@Test
+	void stopAsyncForceRemovesOnlyWhenNotRecycled()
+	{
+		this.pipeline = new TCIStopPipeline(maxConcurrent(1));
+		TCIStopPipeline.setInstance(this.pipeline);
+		
+		final FakeTCI tci = new FakeTCI();
+		final AtomicInteger recycled = new AtomicInteger();
+		tci.setRecycler(() -> recycled.incrementAndGet() > 0);
+		
+		tci.stopAsync().join();
+		assertEquals(1, recycled.get());
+		assertEquals(0, tci.forceRemoved.get());
+		assertEquals(0, tci.container.stopped.get());
+		
+		// Recycled and later stopped regularly -> graceful
+		tci.stop();
+		assertEquals(0, tci.forceRemoved.get());
+		assertEquals(1, tci.container.stopped.get());
+		assertNull(tci.getContainer());
+		
+		final FakeTCI notRecycled = new FakeTCI();
+		notRecycled.stopAsync().join();
+		assertEquals(1, notRecycled.forceRemoved.get());
+		assertEquals(1, notRecycled.container.stopped.get());
+	}
+	
+	private static StopPipelineConfig maxConcurrent(final int maxConcurrent)
+	{
+		return new StopPipelineConfig()
+		{
+			@Override
+			public int maxConcurrent()
+			{
+				return maxConcurrent;
+			}
+		};
+	}
+	
+	private static void sleepQuietly(final long ms)
+	{
+		try
+		{
+			Thread.sleep(ms);
+		}
+		catch(final InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch(final InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	static class FakeContainer extends GenericContainer<FakeContainer>
+	{
+		final AtomicInteger stopped = new AtomicInteger();
+		
+		FakeContainer()
+		{
+			super(DockerImageName.parse("alpine:3"));
+		}
+		
+		@Override
+		public void stop()
+		{
+			this.stopped.incrementAndGet();
+		}
+	}
+	
+	
+	static class FakeTCI extends TCI<FakeContainer>
+	{
+		final FakeContainer container;
+		final AtomicInteger forceRemoved = new AtomicInteger();
+		
+		FakeTCI()
+		{
+			this(new FakeContainer());
+		}
+		
+		FakeTCI(final FakeContainer container)
+		{
+			super(container, null);
+			this.container = container;
+		}
+		
+		@Override
+		protected void forceRemoveContainer()
+		{
+			this.forceRemoved.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+
+class LatencyHistogramTest
+{
+	@Test
+	void percentilesAreWithinRelativeError()
+	{
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for(long i = 1; i <= 1000; i++)
+		{
+			histogram.recordNanos(i * 1_000_000L);
+		}
+		
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000_000_000L, histogram.getMaxNanos());
+		assertWithinRelativeError(500_000_000L, histogram.getPercentileNanos(50));
+		assertWithinRelativeError(990_000_000L, histogram.getPercentileNanos(99));
+		assertEquals(histogram.getMaxNanos(), histogram.getPercentileNanos(100));
+	}
+	
+	@Test
+	void concurrentRecordingLosesNothing()
+	{
+		final LatencyHistogram histogram = new LatencyHistogram();
+		IntStream.range(0, 100_000)
+			.parallel()
+			.forEach(i -> histogram.recordNanos(i));
+		
+		assertEquals(100_000, histogram.getCount());
+		assertEquals(99_999, histogram.getMaxNanos());
+	}
+	
+	@Test
+	void timedKeepsMsApi()
+	{
+		final TCITracer.Timed timed = new TCITracer.Timed();
+		timed.addMs(10);
+		timed.addMs(30);
+		
+		assertEquals(2, timed.getCountCalled());
+		assertEquals(40, timed.getTotalMs());
+		assertEquals(20, timed.getAverageMsRounded());
+		assertEquals(30, timed.getMaxMs());
+	}
+	
+	private static void assertWithinRelativeError(final long expected, final long actual)
+	{
+		assertTrue(
+			Math.abs(expected - actual) <= expected * 0.04,
+			"Expected ~" + expected + " but was " + actual);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class PerformanceHistoryTest
+{
+	private static final Pattern ALL = Pattern.compile(".*");
+	
+	@Test
+	void entriesAreAppended(@TempDir final Path dir)
+	{
+		final PerformanceHistory history = new PerformanceHistory(dir.resolve("history.tsv"));
+		history.append(List.of(entry(1, "DB", 1000)));
+		history.append(List.of(entry(2, "DB", 1100), entry(2, "Web", 500)));
+		
+		final List<PerformanceHistory.Entry> read = history.read();
+		assertEquals(3, read.size());
+		assertEquals(entry(2, "Web", 500), read.get(2));
+	}
+	
+	@Test
+	void regressionIsDetectedAgainstMedianBaseline()
+	{
+		final List<PerformanceHistory.Entry> previous = List.of(
+			entry(1, "DB", 1000),
+			entry(2, "DB", 5000), // Outlier
+			entry(3, "DB", 1100),
+			entry(1, "Web", 500),
+			entry(2, "Web", 510),
+			entry(3, "Web", 490));
+		
+		final List<PerformanceHistory.Regression> regressions = PerformanceHistory.detectRegressions(
+			previous,
+			List.of(entry(4, "DB", 1800), entry(4, "Web", 520)),
+			ALL,
+			10,
+			3,
+			25,
+			100);
+		
+		assertEquals(1, regressions.size());
+		assertEquals("DB", regressions.get(0).scope());
+		assertEquals(1100, regressions.get(0).baselineMs());
+	}
+	
+	@Test
+	void noRegressionWithoutEnoughBaselineRuns()
+	{
+		assertTrue(PerformanceHistory.detectRegressions(
+			List.of(entry(1, "DB", 1000)),
+			List.of(entry(2, "DB", 9000)),
+			ALL,
+			10,
+			3,
+			25,
+			100).isEmpty());
+	}
+	
+	private static PerformanceHistory.Entry entry(final long run, final String scope, final double avgMs)
+	{
+		return new PerformanceHistory.Entry(run, scope, "getNew", 1, avgMs, Math.round(avgMs));
+	}
+}
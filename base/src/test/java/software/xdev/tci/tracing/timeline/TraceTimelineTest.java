@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2024 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.tci.tracing.timeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+
+class TraceTimelineTest
+{
+	private static final Pattern COMPLETE_EVENT = Pattern.compile(
+		"\\{\"ph\":\"X\",\"pid\":1,\"tid\":(\\d+),\"ts\":(\\d+),\"dur\":(\\d+),"
+			+ "\"cat\":\"([^\"]*)\",\"name\":\"(\\w+)\"}");
+	
+	@Test
+	void escapesNames() throws IOException
+	{
+		final TraceTimeline timeline = new TraceTimeline();
+		timeline.start(100);
+		timeline.span("cat", "a\"b\\c\nd\te\u0001", System.nanoTime(), 1_000);
+		
+		final String json = write(timeline);
+		
+		assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["), json);
+		assertTrue(json.endsWith("]}"), json);
+		assertTrue(json.contains("\"name\":\"a\\\"b\\\\c\\nd\\te\\u0001\""), json);
+		assertTrue(json.contains("\"name\":\"thread_name\",\"args\":{\"name\":\""
+			+ Thread.currentThread().getName() + "\"}"), json);
+	}
+	
+	@Test
+	void nestedSpansAreWithinTheirParent() throws IOException
+	{
+		final TraceTimeline timeline = new TraceTimeline();
+		timeline.start(100);
+		
+		final long outerStart = System.nanoTime();
+		timeline.span("cat", "inner", outerStart + 2_000_000, 3_000_000);
+		timeline.span("cat", "outer", outerStart, 10_000_000);
+		
+		final Matcher matcher = COMPLETE_EVENT.matcher(write(timeline));
+		assertTrue(matcher.find());
+		final long[] inner = {Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3))};
+		final String innerTid = matcher.group(1);
+		assertEquals("inner", matcher.group(5));
+		assertTrue(matcher.find());
+		final long[] outer = {Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3))};
+		assertEquals("outer", matcher.group(5));
+		
+		assertEquals(innerTid, matcher.group(1));
+		assertEquals(2_000, inner[0] - outer[0]);
+		assertEquals(3_000, inner[1]);
+		assertEquals(10_000, outer[1]);
+		assertTrue(inner[0] + inner[1] <= outer[0] + outer[1]);
+	}
+	
+	@Test
+	void writesCountersWithResolvedCategory() throws IOException
+	{
+		final Object source = new Object();
+		final TraceTimeline timeline = new TraceTimeline();
+		timeline.start(100);
+		timeline.counter(source, "slots", 3);
+		timeline.counter("direct", "idlePercent", 42);
+		
+		final StringWriter writer = new StringWriter();
+		timeline.write(writer, s -> s == source ? "resolved" : null);
+		final String json = writer.toString();
+		
+		assertTrue(json.contains("\"cat\":\"resolved\",\"name\":\"resolved.slots\",\"args\":{\"value\":3}}"), json);
+		assertTrue(json.contains("\"cat\":\"direct\",\"name\":\"direct.idlePercent\",\"args\":{\"value\":42}}"), json);
+	}
+	
+	@Test
+	void dropsEventsWhenDisabledOrFull() throws IOException
+	{
+		final TraceTimeline timeline = new TraceTimeline();
+		timeline.span("cat", "beforeStart", System.nanoTime(), 1);
+		
+		timeline.start(2);
+		List.of("a", "b", "c").forEach(name -> timeline.span("cat", name, System.nanoTime(), 1));
+		timeline.stop();
+		timeline.counter("cat", "afterStop", 1);
+		
+		final String json = write(timeline);
+		assertFalse(json.contains("beforeStart"), json);
+		assertTrue(json.contains("\"name\":\"a\""), json);
+		assertTrue(json.contains("\"name\":\"b\""), json);
+		assertFalse(json.contains("\"name\":\"c\""), json);
+		assertFalse(json.contains("afterStop"), json);
+	}
+	
+	private static String write(final TraceTimeline timeline) throws IOException
+	{
+		final StringWriter writer = new StringWriter();
+		timeline.write(writer, s -> null);
+		return writer.toString();
+	}
+}
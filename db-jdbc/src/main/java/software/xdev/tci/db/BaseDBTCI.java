@@ -15,11 +15,21 @@
  */
 package software.xdev.tci.db;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.Driver;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import javax.sql.DataSource;
@@ -31,12 +41,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.JdbcDatabaseContainer;
 
+import software.xdev.tci.RecyclableTCI;
 import software.xdev.tci.TCI;
 import software.xdev.tci.db.persistence.EntityManagerController;
 import software.xdev.tci.db.persistence.EntityManagerControllerFactory;
 
 
-public abstract class BaseDBTCI<C extends JdbcDatabaseContainer<C>> extends TCI<C>
+public abstract class BaseDBTCI<C extends JdbcDatabaseContainer<C>> extends TCI<C> implements RecyclableTCI
 {
 	protected static final Map<Class<?>, Logger> LOGGER_CACHE = new ConcurrentHashMap<>();
 	
@@ -56,6 +67,16 @@ public abstract class BaseDBTCI<C extends JdbcDatabaseContainer<C>> extends TCI<
 	
 	protected EntityManagerController emc;
 	
+	/**
+	 * Tables that should not be cleared when the infra is recycled (see {@link #resetForReuse()}).
+	 * <p>
+	 * Compared case-insensitive. By default everything that contains <code>flyway</code> (migration history) is
+	 * excluded.
+	 * </p>
+	 */
+	protected Predicate<String> excludeTableFromReset =
+		tableName -> tableName.toLowerCase(Locale.ROOT).contains("flyway");
+	
 	protected BaseDBTCI(
 		final C container,
 		final String networkAlias,
@@ -105,6 +126,79 @@ public abstract class BaseDBTCI<C extends JdbcDatabaseContainer<C>> extends TCI<
 		super.stop();
 	}
 	
+	/**
+	 * Deletes the data of all tables (except the excluded ones) so that the database can be reused.
+	 * <p>
+	 * As the order of deletion might be restricted by foreign keys, multiple passes are executed until all tables
+	 * are empty.
+	 * </p>
+	 */
+	@Override
+	public void resetForReuse()
+	{
+		try(final Connection con = this.createDataSource().getConnection())
+		{
+			final List<String> tables = this.determineTablesToReset(con);
+			
+			List<String> remaining = tables;
+			// Every pass must at least clear one table - otherwise there is a problem
+			for(int pass = 0; pass < tables.size() && !remaining.isEmpty(); pass++)
+			{
+				final List<String> failed = new ArrayList<>();
+				final List<SQLException> errors = new ArrayList<>();
+				for(final String table : remaining)
+				{
+					try(final Statement stmt = con.createStatement())
+					{
+						stmt.executeUpdate("DELETE FROM " + table);
+					}
+					catch(final SQLException ex)
+					{
+						failed.add(table);
+						errors.add(ex);
+					}
+				}
+				if(failed.size() == remaining.size())
+				{
+					final IllegalStateException ex = new IllegalStateException("Unable to clear tables " + failed);
+					errors.forEach(ex::addSuppressed);
+					throw ex;
+				}
+				remaining = failed;
+			}
+		}
+		catch(final SQLException ex)
+		{
+			throw new IllegalStateException("Failed to reset database", ex);
+		}
+		
+		if(this.migrateAndInitializeEMC)
+		{
+			// Was closed when stopped; Re-initialize it in the background
+			this.getEMC();
+		}
+	}
+	
+	protected List<String> determineTablesToReset(final Connection con) throws SQLException
+	{
+		final DatabaseMetaData metaData = con.getMetaData();
+		final String quote = Objects.requireNonNullElse(metaData.getIdentifierQuoteString(), "").trim();
+		
+		final List<String> tables = new ArrayList<>();
+		try(final ResultSet rs = metaData.getTables(con.getCatalog(), con.getSchema(), "%", new String[]{"TABLE"}))
+		{
+			while(rs.next())
+			{
+				final String tableName = rs.getString("TABLE_NAME");
+				if(!this.excludeTableFromReset.test(tableName))
+				{
+					tables.add(quote + tableName + quote);
+				}
+			}
+		}
+		return tables;
+	}
+	
 	public EntityManagerController getEMC()
 	{
 		if(this.emc == null)
@@ -205,6 +299,12 @@ public abstract class BaseDBTCI<C extends JdbcDatabaseContainer<C>> extends TCI<
 		return this;
 	}
 	
+	public BaseDBTCI<C> withExcludeTableFromReset(final Predicate<String> excludeTableFromReset)
+	{
+		this.excludeTableFromReset = Objects.requireNonNull(excludeTableFromReset);
+		return this;
+	}
+	
 	public boolean isMigrateAndInitializeEMC()
 	{
 		return this.migrateAndInitializeEMC;
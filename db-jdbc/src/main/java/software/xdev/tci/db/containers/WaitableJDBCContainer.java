@@ -41,6 +41,7 @@ public interface WaitableJDBCContainer extends WaitStrategyTarget
 	{
 		return FastAbortOnContainerDeathWaitStrategy.waitAll(s -> s
 			.withStartupTimeout(Duration.ofSeconds(40L + EnvironmentPerformance.cpuSlownessFactor() * 20L))
+			.withConcurrent(true)
 			.withStrategy(new HostPortWaitAbortableStrategy())
 			.withStrategy(new JDBCWaitStrategy())
 		);
@@ -19,8 +19,11 @@ import java.sql.Connection;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import jakarta.persistence.EntityManager;
+
 import org.rnorth.ducttape.unreliables.Unreliables;
 import org.testcontainers.containers.JdbcDatabaseContainer;
 
@@ -34,6 +37,19 @@ import software.xdev.tci.factory.prestart.config.PreStartConfig;
 public abstract class BaseDBTCIFactory<C extends JdbcDatabaseContainer<C>, I extends BaseDBTCI<C>>
 	extends PreStartableTCIFactory<C, I>
 {
+	/**
+	 * Snapshot level after additional migrations were executed
+	 *
+	 * @see #withMigratedSnapshotLevel(String...)
+	 */
+	public static final String SNAPSHOT_LEVEL_MIGRATED = "migrated";
+	/**
+	 * Snapshot level after test data was inserted
+	 *
+	 * @see #withSeededSnapshotLevel(Consumer)
+	 */
+	public static final String SNAPSHOT_LEVEL_SEEDED = "seeded";
+	
 	protected BaseDBTCIFactory(
 		final BiFunction<C, String, I> infraBuilder,
 		final Supplier<C> containerBuilder)
@@ -72,6 +88,34 @@ public abstract class BaseDBTCIFactory<C extends JdbcDatabaseContainer<C>, I ext
 		super(infraBuilder, containerBuilder, containerBaseName, containerLoggerName, name, config, timeouts);
 	}
 	
+	/**
+	 * Adds the snapshot level {@link #SNAPSHOT_LEVEL_MIGRATED} which executes the given migrations.
+	 * <p>
+	 * Note that the initial migration is already executed when the database is started (if enabled) and therefore
+	 * part of the {@link software.xdev.tci.factory.prestart.snapshoting.SnapshotManager#LEVEL_STARTED started}
+	 * snapshot.
+	 * </p>
+	 */
+	public BaseDBTCIFactory<C, I> withMigratedSnapshotLevel(final String... locations)
+	{
+		this.withSnapshotLevel(SNAPSHOT_LEVEL_MIGRATED, infra -> infra.migrateDatabase(locations));
+		return this;
+	}
+	
+	/**
+	 * Adds the snapshot level {@link #SNAPSHOT_LEVEL_SEEDED} which inserts test data, e.g. using a
+	 * {@link software.xdev.tci.db.datageneration.BaseDBDataGenerator}.
+	 * <p>
+	 * Infrastructure with the seeded data can be acquired using
+	 * <code>getNewAtLevel(SNAPSHOT_LEVEL_SEEDED, ...)</code>.
+	 * </p>
+	 */
+	public BaseDBTCIFactory<C, I> withSeededSnapshotLevel(final Consumer<EntityManager> seeder)
+	{
+		this.withSnapshotLevel(SNAPSHOT_LEVEL_SEEDED, infra -> infra.useNewEntityManager(seeder));
+		return this;
+	}
+	
 	@Override
 	protected void postProcessNew(final I infra)
 	{
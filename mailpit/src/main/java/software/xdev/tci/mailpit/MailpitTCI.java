@@ -15,6 +15,12 @@
  */
 package software.xdev.tci.mailpit;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
 
 import org.apache.hc.client5.http.config.ConnectionConfig;
@@ -24,11 +30,12 @@ import org.apache.hc.core5.util.Timeout;
 import org.slf4j.LoggerFactory;
 
 import software.xdev.mailpit.client.ApiClient;
+import software.xdev.tci.RecyclableTCI;
 import software.xdev.tci.TCI;
 import software.xdev.tci.mailpit.containers.MailpitContainer;
 
 
-public class MailpitTCI extends TCI<MailpitContainer>
+public class MailpitTCI extends TCI<MailpitContainer> implements RecyclableTCI
 {
 	protected ApiClient apiClient;
 	
@@ -81,7 +88,40 @@ public class MailpitTCI extends TCI<MailpitContainer>
 			{
 				LoggerFactory.getLogger(this.getClass()).warn("Failed to close API client", e);
 			}
+			this.apiClient = null;
 		}
 		super.stop();
 	}
+	
+	/**
+	 * Deletes all messages so that the inbox is empty.
+	 */
+	@Override
+	public void resetForReuse()
+	{
+		try(final HttpClient httpClient = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(10))
+			.build())
+		{
+			final HttpResponse<Void> response = httpClient.send(
+				HttpRequest.newBuilder(URI.create(this.getExternalHTTPEndpoint() + "/api/v1/messages"))
+					.timeout(Duration.ofSeconds(30))
+					.DELETE()
+					.build(),
+				HttpResponse.BodyHandlers.discarding());
+			if(response.statusCode() != 200)
+			{
+				throw new IllegalStateException("Failed to delete messages - HTTP " + response.statusCode());
+			}
+		}
+		catch(final IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+		catch(final InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", iex);
+		}
+	}
 }
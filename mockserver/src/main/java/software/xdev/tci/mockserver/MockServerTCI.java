@@ -16,11 +16,12 @@
 package software.xdev.tci.mockserver;
 
 import software.xdev.mockserver.client.MockServerClient;
+import software.xdev.tci.RecyclableTCI;
 import software.xdev.tci.TCI;
 import software.xdev.testcontainers.mockserver.containers.MockServerContainer;
 
 
-public abstract class MockServerTCI extends TCI<MockServerContainer>
+public abstract class MockServerTCI extends TCI<MockServerContainer> implements RecyclableTCI
 {
 	protected MockServerClient client;
 	
@@ -33,7 +34,22 @@ public abstract class MockServerTCI extends TCI<MockServerContainer>
 	public void start(final String containerName)
 	{
 		super.start(containerName);
-		this.client = new MockServerClient(this.getContainer().getHost(), this.getContainer().getServerPort());
+		this.client = this.createClient();
+	}
+	
+	protected MockServerClient createClient()
+	{
+		return new MockServerClient(this.getContainer().getHost(), this.getContainer().getServerPort());
+	}
+	
+	/**
+	 * Clears all expectations and recorded requests.
+	 */
+	@Override
+	public void resetForReuse()
+	{
+		this.client = this.createClient();
+		this.client.reset();
 	}
 	
 	@Override
@@ -58,7 +58,7 @@ public abstract class MockServerTCIFactory<I extends MockServerTCI>
 	{
 		return this.getNew(
 			network, c -> c.withNetworkAliases(networkAliases)
-				.setLogConsumers(List.of(getLogConsumer(this.containerLoggerName + "." + name))));
+				.setLogConsumers(List.of(getSharedLogConsumer(this.containerLoggerName + "." + name))));
 	}
 	
 	@Override
@@ -120,6 +120,7 @@ public class BrowserTCIFactory extends PreStartableTCIFactory<SeleniumBrowserWeb
 			// Some (AWS) CPUs are completely overloaded with the default 15s timeout -> increase it
 			.waitingFor(FastAbortOnContainerDeathWaitStrategy.waitAll(s -> s
 				.withStartupTimeout(Duration.ofSeconds(30 + 20L * cpuSlownessFactor()))
+				.withConcurrent(true)
 				.withStrategy(new LogMessageWaitAbortableStrategy()
 					.withRegEx(BrowserWebDriverContainer.LOG_MSG_WAIT_STRATEGY_REGEX))
 				.withStrategy(new HostPortWaitAbortableStrategy())
@@ -131,7 +132,7 @@ public class BrowserTCIFactory extends PreStartableTCIFactory<SeleniumBrowserWeb
 		final MutableCapabilities capabilities)
 	{
 		return new SeleniumRecordingContainer(browserContainer)
-			.withLogConsumer(getLogConsumer("container.browserrecorder." + capabilities.getBrowserName()))
+			.withLogConsumer(getSharedLogConsumer("container.browserrecorder." + capabilities.getBrowserName()))
 			.withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withMemory(ContainerMemory.M512M))
 			.waitingFor(new FastAbortOnContainerDeathWaitStrategy(
 				new LogMessageWaitAbortableStrategy()